@@ -946,7 +946,8 @@ public interface Project extends Comparable<Project> {
     /**
      * <p>Creates a new {@code FileTree} which contains the contents of the given TAR file. The given tarPath path is
      * evaluated as for {@link #file(Object)}. You can combine this method with the {@link #copy(groovy.lang.Closure)}
-     * method to untar a TAR file.</p>
+     * method to untar a TAR file. The TAR file may be compressed using gzip or bzip2, which is detected from the
+     * content of the file.</p>
      *
      * <p>The returned file tree is lazy, so that it scans for files only when the contents of the file tree are
      * queried. The file tree is also live, so that it scans for files each time the contents of the file tree are
@@ -16,7 +16,6 @@
 package org.gradle.api.file;
 
 import org.apache.commons.lang.StringUtils;
-import org.gradle.util.GUtil;
 
 import java.io.File;
 import java.util.ArrayList;
@@ -32,8 +31,14 @@ import java.util.ListIterator;
  * @author Steve Appling
  */
 public class RelativePath {
+    // A path is represented as a link to its parent directory plus its last name, so that the paths of the children of
+    // a directory share the path of the directory. The empty path has no parent and no name.
     private final boolean endsWithFile;
-    private final String[] segments;
+    private final RelativePath parent;
+    private final String name;
+    private final int depth;
+    private final int segmentsHash;
+    private String pathString;
 
     /**
      * Creates a {@code RelativePath}.
@@ -46,24 +51,78 @@ public class RelativePath {
 
     private RelativePath(boolean endsWithFile, RelativePath parentPath, String... childSegments) {
         this.endsWithFile = endsWithFile;
-        int sourceLength = 0;
-        if (parentPath != null) {
-            String[] sourceSegments = parentPath.getSegments();
-            sourceLength = sourceSegments.length;
-            segments = new String[sourceLength + childSegments.length];
-            System.arraycopy(sourceSegments, 0, segments, 0, sourceLength);
+        RelativePath parent = parentPath;
+        if (childSegments.length > 0) {
+            parent = asDirectory(parent != null ? parent : new RelativePath(false));
+            for (int i = 0; i < childSegments.length - 1; i++) {
+                parent = new RelativePath(parent, childSegments[i], false);
+            }
+            this.parent = parent;
+            this.name = childSegments[childSegments.length - 1];
+        } else if (parent != null) {
+            this.parent = parent.parent;
+            this.name = parent.name;
         } else {
-            segments = new String[childSegments.length];
+            this.parent = null;
+            this.name = null;
         }
-        System.arraycopy(childSegments, 0, segments, sourceLength, childSegments.length);
+        this.depth = this.parent == null ? 0 : this.parent.depth + 1;
+        this.segmentsHash = this.parent == null ? 1 : 31 * this.parent.segmentsHash + name.hashCode();
+    }
+
+    private RelativePath(RelativePath parent, String name, boolean endsWithFile) {
+        this.endsWithFile = endsWithFile;
+        this.parent = parent;
+        this.name = name;
+        this.depth = parent.depth + 1;
+        this.segmentsHash = 31 * parent.segmentsHash + name.hashCode();
+    }
+
+    private static RelativePath asDirectory(RelativePath path) {
+        if (!path.endsWithFile) {
+            return path;
+        }
+        return path.parent == null ? new RelativePath(false) : new RelativePath(path.parent, path.name, false);
     }
 
     public String[] getSegments() {
+        String[] segments = new String[depth];
+        RelativePath current = this;
+        for (int i = depth - 1; i >= 0; i--) {
+            segments[i] = current.name;
+            current = current.parent;
+        }
         return segments;
     }
 
+    /**
+     * Returns the number of names in this path.
+     *
+     * @return The number of names.
+     */
+    public int getSegmentCount() {
+        return depth;
+    }
+
+    /**
+     * Returns the name at the given index in this path. Unlike {@link #getSegments()}, does not create an array.
+     *
+     * @param index The index of the name, from 0 for the first name.
+     * @return The name.
+     */
+    public String getSegment(int index) {
+        if (index < 0 || index >= depth) {
+            throw new IndexOutOfBoundsException(String.format("Cannot get name %s of path '%s'.", index, this));
+        }
+        RelativePath current = this;
+        for (int i = depth - 1; i > index; i--) {
+            current = current.parent;
+        }
+        return current.name;
+    }
+
     public ListIterator<String> segmentIterator() {
-        ArrayList<String> content = new ArrayList<String>(Arrays.asList(segments));
+        ArrayList<String> content = new ArrayList<String>(Arrays.asList(getSegments()));
         return content.listIterator();
     }
 
@@ -72,7 +131,16 @@ public class RelativePath {
     }
 
     public String getPathString() {
-        return GUtil.join(segments, "/");
+        if (pathString == null) {
+            if (parent == null) {
+                pathString = "";
+            } else if (parent.parent == null) {
+                pathString = name;
+            } else {
+                pathString = parent.getPathString() + '/' + name;
+            }
+        }
+        return pathString;
     }
 
     public File getFile(File baseDir) {
@@ -80,11 +148,7 @@ public class RelativePath {
     }
 
     public String getLastName() {
-        if (segments.length > 0) {
-            return segments[segments.length - 1];
-        } else {
-            return null;
-        }
+        return name;
     }
 
     @Override
@@ -98,11 +162,17 @@ public class RelativePath {
 
         RelativePath that = (RelativePath) o;
 
-        if (endsWithFile != that.endsWithFile) {
+        if (endsWithFile != that.endsWithFile || depth != that.depth || segmentsHash != that.segmentsHash) {
             return false;
         }
-        if (!Arrays.equals(segments, that.segments)) {
-            return false;
+        // Both paths have the same depth, so walk up both together, stopping early at a shared parent
+        for (RelativePath left = this, right = that; left != right; left = left.parent, right = right.parent) {
+            if (left.parent == null) {
+                return true;
+            }
+            if (!left.name.equals(right.name)) {
+                return false;
+            }
         }
 
         return true;
@@ -111,7 +181,7 @@ public class RelativePath {
     @Override
     public int hashCode() {
         int result = endsWithFile ? 1 : 0;
-        result = 31 * result + Arrays.hashCode(segments);
+        result = 31 * result + segmentsHash;
         return result;
     }
 
@@ -126,12 +196,7 @@ public class RelativePath {
      * @return The parent of this path, or null if this is the root path.
      */
     public RelativePath getParent() {
-        if (segments.length == 0) {
-            return null;
-        }
-        String[] parentSegments = new String[segments.length - 1];
-        System.arraycopy(segments, 0, parentSegments, 0, parentSegments.length);
-        return new RelativePath(false, parentSegments);
+        return parent;
     }
 
     public static RelativePath parse(boolean isFile, String path) {
@@ -150,10 +215,10 @@ public class RelativePath {
      * @return The path.
      */
     public RelativePath replaceLastName(String name) {
-        String[] newSegments = new String[segments.length];
-        System.arraycopy(segments, 0, newSegments, 0, segments.length);
-        newSegments[segments.length - 1] = name;
-        return new RelativePath(endsWithFile, newSegments);
+        if (parent == null) {
+            throw new IllegalStateException("Cannot replace the last name of an empty path.");
+        }
+        return new RelativePath(parent, name, endsWithFile);
     }
 
     /**
@@ -163,7 +228,7 @@ public class RelativePath {
      * @return The new path
      */
     public RelativePath append(RelativePath other) {
-        return new RelativePath(other.endsWithFile, this, other.segments);
+        return new RelativePath(other.endsWithFile, this, other.getSegments());
     }
 
     /**
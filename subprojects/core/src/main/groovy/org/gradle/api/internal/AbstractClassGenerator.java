@@ -28,23 +28,32 @@ import java.util.HashMap;
 import java.util.Map;
 
 public abstract class AbstractClassGenerator implements ClassGenerator {
-    private static final Map<Class, Map<Class, Class>> GENERATED_CLASSES = new HashMap<Class, Map<Class, Class>>();
+    private static final Map<Class<?>, GeneratedClassCache> GENERATED_CLASSES = new HashMap<Class<?>, GeneratedClassCache>();
 
     public <T> T newInstance(Class<T> type, Object... parameters) {
         return type.cast(ReflectionUtil.newInstance(generate(type), parameters));
     }
 
-    public <T> Class<? extends T> generate(Class<T> type) {
-        Map<Class, Class> cache = GENERATED_CLASSES.get(getClass());
-        if (cache == null) {
-            cache = new HashMap<Class, Class>();
-            GENERATED_CLASSES.put(getClass(), cache);
-        }
-        Class generatedClass = cache.get(type);
-        if (generatedClass != null) {
-            return generatedClass;
+    public <T> Class<? extends T> generate(final Class<T> type) {
+        return getCache().get(type, new Factory<Class<? extends T>>() {
+            public Class<? extends T> create() {
+                return doGenerate(type);
+            }
+        });
+    }
+
+    private GeneratedClassCache getCache() {
+        synchronized (GENERATED_CLASSES) {
+            GeneratedClassCache cache = GENERATED_CLASSES.get(getClass());
+            if (cache == null) {
+                cache = new GeneratedClassCache();
+                GENERATED_CLASSES.put(getClass(), cache);
+            }
+            return cache;
         }
+    }
 
+    private <T> Class<? extends T> doGenerate(Class<T> type) {
         if (Modifier.isPrivate(type.getModifiers())) {
             throw new GradleException(String.format("Cannot create a proxy class for private class '%s'.",
                     type.getSimpleName()));
@@ -131,7 +140,6 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
             throw new GradleException(String.format("Could not generate a proxy class for class %s.", type.getName()), e);
         }
 
-        cache.put(type, subclass);
         return subclass;
     }
 
@@ -56,7 +56,7 @@ public abstract class AbstractDomainObjectCollection<T> implements DomainObjectC
 
     public void all(Action<? super T> action) {
         whenObjectAdded(action);
-        for (T t : new ArrayList<T>(store.getAll())) {
+        for (T t : new ArrayList<T>(store.getRealized())) {
             action.execute(t);
         }
     }
@@ -102,6 +102,13 @@ public abstract class AbstractDomainObjectCollection<T> implements DomainObjectC
     protected interface Store<S> {
         Collection<? extends S> getAll();
 
+        /**
+         * Returns the objects of this store which have already been created. Unlike {@link #getAll()}, does not
+         * create any objects which the store creates on demand. Those objects are announced through
+         * {@link #objectAdded(Action)} once created.
+         */
+        Collection<? extends S> getRealized();
+
         void objectAdded(Action<? super S> action);
 
         void objectRemoved(Action<? super S> action);
@@ -119,8 +126,16 @@ public abstract class AbstractDomainObjectCollection<T> implements DomainObjectC
         }
 
         public Collection<? extends S> getAll() {
+            return filterAll(store.getAll());
+        }
+
+        public Collection<? extends S> getRealized() {
+            return filterAll(store.getRealized());
+        }
+
+        private Collection<? extends S> filterAll(Collection<?> objects) {
             List<S> values = new ArrayList<S>();
-            for (Object s : store.getAll()) {
+            for (Object s : objects) {
                 S filtered = filter(s);
                 if (filtered != null) {
                     values.add(filtered);
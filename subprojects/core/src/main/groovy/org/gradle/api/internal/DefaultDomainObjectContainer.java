@@ -89,6 +89,10 @@ public class DefaultDomainObjectContainer<T> extends AbstractDomainObjectCollect
             return objects.values();
         }
 
+        public Collection<? extends S> getRealized() {
+            return getAll();
+        }
+
         public void objectAdded(Action<? super S> action) {
             addActions.add(action);
         }
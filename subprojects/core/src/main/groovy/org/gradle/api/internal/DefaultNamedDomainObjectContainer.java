@@ -192,7 +192,7 @@ public class DefaultNamedDomainObjectContainer<T> extends AbstractDomainObjectCo
         Map<String, S> getAsMap();
     }
 
-    private static class MapStore<S> implements NamedObjectStore<S> {
+    protected static class MapStore<S> implements NamedObjectStore<S> {
         private final ActionBroadcast<S> addActions = new ActionBroadcast<S>();
         private final ActionBroadcast<S> removeActions = new ActionBroadcast<S>();
         private final Map<String, S> objects = new TreeMap<String, S>();
@@ -214,6 +214,10 @@ public class DefaultNamedDomainObjectContainer<T> extends AbstractDomainObjectCo
             return getAsMap().values();
         }
 
+        public Collection<? extends S> getRealized() {
+            return getAll();
+        }
+
         public Map<String, S> getAsMap() {
             return objects;
         }
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal;
+
+import com.google.common.collect.MapMaker;
+
+import java.util.Map;
+
+/**
+ * A thread-safe cache of classes generated at runtime, keyed by the class they were generated from. Instances are
+ * intended to be held in static fields, so that generated classes are reused by all builds which run in the same JVM,
+ * such as those run by the daemon or the tooling API.
+ *
+ * <p>Both the source and generated classes are referenced weakly. A generated class is defined in the class loader of
+ * its source class, so an entry is discarded only when that class loader, such as the class loader of a build script
+ * from a previous build, is garbage collected.</p>
+ */
+public class GeneratedClassCache {
+    private final Map<Class<?>, Class<?>> generatedClasses = new MapMaker().weakKeys().weakValues().makeMap();
+    private final Object lock = new Object();
+
+    /**
+     * Returns the class generated from the given type, using the given factory to generate it if it is not already
+     * cached. The generated class does not need to be a subtype of the given type.
+     */
+    public <T> Class<? extends T> get(Class<?> type, Factory<? extends Class<? extends T>> generator) {
+        Class<? extends T> generatedClass = (Class<? extends T>) generatedClasses.get(type);
+        if (generatedClass != null) {
+            return generatedClass;
+        }
+        synchronized (lock) {
+            // Check again, as another thread may have generated the class while we were waiting for the lock
+            generatedClass = (Class<? extends T>) generatedClasses.get(type);
+            if (generatedClass == null) {
+                generatedClass = generator.create();
+                generatedClasses.put(type, generatedClass);
+            }
+            return generatedClass;
+        }
+    }
+}
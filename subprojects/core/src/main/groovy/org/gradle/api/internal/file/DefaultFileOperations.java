@@ -87,7 +87,7 @@ public class DefaultFileOperations implements FileOperations {
     }
 
     public FileTree zipTree(Object zipPath) {
-        return new FileTreeAdapter(new ZipFileTree(file(zipPath), getExpandDir()));
+        return new FileTreeAdapter(new ZipFileTree(file(zipPath), getExpandDir()).inArchiveOrder());
     }
 
     public FileTree tarTree(Object tarPath) {
@@ -116,7 +116,7 @@ public class DefaultFileOperations implements FileOperations {
     }
 
     public WorkResult copy(Closure closure) {
-        CopyActionImpl action = configure(closure, new FileCopyActionImpl(fileResolver, new FileCopySpecVisitor()));
+        CopyActionImpl action = configure(closure, new FileCopyActionImpl(fileResolver, new FileCopySpecVisitor().parallel()));
         action.execute();
         return action;
     }
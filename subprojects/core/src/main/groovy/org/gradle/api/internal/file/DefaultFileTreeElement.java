@@ -19,9 +19,14 @@ import org.gradle.api.file.RelativePath;
 import org.gradle.util.GFileUtils;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 
 public class DefaultFileTreeElement extends AbstractFileTreeElement {
+    private static final long MAX_TRANSFER_SIZE = 8 * 1024 * 1024;
     private final File file;
     private final RelativePath relativePath;
 
@@ -57,4 +62,49 @@ public class DefaultFileTreeElement extends AbstractFileTreeElement {
     public RelativePath getRelativePath() {
         return relativePath;
     }
+
+    @Override
+    public boolean copyTo(File target) {
+        if (isCopy(target)) {
+            return false;
+        }
+        return super.copyTo(target);
+    }
+
+    /**
+     * Returns true if the given target is a copy of this file. A copied file has the same size as this file and the
+     * same last modified time, as this is preserved when copying.
+     */
+    private boolean isCopy(File target) {
+        return target.isFile() && target.length() == file.length() && target.lastModified() == file.lastModified()
+                && file.isFile();
+    }
+
+    @Override
+    protected void copyFile(File target) throws IOException {
+        // Transfer between channels, which allows the operating system to copy the content without passing it
+        // through a buffer on the heap
+        FileInputStream inputStream = new FileInputStream(file);
+        try {
+            FileOutputStream outputStream = new FileOutputStream(target);
+            try {
+                FileChannel source = inputStream.getChannel();
+                FileChannel destination = outputStream.getChannel();
+                long size = source.size();
+                long position = 0;
+                while (position < size) {
+                    long count = source.transferTo(position, Math.min(size - position, MAX_TRANSFER_SIZE), destination);
+                    if (count <= 0) {
+                        // The file has been truncated while copying
+                        break;
+                    }
+                    position += count;
+                }
+            } finally {
+                outputStream.close();
+            }
+        } finally {
+            inputStream.close();
+        }
+    }
 }
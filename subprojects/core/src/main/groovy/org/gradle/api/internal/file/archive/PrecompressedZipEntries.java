@@ -0,0 +1,196 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.archive;
+
+import org.gradle.api.UncheckedIOException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipException;
+
+/**
+ * Tracks the entries of a ZIP file which were written as STORED entries containing data which has already been
+ * deflated, and converts them to DEFLATED entries once the ZIP file is complete.
+ *
+ * <p>The Ant {@code ZipOutputStream} cannot write data which has already been compressed, so such an entry is written
+ * with the STORED method, and its local and central directory headers are later updated with the compression method,
+ * CRC and uncompressed size of the original data. When the ZIP file is written to a random access file, the resulting
+ * headers are the same as those the stream writes for a DEFLATED entry.</p>
+ */
+class PrecompressedZipEntries {
+    static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    static final int CENTRAL_FILE_HEADER_SIGNATURE = 0x02014b50;
+    static final int LOCAL_FILE_HEADER_SIGNATURE = 0x04034b50;
+    static final int END_OF_CENTRAL_DIRECTORY_LENGTH = 22;
+    static final int CENTRAL_FILE_HEADER_LENGTH = 46;
+    static final int LOCAL_FILE_HEADER_LENGTH = 30;
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+    static final int DEFLATED = 8;
+
+    private final List<Entry> entries = new ArrayList<Entry>();
+
+    /**
+     * Records that the entry at the given position in the ZIP file contains deflated data.
+     *
+     * @param index The position of the entry in the ZIP file, counting from 0.
+     * @param crc The CRC of the uncompressed data.
+     * @param size The size of the uncompressed data.
+     */
+    public void add(int index, long crc, long size) {
+        entries.add(new Entry(index, crc, size));
+    }
+
+    /**
+     * Updates the headers of the recorded entries in the given ZIP file.
+     */
+    public void apply(File zipFile) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            RandomAccessFile file = new RandomAccessFile(zipFile, "rw");
+            try {
+                apply(file);
+            } finally {
+                file.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Could not update the entries of ZIP '%s'.", zipFile), e);
+        }
+    }
+
+    private void apply(RandomAccessFile file) throws IOException {
+        byte[] centralDirectory = readCentralDirectory(file);
+        long centralDirectoryOffset = file.getFilePointer() - centralDirectory.length;
+
+        byte[] localHeader = new byte[LOCAL_FILE_HEADER_LENGTH];
+        int entryIndex = 0;
+        int pos = 0;
+        for (Entry entry : entries) {
+            // Entries are recorded in the order they were written, which is also the order of the central directory
+            while (entryIndex < entry.index) {
+                pos = nextCentralFileHeader(centralDirectory, pos);
+                entryIndex++;
+            }
+            if (pos + CENTRAL_FILE_HEADER_LENGTH > centralDirectory.length
+                    || readInt(centralDirectory, pos) != CENTRAL_FILE_HEADER_SIGNATURE) {
+                throw new ZipException("Unexpected central directory structure.");
+            }
+            update(centralDirectory, pos + 10, entry);
+
+            long localHeaderOffset = readInt(centralDirectory, pos + 42);
+            file.seek(localHeaderOffset);
+            file.readFully(localHeader);
+            if (readInt(localHeader, 0) != LOCAL_FILE_HEADER_SIGNATURE) {
+                throw new ZipException("Unexpected local file header structure.");
+            }
+            update(localHeader, 8, entry);
+            file.seek(localHeaderOffset);
+            file.write(localHeader);
+        }
+
+        file.seek(centralDirectoryOffset);
+        file.write(centralDirectory);
+    }
+
+    /**
+     * Updates the method, CRC and sizes of a header, starting at the compression method field.
+     */
+    private static void update(byte[] header, int methodOffset, Entry entry) {
+        writeShort(header, methodOffset, DEFLATED);
+        writeInt(header, methodOffset + 6, entry.crc);
+        // The compressed size is the size of the STORED data
+        writeInt(header, methodOffset + 14, entry.size);
+    }
+
+    static int nextCentralFileHeader(byte[] centralDirectory, int pos) {
+        return pos + CENTRAL_FILE_HEADER_LENGTH + readShort(centralDirectory, pos + 28) + readShort(centralDirectory, pos + 30)
+                + readShort(centralDirectory, pos + 32);
+    }
+
+    /**
+     * Reads the central directory of the given ZIP file, leaving the file positioned at the end of it. The central
+     * directory must directly precede the end of central directory record. The sizes and offsets of a ZIP file are 32
+     * bit values, which wrap once the file grows beyond 4 GB, so such a file fails this check rather than being read or
+     * updated in the wrong place.
+     *
+     * @throws ZipException If the central directory is not where expected.
+     */
+    static byte[] readCentralDirectory(RandomAccessFile file) throws IOException {
+        long endOfCentralDirectory = findEndOfCentralDirectory(file);
+        byte[] end = new byte[END_OF_CENTRAL_DIRECTORY_LENGTH];
+        file.seek(endOfCentralDirectory);
+        file.readFully(end);
+        long centralDirectoryLength = readInt(end, 12);
+        long centralDirectoryOffset = readInt(end, 16);
+        if (centralDirectoryOffset + centralDirectoryLength != endOfCentralDirectory
+                || centralDirectoryLength > Integer.MAX_VALUE) {
+            throw new ZipException("Unexpected central directory structure. ZIP files larger than 4 GB are not supported.");
+        }
+
+        byte[] centralDirectory = new byte[(int) centralDirectoryLength];
+        file.seek(centralDirectoryOffset);
+        file.readFully(centralDirectory);
+        return centralDirectory;
+    }
+
+    static long findEndOfCentralDirectory(RandomAccessFile file) throws IOException {
+        long length = file.length();
+        long stop = Math.max(0, length - END_OF_CENTRAL_DIRECTORY_LENGTH - MAX_COMMENT_LENGTH);
+        byte[] signature = new byte[4];
+        for (long pos = length - END_OF_CENTRAL_DIRECTORY_LENGTH; pos >= stop; pos--) {
+            file.seek(pos);
+            file.readFully(signature);
+            if (readInt(signature, 0) == END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+                return pos;
+            }
+        }
+        throw new ZipException("Could not find the end of the central directory.");
+    }
+
+    static int readShort(byte[] buffer, int offset) {
+        return (buffer[offset] & 0xFF) | (buffer[offset + 1] & 0xFF) << 8;
+    }
+
+    static long readInt(byte[] buffer, int offset) {
+        return (readShort(buffer, offset) | (long) readShort(buffer, offset + 2) << 16) & 0xFFFFFFFFL;
+    }
+
+    private static void writeShort(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >> 8);
+    }
+
+    private static void writeInt(byte[] buffer, int offset, long value) {
+        writeShort(buffer, offset, (int) value);
+        writeShort(buffer, offset + 2, (int) (value >> 16));
+    }
+
+    private static class Entry {
+        private final int index;
+        private final long crc;
+        private final long size;
+
+        private Entry(int index, long crc, long size) {
+            this.index = index;
+            this.crc = crc;
+            this.size = size;
+        }
+    }
+}
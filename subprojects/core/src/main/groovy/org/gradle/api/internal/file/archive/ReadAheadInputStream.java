@@ -0,0 +1,185 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.archive;
+
+import org.gradle.messaging.concurrent.DaemonExecutors;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reads another stream on a separate thread, so that the work done by that stream, such as decompression, overlaps
+ * with the work done by the reader of this stream. The content is read ahead in chunks, up to a fixed number of
+ * chunks. Closing this stream stops the read ahead and closes the other stream.
+ */
+class ReadAheadInputStream extends InputStream {
+    private static final int CHUNK_SIZE = 256 * 1024;
+    private static final int MAX_CHUNKS = 16;
+    private static final byte[] END = new byte[0];
+    // Each stream needs a thread of its own for as long as it is open. Idle threads are discarded after a while
+    private static final ExecutorService READ_AHEAD_EXECUTOR = Executors.newCachedThreadPool(
+            DaemonExecutors.newThreadFactory("Read ahead"));
+
+    private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<byte[]>(MAX_CHUNKS);
+    private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final InputStream inputStream;
+    private final Future<?> reader;
+    private byte[] chunk;
+    private int pos;
+    private boolean finished;
+
+    public ReadAheadInputStream(InputStream inputStream) {
+        this.inputStream = inputStream;
+        reader = READ_AHEAD_EXECUTOR.submit(new ReadChunks());
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!nextChunk()) {
+            return -1;
+        }
+        return chunk[pos++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!nextChunk()) {
+            return -1;
+        }
+        int count = Math.min(length, chunk.length - pos);
+        System.arraycopy(chunk, pos, buffer, offset, count);
+        pos += count;
+        return count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n && nextChunk()) {
+            int count = (int) Math.min(n - skipped, chunk.length - pos);
+            pos += count;
+            skipped += count;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return chunk == null ? 0 : chunk.length - pos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        chunk = null;
+        reader.cancel(true);
+        chunks.clear();
+        if (started.compareAndSet(false, true)) {
+            // The read ahead never started, so the other stream is not closed by it
+            inputStream.close();
+        }
+    }
+
+    /**
+     * Makes sure there is some unread content in the current chunk, waiting for the next chunk if required.
+     *
+     * @return false when the end of the stream has been reached.
+     */
+    private boolean nextChunk() throws IOException {
+        while (!finished && (chunk == null || pos == chunk.length)) {
+            try {
+                chunk = chunks.take();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+            pos = 0;
+            if (chunk == END) {
+                finished = true;
+                chunk = null;
+            }
+        }
+        if (finished) {
+            Throwable throwable = failure.get();
+            if (throwable instanceof IOException) {
+                throw (IOException) throwable;
+            }
+            if (throwable != null) {
+                IOException exception = new IOException(throwable.getMessage());
+                exception.initCause(throwable);
+                throw exception;
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private class ReadChunks implements Runnable {
+        public void run() {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                try {
+                    readChunks();
+                } finally {
+                    inputStream.close();
+                }
+            } catch (InterruptedException e) {
+                // The stream has been closed, so nobody is waiting for the end
+                return;
+            } catch (Throwable throwable) {
+                failure.set(throwable);
+            }
+            try {
+                chunks.put(END);
+            } catch (InterruptedException e) {
+                // The stream has been closed
+            }
+        }
+
+        private void readChunks() throws IOException, InterruptedException {
+            while (true) {
+                byte[] buffer = new byte[CHUNK_SIZE];
+                int count = 0;
+                while (count < buffer.length) {
+                    int read = inputStream.read(buffer, count, buffer.length - count);
+                    if (read < 0) {
+                        break;
+                    }
+                    count += read;
+                }
+                if (count == 0) {
+                    return;
+                }
+                if (count < buffer.length) {
+                    byte[] lastChunk = new byte[count];
+                    System.arraycopy(buffer, 0, lastChunk, 0, count);
+                    chunks.put(lastChunk);
+                    return;
+                }
+                chunks.put(buffer);
+            }
+        }
+    }
+}
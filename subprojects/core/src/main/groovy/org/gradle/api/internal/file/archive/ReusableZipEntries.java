@@ -0,0 +1,131 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.archive;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipException;
+
+import static org.gradle.api.internal.file.archive.PrecompressedZipEntries.*;
+
+/**
+ * The DEFLATED entries of an existing ZIP file, whose compressed data can be reused when the ZIP file is built again.
+ * Entries are matched by path, uncompressed size and CRC. The compressed data can be read concurrently by several
+ * threads.
+ */
+class ReusableZipEntries {
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final Map<String, Entry> entries = new HashMap<String, Entry>();
+
+    private ReusableZipEntries(RandomAccessFile file) {
+        this.file = file;
+        this.channel = file.getChannel();
+    }
+
+    /**
+     * Reads the central directory of the given ZIP file.
+     *
+     * @throws ZipException If the file is not a ZIP file which can be reused.
+     */
+    public static ReusableZipEntries open(File zipFile) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(zipFile, "r");
+        ReusableZipEntries entries = new ReusableZipEntries(file);
+        try {
+            entries.readCentralDirectory();
+        } catch (IOException e) {
+            entries.close();
+            throw e;
+        }
+        return entries;
+    }
+
+    private void readCentralDirectory() throws IOException {
+        byte[] centralDirectory = PrecompressedZipEntries.readCentralDirectory(file);
+
+        for (int pos = 0; pos < centralDirectory.length; pos = nextCentralFileHeader(centralDirectory, pos)) {
+            if (pos + CENTRAL_FILE_HEADER_LENGTH > centralDirectory.length
+                    || readInt(centralDirectory, pos) != CENTRAL_FILE_HEADER_SIGNATURE) {
+                throw new ZipException("Unexpected central directory structure.");
+            }
+            int nameLength = readShort(centralDirectory, pos + 28);
+            if (readShort(centralDirectory, pos + 10) != DEFLATED) {
+                continue;
+            }
+            // Entry names are written using the platform default encoding
+            String name = new String(centralDirectory, pos + CENTRAL_FILE_HEADER_LENGTH, nameLength);
+            entries.put(name, new Entry(readInt(centralDirectory, pos + 16), readInt(centralDirectory, pos + 20),
+                    readInt(centralDirectory, pos + 24), readInt(centralDirectory, pos + 42)));
+        }
+    }
+
+    /**
+     * Returns the deflated data of the entry with the given path, uncompressed size and CRC.
+     *
+     * @return The deflated data, or null if there is no such entry.
+     */
+    public byte[] findDeflatedData(String path, long size, long crc) throws IOException {
+        Entry entry = entries.get(path);
+        if (entry == null || entry.size != size || entry.crc != crc || entry.compressedSize > Integer.MAX_VALUE) {
+            return null;
+        }
+
+        byte[] localHeader = new byte[LOCAL_FILE_HEADER_LENGTH];
+        read(localHeader, entry.localHeaderOffset);
+        if (readInt(localHeader, 0) != LOCAL_FILE_HEADER_SIGNATURE) {
+            throw new ZipException("Unexpected local file header structure.");
+        }
+        long dataOffset = entry.localHeaderOffset + LOCAL_FILE_HEADER_LENGTH + readShort(localHeader, 26)
+                + readShort(localHeader, 28);
+        byte[] data = new byte[(int) entry.compressedSize];
+        read(data, dataOffset);
+        return data;
+    }
+
+    private void read(byte[] buffer, long position) throws IOException {
+        // Positional reads do not change the position of the channel, so can be used by several threads at once
+        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+        while (byteBuffer.hasRemaining()) {
+            int count = channel.read(byteBuffer, position + byteBuffer.position());
+            if (count < 0) {
+                throw new ZipException("Unexpected end of ZIP file.");
+            }
+        }
+    }
+
+    public void close() throws IOException {
+        file.close();
+    }
+
+    private static class Entry {
+        private final long crc;
+        private final long compressedSize;
+        private final long size;
+        private final long localHeaderOffset;
+
+        private Entry(long crc, long compressedSize, long size, long localHeaderOffset) {
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+    }
+}
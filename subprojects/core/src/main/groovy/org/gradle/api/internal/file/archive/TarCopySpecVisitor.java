@@ -26,6 +26,7 @@ import org.apache.tools.zip.UnixStat;
 import org.gradle.api.internal.file.copy.EmptyCopySpecVisitor;
 import org.gradle.api.internal.file.copy.ReadableCopySpec;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -33,6 +34,7 @@ import java.io.OutputStream;
 import java.util.zip.GZIPOutputStream;
 
 public class TarCopySpecVisitor extends EmptyCopySpecVisitor {
+    private static final int BUFFER_SIZE = 256 * 1024;
     private TarOutputStream tarOutStr;
     private File tarFile;
     private ReadableCopySpec spec;
@@ -41,10 +43,11 @@ public class TarCopySpecVisitor extends EmptyCopySpecVisitor {
         TarCopyAction archiveAction = (TarCopyAction) action;
         try {
             tarFile = archiveAction.getArchivePath();
-            OutputStream outStr = new FileOutputStream(tarFile);
+            // The TAR stream writes blocks of 10K, and the compressing streams write much smaller chunks
+            OutputStream outStr = new BufferedOutputStream(new FileOutputStream(tarFile), BUFFER_SIZE);
             switch (archiveAction.getCompression()) {
                 case GZIP:
-                    outStr = new GZIPOutputStream(outStr);
+                    outStr = new GZIPOutputStream(outStr, BUFFER_SIZE);
                     break;
                 case BZIP2:
                     outStr.write('B');
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.archive;
+
+import org.apache.tools.tar.TarEntry;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the entries of a TAR stream, and the content of the current entry. Unlike the Ant {@code TarInputStream}, this
+ * reads the stream in large chunks, and skips the content of an entry which has not been read using
+ * {@link InputStream#skip(long)}. For a file stream, this means the content of the entries which are not needed is not
+ * read at all.
+ *
+ * <p>Closing this stream does not close the TAR stream.</p>
+ */
+class TarEntryReader extends InputStream {
+    private static final int RECORD_SIZE = 512;
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private final InputStream inputStream;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int pos;
+    private int limit;
+    private TarEntry current;
+    private long remaining;
+    private long padding;
+    private boolean finished;
+
+    public TarEntryReader(InputStream inputStream) {
+        this.inputStream = inputStream;
+    }
+
+    /**
+     * Returns the entry whose content can currently be read from this stream.
+     */
+    public TarEntry getCurrent() {
+        return current;
+    }
+
+    /**
+     * Moves to the next entry, skipping whatever is left of the content of the current entry.
+     *
+     * @return The next entry, or null at the end of the TAR stream.
+     */
+    public TarEntry getNextEntry() throws IOException {
+        if (finished) {
+            return null;
+        }
+        skipFully(remaining + padding);
+        current = null;
+        remaining = 0;
+        padding = 0;
+
+        byte[] header = new byte[RECORD_SIZE];
+        if (!readRecord(header) || isEndOfArchive(header)) {
+            finished = true;
+            return null;
+        }
+
+        TarEntry entry = new TarEntry(header);
+        startContent(entry.getSize());
+        if (entry.isGNULongNameEntry()) {
+            // The content of this entry is the name of the next entry
+            String name = readLongName((int) entry.getSize());
+            entry = getNextEntry();
+            if (entry == null) {
+                throw new EOFException("Unexpected end of TAR file.");
+            }
+            entry.setName(name);
+            return entry;
+        }
+        current = entry;
+        return entry;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] oneByte = new byte[1];
+        return read(oneByte, 0, 1) < 0 ? -1 : oneByte[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (remaining == 0) {
+            return -1;
+        }
+        int count = (int) Math.min(length, remaining);
+        if (pos < limit) {
+            count = Math.min(count, limit - pos);
+            System.arraycopy(buffer, pos, bytes, offset, count);
+            pos += count;
+        } else if (count >= buffer.length) {
+            // Large reads bypass the buffer
+            count = inputStream.read(bytes, offset, count);
+        } else if (fill()) {
+            count = Math.min(count, limit - pos);
+            System.arraycopy(buffer, pos, bytes, offset, count);
+            pos += count;
+        } else {
+            count = -1;
+        }
+        if (count < 0) {
+            throw new EOFException("Unexpected end of TAR file.");
+        }
+        remaining -= count;
+        return count;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private void startContent(long size) {
+        remaining = size;
+        long lastRecord = size % RECORD_SIZE;
+        padding = lastRecord == 0 ? 0 : RECORD_SIZE - lastRecord;
+    }
+
+    private String readLongName(int length) throws IOException {
+        byte[] name = new byte[length];
+        int count = 0;
+        while (count < length) {
+            count += read(name, count, length - count);
+        }
+        // The name is terminated by one or more NUL characters
+        while (length > 0 && name[length - 1] == 0) {
+            length--;
+        }
+        return new String(name, 0, length);
+    }
+
+    private boolean readRecord(byte[] record) throws IOException {
+        int count = 0;
+        while (count < record.length) {
+            if (pos == limit && !fill()) {
+                if (count == 0) {
+                    return false;
+                }
+                throw new EOFException("Unexpected end of TAR file.");
+            }
+            int chunk = Math.min(record.length - count, limit - pos);
+            System.arraycopy(buffer, pos, record, count, chunk);
+            pos += chunk;
+            count += chunk;
+        }
+        return true;
+    }
+
+    private static boolean isEndOfArchive(byte[] record) {
+        for (byte b : record) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void skipFully(long n) throws IOException {
+        int buffered = (int) Math.min(n, limit - pos);
+        pos += buffered;
+        n -= buffered;
+        while (n > 0) {
+            long skipped = inputStream.skip(n);
+            if (skipped <= 0) {
+                if (!fill()) {
+                    throw new EOFException("Unexpected end of TAR file.");
+                }
+                skipped = Math.min(n, limit - pos);
+                pos += skipped;
+            }
+            n -= skipped;
+        }
+    }
+
+    private boolean fill() throws IOException {
+        pos = 0;
+        limit = 0;
+        int count = inputStream.read(buffer);
+        if (count < 0) {
+            return false;
+        }
+        limit = count;
+        return true;
+    }
+}
@@ -15,10 +15,11 @@
  */
 package org.gradle.api.internal.file.archive;
 
+import org.apache.tools.bzip2.CBZip2InputStream;
 import org.apache.tools.tar.TarEntry;
-import org.apache.tools.tar.TarInputStream;
 import org.gradle.api.GradleException;
 import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.FileVisitor;
 import org.gradle.api.file.RelativePath;
@@ -26,23 +27,50 @@ import org.gradle.api.internal.file.AbstractFileTreeElement;
 import org.gradle.api.internal.file.collections.DirectoryFileTree;
 import org.gradle.api.internal.file.collections.FileSystemMirroringFileTree;
 import org.gradle.api.internal.file.collections.MinimalFileTree;
+import org.gradle.api.internal.file.collections.PatternFilterableFileTree;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.specs.Specs;
+import org.gradle.api.tasks.bundling.Compression;
+import org.gradle.api.tasks.util.PatternFilterable;
+import org.gradle.api.tasks.util.PatternSet;
 import org.gradle.util.GFileUtils;
 import org.gradle.util.HashUtil;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.InputStream;
+import java.io.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
 
-public class TarFileTree implements MinimalFileTree, FileSystemMirroringFileTree {
+/**
+ * The contents of a TAR file, which may be compressed using gzip or bzip2. The compression is detected from the
+ * content of the file. A compressed file is decompressed on a separate thread while its entries are visited.
+ */
+public class TarFileTree implements MinimalFileTree, FileSystemMirroringFileTree, PatternFilterableFileTree {
+    private static final int BUFFER_SIZE = 256 * 1024;
     private final File tarFile;
     private final File tmpDir;
+    private final PatternSet patternSet;
 
     public TarFileTree(File tarFile, File tmpDir) {
         this.tarFile = tarFile;
         String expandDirName = String.format("%s_%s", tarFile.getName(), HashUtil.createHash(tarFile.getAbsolutePath()));
         this.tmpDir = new File(tmpDir, expandDirName);
+        this.patternSet = null;
+    }
+
+    private TarFileTree(File tarFile, File expandDir, PatternSet patternSet) {
+        this.tarFile = tarFile;
+        this.tmpDir = expandDir;
+        this.patternSet = patternSet;
+    }
+
+    /**
+     * Returns a tree containing the entries of this tree which match the given patterns. The content of the entries
+     * which do not match is skipped rather than read.
+     */
+    public TarFileTree filter(PatternFilterable patterns) {
+        PatternSet patternSet = this.patternSet == null ? new PatternSet() : this.patternSet.intersect();
+        patternSet.copyFrom(patterns);
+        return new TarFileTree(tarFile, tmpDir, patternSet);
     }
 
     public String getDisplayName() {
@@ -50,7 +78,10 @@ public class TarFileTree implements MinimalFileTree, FileSystemMirroringFileTree
     }
 
     public DirectoryFileTree getMirror() {
-        return new DirectoryFileTree(tmpDir);
+        if (patternSet == null) {
+            return new DirectoryFileTree(tmpDir);
+        }
+        return new DirectoryFileTree(tmpDir, patternSet);
     }
 
     public void visit(FileVisitor visitor) {
@@ -62,18 +93,23 @@ public class TarFileTree implements MinimalFileTree, FileSystemMirroringFileTree
         }
 
         AtomicBoolean stopFlag = new AtomicBoolean();
+        Spec<FileTreeElement> spec = patternSet == null ? Specs.<FileTreeElement>satisfyAll() : patternSet.getAsSpec();
         try {
-            FileInputStream inputStream = new FileInputStream(tarFile);
+            InputStream inputStream = open();
             try {
-                NoCloseTarInputStream tar = new NoCloseTarInputStream(inputStream);
+                TarEntryReader tar = new TarEntryReader(inputStream);
                 TarEntry entry;
                 while (!stopFlag.get() && (entry = tar.getNextEntry()) != null) {
+                    DetailsImpl details = new DetailsImpl(entry, tar, stopFlag);
+                    if (!spec.isSatisfiedBy(details)) {
+                        // The content of the entry is skipped when moving to the next entry
+                        continue;
+                    }
                     if (entry.isDirectory()) {
-                        visitor.visitDir(new DetailsImpl(entry, tar, stopFlag));
+                        visitor.visitDir(details);
                     } else {
-                        visitor.visitFile(new DetailsImpl(entry, tar, stopFlag));
+                        visitor.visitFile(details);
                     }
-
                 }
             } finally {
                 inputStream.close();
@@ -83,14 +119,59 @@ public class TarFileTree implements MinimalFileTree, FileSystemMirroringFileTree
         }
     }
 
+    private InputStream open() throws IOException {
+        Compression compression = detectCompression();
+        InputStream inputStream = new FileInputStream(tarFile);
+        try {
+            switch (compression) {
+                case GZIP:
+                    return new ReadAheadInputStream(new GZIPInputStream(inputStream, BUFFER_SIZE));
+                case BZIP2:
+                    // The bzip2 stream expects the content following the 'BZ' signature
+                    inputStream.skip(2);
+                    return new ReadAheadInputStream(new CBZip2InputStream(new BufferedInputStream(inputStream, BUFFER_SIZE)));
+                default:
+                    return inputStream;
+            }
+        } catch (IOException e) {
+            inputStream.close();
+            throw e;
+        }
+    }
+
+    private Compression detectCompression() throws IOException {
+        byte[] signature = new byte[3];
+        int count = 0;
+        FileInputStream inputStream = new FileInputStream(tarFile);
+        try {
+            while (count < signature.length) {
+                int read = inputStream.read(signature, count, signature.length - count);
+                if (read < 0) {
+                    break;
+                }
+                count += read;
+            }
+        } finally {
+            inputStream.close();
+        }
+        if (count >= 2 && (signature[0] & 0xFF) == 0x1F && (signature[1] & 0xFF) == 0x8B) {
+            return Compression.GZIP;
+        }
+        if (count == 3 && signature[0] == 'B' && signature[1] == 'Z' && signature[2] == 'h') {
+            return Compression.BZIP2;
+        }
+        return Compression.NONE;
+    }
+
     private class DetailsImpl extends AbstractFileTreeElement implements FileVisitDetails {
         private final TarEntry entry;
-        private final NoCloseTarInputStream tar;
+        private final TarEntryReader tar;
         private final AtomicBoolean stopFlag;
+        private RelativePath relativePath;
         private File file;
         private boolean read;
 
-        public DetailsImpl(TarEntry entry, NoCloseTarInputStream tar, AtomicBoolean stopFlag) {
+        public DetailsImpl(TarEntry entry, TarEntryReader tar, AtomicBoolean stopFlag) {
             this.entry = entry;
             this.tar = tar;
             this.stopFlag = stopFlag;
@@ -136,21 +217,10 @@ public class TarFileTree implements MinimalFileTree, FileSystemMirroringFileTree
         }
 
         public RelativePath getRelativePath() {
-            return new RelativePath(!entry.isDirectory(), entry.getName().split("/"));
-        }
-    }
-
-    private static class NoCloseTarInputStream extends TarInputStream {
-        public NoCloseTarInputStream(InputStream is) {
-            super(is);
-        }
-
-        @Override
-        public void close() throws IOException {
-        }
-
-        public TarEntry getCurrent() {
-            return currEntry;
+            if (relativePath == null) {
+                relativePath = new RelativePath(!entry.isDirectory(), entry.getName().split("/"));
+            }
+            return relativePath;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.archive;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipException;
+
+import static org.gradle.api.internal.file.archive.PrecompressedZipEntries.*;
+
+/**
+ * Reads the entry names of a ZIP file from its central directory, in the order they appear there.
+ */
+class ZipCentralDirectory {
+    private static final int UTF8_FLAG = 1 << 11;
+
+    private ZipCentralDirectory() {
+    }
+
+    /**
+     * Returns the names of the entries of the given ZIP file, in central directory order. Names are decoded using
+     * UTF-8 when the entry is flagged as such, and using the platform default encoding otherwise.
+     */
+    public static List<String> readEntryNames(File zipFile) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(zipFile, "r");
+        try {
+            long endOfCentralDirectory = findEndOfCentralDirectory(file);
+            byte[] end = new byte[END_OF_CENTRAL_DIRECTORY_LENGTH];
+            file.seek(endOfCentralDirectory);
+            file.readFully(end);
+            int entryCount = readShort(end, 10);
+            long centralDirectoryLength = readInt(end, 12);
+            long centralDirectoryOffset = readInt(end, 16);
+            if (centralDirectoryOffset + centralDirectoryLength > endOfCentralDirectory
+                    || centralDirectoryLength > Integer.MAX_VALUE) {
+                throw new ZipException("Unexpected central directory structure.");
+            }
+
+            byte[] centralDirectory = new byte[(int) centralDirectoryLength];
+            file.seek(centralDirectoryOffset);
+            file.readFully(centralDirectory);
+
+            List<String> names = new ArrayList<String>(entryCount);
+            for (int pos = 0; pos < centralDirectory.length; pos = nextCentralFileHeader(centralDirectory, pos)) {
+                if (pos + CENTRAL_FILE_HEADER_LENGTH > centralDirectory.length
+                        || readInt(centralDirectory, pos) != CENTRAL_FILE_HEADER_SIGNATURE) {
+                    throw new ZipException("Unexpected central directory structure.");
+                }
+                int nameLength = readShort(centralDirectory, pos + 28);
+                if ((readShort(centralDirectory, pos + 8) & UTF8_FLAG) != 0) {
+                    names.add(new String(centralDirectory, pos + CENTRAL_FILE_HEADER_LENGTH, nameLength, "UTF-8"));
+                } else {
+                    names.add(new String(centralDirectory, pos + CENTRAL_FILE_HEADER_LENGTH, nameLength));
+                }
+            }
+            return names;
+        } finally {
+            file.close();
+        }
+    }
+}
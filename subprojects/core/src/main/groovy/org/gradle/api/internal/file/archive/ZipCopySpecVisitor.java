@@ -17,39 +17,153 @@ package org.gradle.api.internal.file.archive;
 
 import org.apache.tools.zip.*;
 import org.gradle.api.GradleException;
+import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.internal.file.copy.CopyAction;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.internal.file.copy.ArchiveCopyAction;
 import org.gradle.api.internal.file.copy.EmptyCopySpecVisitor;
 import org.gradle.api.internal.file.copy.ReadableCopySpec;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.tasks.bundling.ZipEntryCompression;
+import org.gradle.messaging.concurrent.DaemonExecutors;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedList;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 
 public class ZipCopySpecVisitor extends EmptyCopySpecVisitor {
+    private static final Logger LOGGER = Logging.getLogger(ZipCopySpecVisitor.class);
+    private static final int MAX_BUFFERED_ENTRY_SIZE = 4 * 1024 * 1024;
+    private static final long MAX_PENDING_SIZE = 64 * 1024 * 1024;
+    private static final int MAX_PENDING_ENTRIES = 1000;
+    private static final ExecutorService COMPRESSION_EXECUTOR = DaemonExecutors.newBoundedExecutor("Zip compressor",
+            Runtime.getRuntime().availableProcessors());
+
+    private final LinkedList<PendingEntry> pendingEntries = new LinkedList<PendingEntry>();
     private ZipOutputStream zipOutStr;
     private File zipFile;
     private ReadableCopySpec spec;
+    private boolean parallel;
+    private int method;
+    private int level;
+    private long pendingSize;
+    private int entryCount;
+    private PrecompressedZipEntries precompressedEntries;
+    private File previousZipFile;
+    private ReusableZipEntries reusableEntries;
+    private DeflaterPool deflaters;
+
+    /**
+     * Compresses entries concurrently with visiting the source trees. The content of each entry is read as it is
+     * visited and compressed by a pool of threads, and the compressed entries are written to the ZIP file in the order
+     * they were visited. The resulting ZIP file is the same as the one written without this option.
+     *
+     * @return this
+     */
+    public ZipCopySpecVisitor parallel() {
+        parallel = true;
+        return this;
+    }
 
     public void startVisit(CopyAction action) {
         ArchiveCopyAction archiveAction = (ArchiveCopyAction) action;
         zipFile = archiveAction.getArchivePath();
+        method = ZipEntry.DEFLATED;
+        level = Deflater.DEFAULT_COMPRESSION;
+        boolean incremental = false;
+        if (action instanceof ZipCopyAction) {
+            ZipCopyAction zipAction = (ZipCopyAction) action;
+            method = zipAction.getEntryCompression() == ZipEntryCompression.STORED ? ZipEntry.STORED : ZipEntry.DEFLATED;
+            level = zipAction.getCompressionLevel();
+            incremental = zipAction.isIncremental();
+        }
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new InvalidUserDataException(String.format("Invalid compression level %s specified for ZIP '%s'.", level, zipFile));
+        }
+        pendingEntries.clear();
+        pendingSize = 0;
+        entryCount = 0;
+        precompressedEntries = new PrecompressedZipEntries();
+        if (incremental && method == ZipEntry.DEFLATED) {
+            openPreviousZipFile();
+        }
         try {
             zipOutStr = new ZipOutputStream(zipFile);
+            zipOutStr.setMethod(method);
+            zipOutStr.setLevel(level);
         } catch (Exception e) {
+            closePreviousZipFile();
             throw new GradleException(String.format("Could not create ZIP '%s'.", zipFile), e);
         }
+        deflaters = new DeflaterPool(level);
     }
 
     public void endVisit() {
         try {
-            zipOutStr.close();
+            try {
+                writePendingEntries();
+            } finally {
+                zipOutStr.close();
+            }
+            precompressedEntries.apply(zipFile);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         } finally {
+            for (PendingEntry entry : pendingEntries) {
+                entry.cancel();
+            }
+            pendingEntries.clear();
+            deflaters.close();
+            deflaters = null;
+            closePreviousZipFile();
             spec = null;
             zipOutStr = null;
+            precompressedEntries = null;
+        }
+    }
+
+    /**
+     * Moves the existing ZIP file aside, so that the compressed data of its entries can be reused while the new ZIP
+     * file is written.
+     */
+    private void openPreviousZipFile() {
+        if (!zipFile.isFile()) {
+            return;
+        }
+        previousZipFile = new File(zipFile.getParentFile(), zipFile.getName() + ".previous");
+        previousZipFile.delete();
+        if (!zipFile.renameTo(previousZipFile)) {
+            previousZipFile = null;
+            return;
+        }
+        try {
+            reusableEntries = ReusableZipEntries.open(previousZipFile);
+        } catch (IOException e) {
+            LOGGER.info(String.format("Could not reuse the entries of ZIP '%s'. Rebuilding all entries.", zipFile), e);
+            closePreviousZipFile();
+        }
+    }
+
+    private void closePreviousZipFile() {
+        if (previousZipFile == null) {
+            return;
+        }
+        try {
+            if (reusableEntries != null) {
+                reusableEntries.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            previousZipFile.delete();
+            previousZipFile = null;
+            reusableEntries = null;
         }
     }
 
@@ -58,17 +172,43 @@ public class ZipCopySpecVisitor extends EmptyCopySpecVisitor {
     }
 
     public void visitFile(FileVisitDetails fileDetails) {
+        ZipEntry archiveEntry;
+        EntryContent content;
         try {
-            ZipEntry archiveEntry = new ZipEntry(fileDetails.getRelativePath().getPathString());
-            archiveEntry.setMethod(ZipEntry.DEFLATED);
+            archiveEntry = new ZipEntry(fileDetails.getRelativePath().getPathString());
+            archiveEntry.setMethod(method);
             archiveEntry.setTime(fileDetails.getLastModified());
             archiveEntry.setUnixMode(UnixStat.FILE_FLAG | spec.getFileMode());
-            zipOutStr.putNextEntry(archiveEntry);
-            fileDetails.copyTo(zipOutStr);
-            zipOutStr.closeEntry();
+            if (method == ZipEntry.STORED || !parallel && reusableEntries == null) {
+                // The stream calculates the CRC and size of STORED entries itself, as the file is random access
+                zipOutStr.putNextEntry(archiveEntry);
+                fileDetails.copyTo(zipOutStr);
+                zipOutStr.closeEntry();
+                entryCount++;
+                return;
+            }
+
+            content = new EntryContent(archiveEntry);
+            fileDetails.copyTo(content);
+            if (content.direct) {
+                zipOutStr.closeEntry();
+                entryCount++;
+                return;
+            }
         } catch (Exception e) {
             throw new GradleException(String.format("Could not add %s to ZIP '%s'.", fileDetails, zipFile), e);
         }
+
+        Compress compress = new Compress(archiveEntry.getName(), content.buffer, content.count, deflaters, reusableEntries);
+        Future<CompressedContent> compressed;
+        if (parallel) {
+            compressed = COMPRESSION_EXECUTOR.submit(compress);
+        } else {
+            FutureTask<CompressedContent> task = new FutureTask<CompressedContent>(compress);
+            task.run();
+            compressed = task;
+        }
+        addPendingEntry(new PendingEntry(fileDetails.toString(), archiveEntry, compressed, content.count));
     }
 
     public void visitDir(FileVisitDetails dirDetails) {
@@ -77,8 +217,15 @@ public class ZipCopySpecVisitor extends EmptyCopySpecVisitor {
             ZipEntry archiveEntry = new ZipEntry(dirDetails.getRelativePath().getPathString() + '/');
             archiveEntry.setTime(dirDetails.getLastModified());
             archiveEntry.setUnixMode(UnixStat.DIR_FLAG | spec.getDirMode());
+            if (!pendingEntries.isEmpty()) {
+                addPendingEntry(new PendingEntry(dirDetails.toString(), archiveEntry, null, 0));
+                return;
+            }
             zipOutStr.putNextEntry(archiveEntry);
             zipOutStr.closeEntry();
+            entryCount++;
+        } catch (GradleException e) {
+            throw e;
         } catch (Exception e) {
             throw new GradleException(String.format("Could not add %s to ZIP '%s'.", dirDetails, zipFile), e);
         }
@@ -87,4 +234,230 @@ public class ZipCopySpecVisitor extends EmptyCopySpecVisitor {
     public boolean getDidWork() {
         return true;
     }
+
+    private void addPendingEntry(PendingEntry entry) {
+        pendingEntries.add(entry);
+        pendingSize += entry.size;
+        while (pendingSize > MAX_PENDING_SIZE || pendingEntries.size() > MAX_PENDING_ENTRIES) {
+            writeNextPendingEntry();
+        }
+    }
+
+    private void writePendingEntries() {
+        while (!pendingEntries.isEmpty()) {
+            writeNextPendingEntry();
+        }
+    }
+
+    private void writeNextPendingEntry() {
+        PendingEntry entry = pendingEntries.removeFirst();
+        pendingSize -= entry.size;
+        try {
+            ZipEntry archiveEntry = entry.archiveEntry;
+            if (entry.compressed == null) {
+                zipOutStr.putNextEntry(archiveEntry);
+                zipOutStr.closeEntry();
+            } else {
+                CompressedContent content = entry.getCompressedContent();
+
+                // Write the deflated data as a STORED entry, and change it to a DEFLATED entry once the ZIP is complete
+                archiveEntry.setMethod(ZipEntry.STORED);
+                archiveEntry.setSize(content.length);
+                archiveEntry.setCompressedSize(content.length);
+                archiveEntry.setCrc(content.compressedCrc);
+                zipOutStr.putNextEntry(archiveEntry);
+                zipOutStr.write(content.data, 0, content.length);
+                zipOutStr.closeEntry();
+                precompressedEntries.add(entryCount, content.crc, content.size);
+            }
+            entryCount++;
+        } catch (Exception e) {
+            throw new GradleException(String.format("Could not add %s to ZIP '%s'.", entry.displayName, zipFile), e);
+        }
+    }
+
+    /**
+     * Collects the content of an entry, so that it can be compressed on another thread. Content which is too large
+     * to collect is written directly to the ZIP file instead, once all pending entries have been written.
+     */
+    private class EntryContent extends OutputStream {
+        private final ZipEntry archiveEntry;
+        private byte[] buffer = new byte[1024];
+        private int count;
+        private boolean direct;
+
+        private EntryContent(ZipEntry archiveEntry) {
+            this.archiveEntry = archiveEntry;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (direct) {
+                zipOutStr.write(bytes, offset, length);
+                return;
+            }
+            if (count + length > MAX_BUFFERED_ENTRY_SIZE) {
+                writePendingEntries();
+                zipOutStr.putNextEntry(archiveEntry);
+                zipOutStr.write(buffer, 0, count);
+                zipOutStr.write(bytes, offset, length);
+                buffer = null;
+                direct = true;
+                return;
+            }
+            if (count + length > buffer.length) {
+                byte[] newBuffer = new byte[Math.max(buffer.length * 2, count + length)];
+                System.arraycopy(buffer, 0, newBuffer, 0, count);
+                buffer = newBuffer;
+            }
+            System.arraycopy(bytes, offset, buffer, count, length);
+            count += length;
+        }
+    }
+
+    private static class PendingEntry {
+        private final String displayName;
+        private final ZipEntry archiveEntry;
+        private final Future<CompressedContent> compressed;
+        private final long size;
+
+        private PendingEntry(String displayName, ZipEntry archiveEntry, Future<CompressedContent> compressed, long size) {
+            this.displayName = displayName;
+            this.archiveEntry = archiveEntry;
+            this.compressed = compressed;
+            this.size = size;
+        }
+
+        public CompressedContent getCompressedContent() throws Exception {
+            try {
+                return compressed.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception) {
+                    throw (Exception) e.getCause();
+                }
+                throw e;
+            }
+        }
+
+        public void cancel() {
+            if (compressed != null) {
+                compressed.cancel(false);
+            }
+        }
+    }
+
+    private static class CompressedContent {
+        private final byte[] data;
+        private final int length;
+        private final long compressedCrc;
+        private final long crc;
+        private final long size;
+
+        private CompressedContent(byte[] data, int length, long compressedCrc, long crc, long size) {
+            this.data = data;
+            this.length = length;
+            this.compressedCrc = compressedCrc;
+            this.crc = crc;
+            this.size = size;
+        }
+    }
+
+    private static class Compress implements Callable<CompressedContent> {
+        private final String path;
+        private final byte[] content;
+        private final int length;
+        private final DeflaterPool deflaters;
+        private final ReusableZipEntries reusableEntries;
+
+        private Compress(String path, byte[] content, int length, DeflaterPool deflaters, ReusableZipEntries reusableEntries) {
+            this.path = path;
+            this.content = content;
+            this.length = length;
+            this.deflaters = deflaters;
+            this.reusableEntries = reusableEntries;
+        }
+
+        public CompressedContent call() throws IOException {
+            CRC32 crc = new CRC32();
+            crc.update(content, 0, length);
+
+            if (reusableEntries != null) {
+                byte[] data = reusableEntries.findDeflatedData(path, length, crc.getValue());
+                if (data != null) {
+                    return new CompressedContent(data, data.length, crc(data, data.length), crc.getValue(), length);
+                }
+            }
+
+            Deflater deflater = deflaters.acquire();
+            byte[] data = new byte[length / 2 + 64];
+            int count = 0;
+            try {
+                deflater.setInput(content, 0, length);
+                deflater.finish();
+                while (!deflater.finished()) {
+                    if (count == data.length) {
+                        byte[] newData = new byte[data.length * 2];
+                        System.arraycopy(data, 0, newData, 0, count);
+                        data = newData;
+                    }
+                    count += deflater.deflate(data, count, data.length - count);
+                }
+            } finally {
+                deflaters.release(deflater);
+            }
+
+            return new CompressedContent(data, count, crc(data, count), crc.getValue(), length);
+        }
+
+        private static long crc(byte[] data, int length) {
+            CRC32 crc = new CRC32();
+            crc.update(data, 0, length);
+            return crc.getValue();
+        }
+    }
+
+    /**
+     * The deflaters used to compress the entries of one ZIP file. A deflater holds native memory until it is ended, so
+     * the deflaters are ended once the ZIP file is complete. A deflater which is still in use at that point is ended
+     * when it is released.
+     */
+    private static class DeflaterPool {
+        private final int level;
+        private final LinkedList<Deflater> available = new LinkedList<Deflater>();
+        private boolean closed;
+
+        private DeflaterPool(int level) {
+            this.level = level;
+        }
+
+        public synchronized Deflater acquire() {
+            if (!available.isEmpty()) {
+                return available.removeFirst();
+            }
+            // The same settings the ZipOutputStream uses for DEFLATED entries
+            return new Deflater(level, true);
+        }
+
+        public synchronized void release(Deflater deflater) {
+            if (closed) {
+                deflater.end();
+                return;
+            }
+            deflater.reset();
+            available.add(deflater);
+        }
+
+        public synchronized void close() {
+            closed = true;
+            for (Deflater deflater : available) {
+                deflater.end();
+            }
+            available.clear();
+        }
+    }
 }
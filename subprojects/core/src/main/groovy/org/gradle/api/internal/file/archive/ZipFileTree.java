@@ -20,6 +20,7 @@ import org.apache.tools.zip.ZipFile;
 import org.gradle.api.GradleException;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.UncheckedIOException;
+import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.FileVisitor;
 import org.gradle.api.file.RelativePath;
@@ -27,25 +28,62 @@ import org.gradle.api.internal.file.AbstractFileTreeElement;
 import org.gradle.api.internal.file.collections.DirectoryFileTree;
 import org.gradle.api.internal.file.collections.FileSystemMirroringFileTree;
 import org.gradle.api.internal.file.collections.MinimalFileTree;
+import org.gradle.api.internal.file.collections.PatternFilterableFileTree;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.specs.Specs;
+import org.gradle.api.tasks.util.PatternFilterable;
+import org.gradle.api.tasks.util.PatternSet;
 import org.gradle.util.HashUtil;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Enumeration;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
 
-public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree {
+public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree, PatternFilterableFileTree {
     private final File zipFile;
     private final File tmpDir;
+    private final PatternSet patternSet;
+    private boolean archiveOrder;
 
     public ZipFileTree(File zipFile, File tmpDir) {
         this.zipFile = zipFile;
         String expandDirName = String.format("%s_%s", zipFile.getName(), HashUtil.createHash(zipFile.getAbsolutePath()));
         this.tmpDir = new File(tmpDir, expandDirName);
+        this.patternSet = null;
+    }
+
+    private ZipFileTree(File zipFile, File expandDir, PatternSet patternSet, boolean archiveOrder) {
+        this.zipFile = zipFile;
+        this.tmpDir = expandDir;
+        this.patternSet = patternSet;
+        this.archiveOrder = archiveOrder;
+    }
+
+    /**
+     * Visits the entries in the order they appear in the ZIP file, rather than in alphabetical order. This avoids
+     * collecting and sorting all entries before the first one is visited, but means that a directory is not
+     * necessarily visited before its contents.
+     *
+     * @return this
+     */
+    public ZipFileTree inArchiveOrder() {
+        archiveOrder = true;
+        return this;
+    }
+
+    /**
+     * Returns a tree containing the entries of this tree which match the given patterns. The patterns are applied to
+     * the entries as the ZIP file is visited, so entries which do not match are never passed to the visitor or
+     * extracted.
+     */
+    public ZipFileTree filter(PatternFilterable patterns) {
+        PatternSet patternSet = this.patternSet == null ? new PatternSet() : this.patternSet.intersect();
+        patternSet.copyFrom(patterns);
+        return new ZipFileTree(zipFile, tmpDir, patternSet, archiveOrder);
     }
 
     public String getDisplayName() {
@@ -53,7 +91,10 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
     }
 
     public DirectoryFileTree getMirror() {
-        return new DirectoryFileTree(tmpDir);
+        if (patternSet == null) {
+            return new DirectoryFileTree(tmpDir);
+        }
+        return new DirectoryFileTree(tmpDir, patternSet);
     }
 
     public void visit(FileVisitor visitor) {
@@ -65,25 +106,22 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
         }
 
         AtomicBoolean stopFlag = new AtomicBoolean();
+        Spec<FileTreeElement> spec = patternSet == null ? Specs.<FileTreeElement>satisfyAll() : patternSet.getAsSpec();
 
         try {
             ZipFile zip = new ZipFile(zipFile);
             try {
-                // The iteration order of zip.getEntries() is based on the hash of the zip entry. This isn't much use
-                // to us. So, collect the entries in a map and iterate over them in alphabetical order.
-                Map<String, ZipEntry> entriesByName = new TreeMap<String, ZipEntry>();
-                Enumeration entries = zip.getEntries();
-                while (entries.hasMoreElements()) {
-                    ZipEntry entry = (ZipEntry) entries.nextElement();
-                    entriesByName.put(entry.getName(), entry);
-                }
-                Iterator<ZipEntry> sortedEntries = entriesByName.values().iterator();
-                while (!stopFlag.get() && sortedEntries.hasNext()) {
-                    ZipEntry entry = sortedEntries.next();
+                Iterator<ZipEntry> entries = archiveOrder ? getEntriesInArchiveOrder(zip) : getSortedEntries(zip);
+                while (!stopFlag.get() && entries.hasNext()) {
+                    ZipEntry entry = entries.next();
+                    DetailsImpl details = new DetailsImpl(entry, zip, stopFlag);
+                    if (!spec.isSatisfiedBy(details)) {
+                        continue;
+                    }
                     if (entry.isDirectory()) {
-                        visitor.visitDir(new DetailsImpl(entry, zip, stopFlag));
+                        visitor.visitDir(details);
                     } else {
-                        visitor.visitFile(new DetailsImpl(entry, zip, stopFlag));
+                        visitor.visitFile(details);
                     }
                 }
             } finally {
@@ -94,10 +132,38 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
         }
     }
 
+    private Iterator<ZipEntry> getSortedEntries(ZipFile zip) {
+        // The iteration order of zip.getEntries() is based on the hash of the zip entry. This isn't much use
+        // to us. So, collect the entries in a map and iterate over them in alphabetical order.
+        Map<String, ZipEntry> entriesByName = new TreeMap<String, ZipEntry>();
+        Enumeration entries = zip.getEntries();
+        while (entries.hasMoreElements()) {
+            ZipEntry entry = (ZipEntry) entries.nextElement();
+            entriesByName.put(entry.getName(), entry);
+        }
+        return entriesByName.values().iterator();
+    }
+
+    private Iterator<ZipEntry> getEntriesInArchiveOrder(ZipFile zip) throws IOException {
+        Map<String, ZipEntry> entriesByName = new LinkedHashMap<String, ZipEntry>();
+        for (String name : ZipCentralDirectory.readEntryNames(zipFile)) {
+            ZipEntry entry = zip.getEntry(name);
+            if (entry == null) {
+                // The name has been decoded differently, for example from a unicode extra field
+                return getSortedEntries(zip);
+            }
+            if (!entriesByName.containsKey(name)) {
+                entriesByName.put(name, entry);
+            }
+        }
+        return entriesByName.values().iterator();
+    }
+
     private class DetailsImpl extends AbstractFileTreeElement implements FileVisitDetails {
         private final ZipEntry entry;
         private final ZipFile zip;
         private final AtomicBoolean stopFlag;
+        private RelativePath relativePath;
         private File file;
 
         public DetailsImpl(ZipEntry entry, ZipFile zip, AtomicBoolean stopFlag) {
@@ -117,11 +183,45 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
         public File getFile() {
             if (file == null) {
                 file = new File(tmpDir, entry.getName());
-                copyTo(file);
+                if (!isExtracted(file)) {
+                    copyTo(file);
+                }
             }
             return file;
         }
 
+        /**
+         * Returns true if this entry has already been extracted to the given file, by an earlier visit of this tree.
+         * Entry times have a granularity of 2 seconds, so an entry which has been replaced by one of the same size can
+         * have the same time. The content of the file is compared with the CRC of the entry to detect this.
+         */
+        private boolean isExtracted(File file) {
+            if (entry.isDirectory()) {
+                return file.isDirectory() && file.lastModified() == entry.getTime();
+            }
+            return file.isFile() && file.length() == entry.getSize() && file.lastModified() == entry.getTime()
+                    && entry.getCrc() != -1 && crc(file) == entry.getCrc();
+        }
+
+        private long crc(File file) {
+            CRC32 crc = new CRC32();
+            try {
+                InputStream inputStream = new FileInputStream(file);
+                try {
+                    byte[] buffer = new byte[8192];
+                    int count;
+                    while ((count = inputStream.read(buffer)) > 0) {
+                        crc.update(buffer, 0, count);
+                    }
+                } finally {
+                    inputStream.close();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return crc.getValue();
+        }
+
         public long getLastModified() {
             return entry.getTime();
         }
@@ -143,7 +243,10 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
         }
 
         public RelativePath getRelativePath() {
-            return new RelativePath(!entry.isDirectory(), entry.getName().split("/"));
+            if (relativePath == null) {
+                relativePath = new RelativePath(!entry.isDirectory(), entry.getName().split("/"));
+            }
+            return relativePath;
         }
     }
 }
@@ -87,7 +87,7 @@ public class DefaultConfigurableFileTree extends CompositeFileTree implements Co
     }
 
     public WorkResult copy(Closure closure) {
-        CopyActionImpl action = new FileCopyActionImpl(resolver, new FileCopySpecVisitor());
+        CopyActionImpl action = new FileCopyActionImpl(resolver, new FileCopySpecVisitor().parallel());
         action.from(this);
         ConfigureUtil.configure(closure, action);
         action.execute();
@@ -156,7 +156,7 @@ public class DefaultConfigurableFileTree extends CompositeFileTree implements Co
     protected void resolve(FileCollectionResolveContext context) {
         File dir = getDir();
         context.add(buildDependency);
-        context.add(new DirectoryFileTree(dir, patternSet));
+        context.add(new DirectoryFileTree(dir, patternSet).parallel());
     }
 
     public ConfigurableFileTree builtBy(Object... tasks) {
@@ -25,7 +25,9 @@ import org.gradle.api.internal.file.DefaultFileTreeElement;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.util.PatternFilterable;
 import org.gradle.api.tasks.util.PatternSet;
+import org.gradle.messaging.concurrent.DaemonExecutors;
 import org.gradle.util.GFileUtils;
+import org.gradle.util.UncheckedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,6 +36,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Pattern;
 
@@ -45,14 +48,21 @@ import java.util.regex.Pattern;
  * A file or directory will only be visited if it matches all includes and no
  * excludes.
  *
+ * When {@link #parallel()} is used, the contents of subdirectories are listed
+ * ahead of time by a pool of worker threads. The visitor is still called from
+ * the visiting thread, in the same order as for a sequential walk.
+ *
  * @author Steve Appling
  */
 public class DirectoryFileTree implements MinimalFileTree, PatternFilterableFileTree, RandomAccessFileCollection, LocalFileTree {
     private static Logger logger = LoggerFactory.getLogger(DirectoryFileTree.class);
+    private static final ExecutorService LISTING_EXECUTOR = DaemonExecutors.newBoundedExecutor("Directory lister",
+            Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
 
     private final File root;
     private PatternSet patternSet;
     private boolean depthFirst;
+    private boolean parallel;
 
     public DirectoryFileTree(File root) {
         this(root, new PatternSet());
@@ -111,7 +121,7 @@ public class DirectoryFileTree implements MinimalFileTree, PatternFilterableFile
             if (root.isFile()) {
                 processSingleFile(root, visitor, spec, stopFlag);
             } else {
-                walkDir(root, new RelativePath(false), visitor, spec, stopFlag);
+                walkDir(root, new RelativePath(false), null, visitor, spec, stopFlag);
             }
         } else {
             logger.info("file or directory '" + root + "', not found");
@@ -126,19 +136,13 @@ public class DirectoryFileTree implements MinimalFileTree, PatternFilterableFile
         }
     }
 
-    private void walkDir(File file, RelativePath path, FileVisitor visitor, Spec<FileTreeElement> spec, AtomicBoolean stopFlag) {
-        File[] children = file.listFiles();
-        if (children == null) {
-            if (file.isDirectory() && !file.canRead()) {
-                throw new GradleException(String.format("Could not list contents of directory '%s' as it is not readable.", file));
-            }
-            // else, might be a link which points to nothing, or has been removed while we're visiting, or ...
-            throw new GradleException(String.format("Could not list contents of '%s'.", file));
-        }
+    private void walkDir(File file, RelativePath path, Future<DirectoryContents> listing, FileVisitor visitor,
+                         Spec<FileTreeElement> spec, AtomicBoolean stopFlag) {
+        DirectoryContents contents = listing != null ? getContents(listing) : DirectoryContents.list(file);
         List<FileVisitDetailsImpl> dirs = new ArrayList<FileVisitDetailsImpl>();
-        for (int i = 0; !stopFlag.get() && i < children.length; i++) {
-            File child = children[i];
-            boolean isFile = child.isFile();
+        for (int i = 0; !stopFlag.get() && i < contents.children.length; i++) {
+            File child = contents.children[i];
+            boolean isFile = contents.isFile[i];
             RelativePath childPath = path.append(isFile, child.getName());
             FileVisitDetailsImpl details = new FileVisitDetailsImpl(child, childPath, stopFlag);
             if (isAllowed(details, spec)) {
@@ -150,16 +154,41 @@ public class DirectoryFileTree implements MinimalFileTree, PatternFilterableFile
             }
         }
 
-        // now handle dirs
+        // start listing the dirs, so that their contents are ready by the time we get to them
+        List<Future<DirectoryContents>> listings = new ArrayList<Future<DirectoryContents>>(dirs.size());
         for (int i = 0; !stopFlag.get() && i < dirs.size(); i++) {
-            FileVisitDetailsImpl dir = dirs.get(i);
-            if (depthFirst) {
-                walkDir(dir.getFile(), dir.getRelativePath(), visitor, spec, stopFlag);
-                visitor.visitDir(dir);
-            } else {
-                visitor.visitDir(dir);
-                walkDir(dir.getFile(), dir.getRelativePath(), visitor, spec, stopFlag);
+            listings.add(parallel ? LISTING_EXECUTOR.submit(new ListDirectory(dirs.get(i).getFile())) : null);
+        }
+
+        // now handle dirs
+        try {
+            for (int i = 0; !stopFlag.get() && i < dirs.size(); i++) {
+                FileVisitDetailsImpl dir = dirs.get(i);
+                if (depthFirst) {
+                    walkDir(dir.getFile(), dir.getRelativePath(), listings.get(i), visitor, spec, stopFlag);
+                    visitor.visitDir(dir);
+                } else {
+                    visitor.visitDir(dir);
+                    walkDir(dir.getFile(), dir.getRelativePath(), listings.get(i), visitor, spec, stopFlag);
+                }
             }
+        } finally {
+            // discard listings which will not be used, because visiting was stopped or has failed
+            for (Future<DirectoryContents> future : listings) {
+                if (future != null) {
+                    future.cancel(false);
+                }
+            }
+        }
+    }
+
+    private static DirectoryContents getContents(Future<DirectoryContents> listing) {
+        try {
+            return listing.get();
+        } catch (ExecutionException e) {
+            throw UncheckedException.asUncheckedException(e.getCause());
+        } catch (InterruptedException e) {
+            throw UncheckedException.asUncheckedException(e);
         }
     }
 
@@ -172,6 +201,57 @@ public class DirectoryFileTree implements MinimalFileTree, PatternFilterableFile
         return this;
     }
 
+    /**
+     * Lists the contents of subdirectories concurrently when visiting this tree. This is useful for large trees, or
+     * for trees on a file system with a high latency, such as a network file system.
+     */
+    public DirectoryFileTree parallel() {
+        parallel = true;
+        return this;
+    }
+
+    /**
+     * The children of a directory, along with whether each child is a file. Both are determined when the directory is
+     * listed, so that the listing can be done on a worker thread.
+     */
+    private static class DirectoryContents {
+        private final File[] children;
+        private final boolean[] isFile;
+
+        private DirectoryContents(File[] children, boolean[] isFile) {
+            this.children = children;
+            this.isFile = isFile;
+        }
+
+        public static DirectoryContents list(File file) {
+            File[] children = file.listFiles();
+            if (children == null) {
+                if (file.isDirectory() && !file.canRead()) {
+                    throw new GradleException(String.format("Could not list contents of directory '%s' as it is not readable.", file));
+                }
+                // else, might be a link which points to nothing, or has been removed while we're visiting, or ...
+                throw new GradleException(String.format("Could not list contents of '%s'.", file));
+            }
+            boolean[] isFile = new boolean[children.length];
+            for (int i = 0; i < children.length; i++) {
+                isFile[i] = children[i].isFile();
+            }
+            return new DirectoryContents(children, isFile);
+        }
+    }
+
+    private static class ListDirectory implements Callable<DirectoryContents> {
+        private final File dir;
+
+        private ListDirectory(File dir) {
+            this.dir = dir;
+        }
+
+        public DirectoryContents call() {
+            return DirectoryContents.list(dir);
+        }
+    }
+
     private static class FileVisitDetailsImpl extends DefaultFileTreeElement implements FileVisitDetails {
         private final AtomicBoolean stop;
 
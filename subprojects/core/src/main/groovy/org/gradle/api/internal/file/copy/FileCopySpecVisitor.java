@@ -18,15 +18,44 @@ package org.gradle.api.internal.file.copy;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.internal.file.DefaultFileTreeElement;
+import org.gradle.messaging.concurrent.DaemonExecutors;
+import org.gradle.util.UncheckedException;
 
 import java.io.File;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @author Steve Appling
  */
 public class FileCopySpecVisitor extends EmptyCopySpecVisitor {
+    // Copies which are submitted while all threads are busy are done by the visiting thread, so the number of
+    // outstanding copies is bounded by the number of threads
+    private static final ExecutorService COPY_EXECUTOR = DaemonExecutors.newBoundedExecutor("File copier",
+            Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+
+    private final Map<File, Future<?>> pendingCopies = new HashMap<File, Future<?>>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
     private File baseDestDir;
-    private boolean didWork;
+    private boolean parallel;
+    private volatile boolean didWork;
+
+    /**
+     * Copies files concurrently with visiting the source trees. Only files which are copied unchanged from the file
+     * system are copied concurrently, as other elements can only be read while their tree is being visited.
+     *
+     * @return this
+     */
+    public FileCopySpecVisitor parallel() {
+        parallel = true;
+        return this;
+    }
 
     public void startVisit(CopyAction action) {
         baseDestDir = ((FileCopyAction) action).getDestinationDir();
@@ -40,14 +69,98 @@ public class FileCopySpecVisitor extends EmptyCopySpecVisitor {
         copyFile(source, target);
     }
 
+    @Override
+    public void endVisit() {
+        waitForPendingCopies();
+    }
+
     public boolean getDidWork() {
         return didWork;
     }
 
     void copyFile(FileTreeElement srcFile, File destFile) {
+        if (failure.get() != null) {
+            waitForPendingCopies();
+        }
+        discardCompletedCopies();
+
+        // Wait for any earlier copy to the same target, so that the last source visited wins
+        Future<?> previous = pendingCopies.remove(destFile);
+        if (previous != null) {
+            waitFor(previous);
+        }
+
+        if (parallel && isFileCopy(srcFile)) {
+            pendingCopies.put(destFile, COPY_EXECUTOR.submit(new CopyFile(srcFile, destFile)));
+        } else {
+            doCopy(srcFile, destFile);
+        }
+    }
+
+    private static boolean isFileCopy(FileTreeElement element) {
+        return element instanceof DefaultFileTreeElement || MappingCopySpecVisitor.isFileCopy(element);
+    }
+
+    private void doCopy(FileTreeElement srcFile, File destFile) {
         boolean copied = srcFile.copyTo(destFile);
         if (copied) {
             didWork = true;
         }
     }
+
+    private void discardCompletedCopies() {
+        // A copy collects its own failure, so a completed copy does not need to be waited for
+        for (Iterator<Future<?>> iterator = pendingCopies.values().iterator(); iterator.hasNext();) {
+            if (iterator.next().isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void waitForPendingCopies() {
+        try {
+            for (Future<?> copy : pendingCopies.values()) {
+                waitFor(copy);
+            }
+        } finally {
+            pendingCopies.clear();
+        }
+        Throwable throwable = failure.getAndSet(null);
+        if (throwable != null) {
+            throw UncheckedException.asUncheckedException(throwable);
+        }
+    }
+
+    private void waitFor(Future<?> copy) {
+        try {
+            copy.get();
+        } catch (InterruptedException e) {
+            throw new UncheckedException(e);
+        } catch (ExecutionException e) {
+            // Copy failures are collected by the job itself
+            throw UncheckedException.asUncheckedException(e.getCause());
+        }
+    }
+
+    private class CopyFile implements Runnable {
+        private final FileTreeElement srcFile;
+        private final File destFile;
+
+        private CopyFile(FileTreeElement srcFile, File destFile) {
+            this.srcFile = srcFile;
+            this.destFile = destFile;
+        }
+
+        public void run() {
+            if (failure.get() != null) {
+                // Another copy has failed, so don't bother
+                return;
+            }
+            try {
+                doCopy(srcFile, destFile);
+            } catch (Throwable throwable) {
+                failure.compareAndSet(null, throwable);
+            }
+        }
+    }
 }
@@ -30,6 +30,7 @@ import java.lang.reflect.Constructor;
 import java.util.Map;
 
 public class FilterChain implements Transformer<InputStream> {
+    private static final int BUFFER_SIZE = 8192;
     private final ChainingTransformer<Reader> transformers = new ChainingTransformer<Reader>(Reader.class);
 
     /**
@@ -84,20 +85,104 @@ public class FilterChain implements Transformer<InputStream> {
         transformers.add(new Transformer<Reader>() {
             public Reader transform(Reader original) {
                 try {
-                    Template template;
+                    String text;
                     try {
-                        SimpleTemplateEngine engine = new SimpleTemplateEngine();
-                        template = engine.createTemplate(original);
+                        text = readFully(original);
                     } finally {
                         original.close();
                     }
-                    StringWriter writer = new StringWriter();
-                    template.make(properties).writeTo(writer);
-                    return new StringReader(writer.toString());
+                    String result = expandLiteralTokens(text, properties);
+                    if (result == null) {
+                        SimpleTemplateEngine engine = new SimpleTemplateEngine();
+                        Template template = engine.createTemplate(new StringReader(text));
+                        StringWriter writer = new StringWriter();
+                        template.make(properties).writeTo(writer);
+                        result = writer.toString();
+                    }
+                    return new StringReader(result);
                 } catch (IOException e) {
                     throw new UncheckedIOException(e);
                 }
             }
         });
     }
+
+    private static String readFully(Reader reader) throws IOException {
+        StringBuilder text = new StringBuilder();
+        char[] buffer = new char[BUFFER_SIZE];
+        int count;
+        while ((count = reader.read(buffer)) >= 0) {
+            text.append(buffer, 0, count);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Expands the given text without using the template engine, when the text contains only simple {@code $name} and
+     * {@code ${name}} references to the given properties, and nothing else which the template engine would treat
+     * specially. Returns null when the text must be expanded using the template engine.
+     */
+    static String expandLiteralTokens(String text, Map<String, ?> properties) {
+        int length = text.length();
+        StringBuilder result = new StringBuilder(length);
+        int pos = 0;
+        while (pos < length) {
+            char ch = text.charAt(pos);
+            if (ch == '\\' || ch == '\r' || ch == '<' && pos + 1 < length && text.charAt(pos + 1) == '%') {
+                // Escape sequences, line endings and scriptlets are handled by the template engine
+                return null;
+            }
+            if (ch != '$') {
+                result.append(ch);
+                pos++;
+                continue;
+            }
+
+            int start;
+            int end;
+            int next;
+            if (pos + 1 < length && text.charAt(pos + 1) == '{') {
+                start = pos + 2;
+                end = identifierEnd(text, start);
+                if (end == start || end == length || text.charAt(end) != '}') {
+                    return null;
+                }
+                next = end + 1;
+            } else {
+                start = pos + 1;
+                end = identifierEnd(text, start);
+                if (end == start || end < length && (text.charAt(end) == '.' || Character.isJavaIdentifierPart(text.charAt(end)))) {
+                    return null;
+                }
+                next = end;
+            }
+
+            String name = text.substring(start, end);
+            if (name.equals("out") || !properties.containsKey(name)) {
+                return null;
+            }
+            Object value = properties.get(name);
+            if (value != null && !(value instanceof CharSequence || value instanceof Number || value instanceof Boolean
+                    || value instanceof Character)) {
+                // Other types may be formatted differently by the template engine
+                return null;
+            }
+            result.append(String.valueOf(value));
+            pos = next;
+        }
+        return result.toString();
+    }
+
+    private static int identifierEnd(String text, int start) {
+        int pos = start;
+        while (pos < text.length()) {
+            char ch = text.charAt(pos);
+            boolean valid = ch >= 'a' && ch <= 'z' || ch >= 'A' && ch <= 'Z' || ch == '_' || pos > start && ch >= '0' && ch <= '9';
+            if (!valid) {
+                break;
+            }
+            pos++;
+        }
+        return pos;
+    }
 }
@@ -19,16 +19,19 @@ import groovy.lang.Closure;
 
 import org.gradle.util.SystemProperties;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
 
 public class LineFilter extends Reader {
+    private static final int BUFFER_SIZE = 8192;
     private final Closure closure;
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int bufferPos;
+    private int bufferLength;
+    private final StringBuilder line = new StringBuilder();
     private String transformedLine;
     private int transformedIndex;
-    private final BufferedReader bufferedIn;
-    private final Reader in;
 
     /**
      * Creates a new filtered reader.
@@ -37,38 +40,57 @@ public class LineFilter extends Reader {
      * @throws NullPointerException if <code>in</code> is <code>null</code>
      */
     public LineFilter(Reader in, Closure closure) {
+        if (in == null) {
+            throw new NullPointerException();
+        }
         this.in = in;
-        this.bufferedIn = new BufferedReader(in);
         this.closure = closure;
     }
 
+    private boolean fillBuffer() throws IOException {
+        if (bufferPos < bufferLength) {
+            return true;
+        }
+        int count = in.read(buffer, 0, buffer.length);
+        while (count == 0) {
+            count = in.read(buffer, 0, buffer.length);
+        }
+        bufferPos = 0;
+        bufferLength = Math.max(count, 0);
+        return count > 0;
+    }
+
     private String getTransformedLine() throws IOException {
-        StringBuilder line = new StringBuilder();
+        line.setLength(0);
         boolean eol = false;
-        int ch;
-        while (!eol && (ch = bufferedIn.read()) >= 0) {
-            if (ch == '\n') {
-                eol = true;
-            } else if (ch == '\r') {
-                eol = true;
-                bufferedIn.mark(1);
-                if (bufferedIn.read() != '\n') {
-                    bufferedIn.reset();
+        while (!eol && fillBuffer()) {
+            // Scan for the end of the line within the buffered characters, and append them in bulk
+            int start = bufferPos;
+            while (bufferPos < bufferLength) {
+                char ch = buffer[bufferPos];
+                if (ch == '\n' || ch == '\r') {
+                    eol = true;
+                    break;
+                }
+                bufferPos++;
+            }
+            line.append(buffer, start, bufferPos - start);
+            if (eol) {
+                char ch = buffer[bufferPos++];
+                if (ch == '\r' && fillBuffer() && buffer[bufferPos] == '\n') {
+                    bufferPos++;
                 }
-            } else {
-                line.append((char) ch);
             }
         }
         if (line.length() == 0 && !eol) {
             return null;
         }
 
-        StringBuilder result = new StringBuilder();
-        result.append(closure.call(line.toString()).toString());
+        String result = closure.call(line.toString()).toString();
         if (eol) {
-            result.append(SystemProperties.getLineSeparator());
+            result = result + SystemProperties.getLineSeparator();
         }
-        return result.toString();
+        return result;
     }
 
     private void ensureData() throws IOException {
@@ -89,18 +111,21 @@ public class LineFilter extends Reader {
 
     @Override
     public int read(char[] cbuf, int off, int len) throws IOException {
-        for (int i = 0; i < len; i++) {
-            final int c = read();
-            if (c == -1) {
-                if (i == 0) {
-                    return -1;
-                } else {
-                    return i;
-                }
+        int count = 0;
+        while (count < len) {
+            ensureData();
+            if (transformedLine == null || transformedLine.length() == 0) {
+                break;
             }
-            cbuf[off + i] = (char) c;
+            int chunk = Math.min(len - count, transformedLine.length() - transformedIndex);
+            transformedLine.getChars(transformedIndex, transformedIndex + chunk, cbuf, off + count);
+            transformedIndex += chunk;
+            count += chunk;
+        }
+        if (count == 0 && len > 0) {
+            return -1;
         }
-        return len;
+        return count;
     }
 
     public void close() throws IOException {
@@ -19,6 +19,7 @@ import groovy.lang.Closure;
 import org.gradle.api.Action;
 import org.gradle.api.file.*;
 import org.gradle.api.internal.file.AbstractFileTreeElement;
+import org.gradle.api.internal.file.DefaultFileTreeElement;
 
 import java.io.*;
 import java.util.Map;
@@ -50,6 +51,18 @@ public class MappingCopySpecVisitor extends DelegatingCopySpecVisitor {
         getVisitor().visitFile(details);
     }
 
+    /**
+     * Returns true if the given element was created by this visitor, and copies a file from the file system without
+     * transforming its content. Such an element can be copied after its tree has been visited.
+     */
+    static boolean isFileCopy(FileTreeElement element) {
+        if (!(element instanceof FileVisitDetailsImpl)) {
+            return false;
+        }
+        FileVisitDetailsImpl details = (FileVisitDetailsImpl) element;
+        return !details.filterChain.hasFilters() && details.fileDetails instanceof DefaultFileTreeElement;
+    }
+
     private static class FileVisitDetailsImpl extends AbstractFileTreeElement implements FileVisitDetails, FileCopyDetails {
         private final FileVisitDetails fileDetails;
         private final ReadableCopySpec spec;
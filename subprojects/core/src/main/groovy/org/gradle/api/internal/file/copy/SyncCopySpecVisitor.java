@@ -54,6 +54,9 @@ public class SyncCopySpecVisitor extends DelegatingCopySpecVisitor {
 
     @Override
     public void endVisit() {
+        // Finish copying before looking for files to delete
+        getVisitor().endVisit();
+
         FileVisitor visitor = new FileVisitor() {
             public void visitDir(FileVisitDetails dirDetails) {
                 maybeDelete(dirDetails, true);
@@ -79,8 +82,6 @@ public class SyncCopySpecVisitor extends DelegatingCopySpecVisitor {
         MinimalFileTree walker = new DirectoryFileTree(baseDestDir).depthFirst();
         walker.visit(visitor);
         visited.clear();
-
-        getVisitor().endVisit();
     }
 
     @Override
@@ -18,75 +18,76 @@ package org.gradle.api.internal.file.pattern;
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.specs.Spec;
 
+import java.util.Arrays;
 import java.util.List;
-import java.util.ArrayList;
-import java.util.ListIterator;
 
 /**
  * @author Steve Appling
  */
 public class DefaultPatternMatcher implements Spec<RelativePath> {
-    private List<PatternStep> steps;
-    private boolean partialMatchDirs;
+    private final PatternStep[] steps;
+    private final boolean partialMatchDirs;
 
     public DefaultPatternMatcher(boolean partialMatchDirs, boolean caseSensitive, String... patternParts) {
         this.partialMatchDirs = partialMatchDirs;
-        steps = new ArrayList<PatternStep>();
-        compile(caseSensitive, patternParts);
+        steps = compile(caseSensitive, patternParts);
     }
 
-    private void compile(boolean caseSensitive, String[] parts) {
-        if (parts.length > 0) {
-            for (int i = 0; i < parts.length; i++) {
-                steps.add(PatternStepFactory.getStep(parts[i], i == parts.length - 1, caseSensitive));
-            }
+    private static PatternStep[] compile(boolean caseSensitive, String[] parts) {
+        PatternStep[] steps = new PatternStep[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            steps[i] = PatternStepFactory.getStep(parts[i], i == parts.length - 1, caseSensitive);
         }
+        return steps;
     }
 
     // segment -> path to test
     // step -> pattern
+    // The matching works on indexes into the steps and segments, so that no objects are allocated per path. The
+    // segments are read from the path one at a time, rather than copied into an array
 
     public boolean isSatisfiedBy(RelativePath pathToTest) {
-        ListIterator<PatternStep> patternIt = steps.listIterator();
-        ListIterator<String> testIt = pathToTest.segmentIterator();
+        int segmentCount = pathToTest.getSegmentCount();
+        boolean isFile = pathToTest.isFile();
+        int nextStep = 0;
+        int nextSegment = 0;
         boolean seenGreedy = false;
 
         PatternStep patternStep;
 
-        while (testIt.hasNext()) {
-            String nextToTest = testIt.next();
+        while (nextSegment < segmentCount) {
+            String nextToTest = pathToTest.getSegment(nextSegment++);
 
-            if (!patternIt.hasNext()) {
+            if (nextStep == steps.length) {
                 return false;
             }
-            patternStep = patternIt.next();
+            patternStep = steps[nextStep++];
 
             if (patternStep.isGreedy()) {
                 seenGreedy = true;
-                advancePatternStepToNextNonGreedy(patternIt);
-                if (!patternIt.hasNext()) {
+                nextStep = advancePatternStepToNextNonGreedy(nextStep);
+                if (nextStep == steps.length) {
                     return true;
                 }    // pattern ends in greedy
-                patternStep = patternIt.next();
+                patternStep = steps[nextStep++];
 
                 // advance test until match
-                while (!(patternStep.matches(nextToTest, !testIt.hasNext() && pathToTest.isFile()) && (
-                        (patternIt.hasNext() == testIt.hasNext()) || nextPatternIsGreedy(patternIt)))) {
-                    if (!testIt.hasNext()) {
-                        return partialMatchDirs && !pathToTest
-                                .isFile(); //isTerminatingMatch(pathToTest, patternIt);  // didn't match, but no more segments to test
+                while (!(patternStep.matches(nextToTest, nextSegment == segmentCount && isFile) && (
+                        (nextStep < steps.length) == (nextSegment < segmentCount) || nextPatternIsGreedy(nextStep)))) {
+                    if (nextSegment == segmentCount) {
+                        return partialMatchDirs && !isFile;  // didn't match, but no more segments to test
                     }
-                    nextToTest = testIt.next();
+                    nextToTest = pathToTest.getSegment(nextSegment++);
                 }
 
                 // should have match at this point, can continue on around the loop
             } else {
                 // not a greedy patternStep
-                if (!patternStep.matches(nextToTest, !testIt.hasNext() && pathToTest.isFile())) {
+                if (!patternStep.matches(nextToTest, nextSegment == segmentCount && isFile)) {
                     // didn't match, check if we are after another greedy
                     if (seenGreedy) {
-                        rewindPatternStepToPreviousGreedy(patternIt);  // rewind pattern to greedy
-                        testIt.previous(); // back up test by one
+                        nextStep = rewindPatternStepToPreviousGreedy(nextStep);  // rewind pattern to greedy
+                        nextSegment--; // back up test by one
                     } else {
                         return false;  // haven't seen greedy, no match
                     }
@@ -95,65 +96,42 @@ public class DefaultPatternMatcher implements Spec<RelativePath> {
         }
         // ran out of stuff to test
 
-        if (!patternIt.hasNext()) {
+        if (nextStep == steps.length) {
             return true;    // if out of pattern too, then it's a match
         }
 
-        return isTerminatingMatch(pathToTest, patternIt);
+        return isTerminatingMatch(isFile, nextStep);
     }
 
-    private boolean nextPatternIsGreedy(ListIterator<PatternStep> patternIt) {
-        boolean result = false;
-        if (patternIt.hasNext()) {
-            PatternStep next = patternIt.next();
-            if (next.isGreedy() && !patternIt.hasNext()) {
-                result = true;
-            }
-            patternIt.previous();
-        }
-        return result;
+    private boolean nextPatternIsGreedy(int nextStep) {
+        return nextStep == steps.length - 1 && steps[nextStep].isGreedy();
     }
 
-    private boolean isTerminatingMatch(RelativePath pathToTest, ListIterator<PatternStep> patternIt) {
-        PatternStep patternStep;
-
-        if (patternIt.hasNext()) {
-            patternStep = patternIt.next();
-            if (patternStep.isGreedy() && !patternIt.hasNext()) {
-                return true;    // if only a trailing greedy is left, then it matches
-            }
+    private boolean isTerminatingMatch(boolean isFile, int nextStep) {
+        if (nextPatternIsGreedy(nextStep)) {
+            return true;    // if only a trailing greedy is left, then it matches
         }
 
-        return !pathToTest.isFile() && partialMatchDirs;
+        return !isFile && partialMatchDirs;
     }
 
-    private void advancePatternStepToNextNonGreedy(ListIterator<PatternStep> patternIt) {
-        PatternStep next = null;
-        while (patternIt.hasNext()) {
-            next = patternIt.next();
-            if (!next.isGreedy()) {
-                break;
-            }
-        }
-        // back up one
-        if (next != null && !next.isGreedy()) {
-            patternIt.previous();
+    private int advancePatternStepToNextNonGreedy(int nextStep) {
+        while (nextStep < steps.length && steps[nextStep].isGreedy()) {
+            nextStep++;
         }
+        return nextStep;
     }
 
-    private void rewindPatternStepToPreviousGreedy(ListIterator<PatternStep> patternIt) {
-        PatternStep result = null;
-        while (patternIt.hasPrevious()) {
-            result = patternIt.previous();
-            if (result.isGreedy()) {
-                //patternIt.next();
-                return;
+    private int rewindPatternStepToPreviousGreedy(int nextStep) {
+        for (int i = nextStep - 1; i >= 0; i--) {
+            if (steps[i].isGreedy()) {
+                return i;
             }
         }
         throw new IllegalStateException("PatternStep list iterator in non-greedy state when rewindToLastGreedy");
     }
 
     List<PatternStep> getStepsForTest() {
-        return steps;
+        return Arrays.asList(steps);
     }
 }
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.pattern;
+
+/**
+ * A pattern step for a name which contains a single '*' wildcard, such as '*.java'.
+ */
+public class HasPrefixAndSuffixPatternStep implements PatternStep {
+    private final String prefix;
+    private final String suffix;
+    private final boolean caseSensitive;
+
+    public HasPrefixAndSuffixPatternStep(String prefix, String suffix, boolean caseSensitive) {
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.caseSensitive = caseSensitive;
+    }
+
+    public boolean matches(String candidate, boolean isFile) {
+        if (candidate.length() < prefix.length() + suffix.length()) {
+            return false;
+        }
+        return candidate.regionMatches(!caseSensitive, 0, prefix, 0, prefix.length())
+                && candidate.regionMatches(!caseSensitive, candidate.length() - suffix.length(), suffix, 0, suffix.length());
+    }
+
+    public boolean isGreedy() {
+        return false;
+    }
+}
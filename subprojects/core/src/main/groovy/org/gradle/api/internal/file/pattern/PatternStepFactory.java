@@ -19,8 +19,18 @@ public class PatternStepFactory {
     public static PatternStep getStep(String source, boolean isLast, boolean caseSensitive) {
         if (source.equals("**")) {
             return new GreedyPatternStep();
-        } else {
-            return new RegExpPatternStep(source, caseSensitive);
         }
+        // Use simple string comparisons for the common patterns, and a regular expression for anything else
+        if (source.indexOf('?') < 0) {
+            int wildcard = source.indexOf('*');
+            if (wildcard < 0) {
+                return new FixedPatternStep(source, caseSensitive);
+            }
+            if (source.indexOf('*', wildcard + 1) < 0) {
+                return new HasPrefixAndSuffixPatternStep(source.substring(0, wildcard), source.substring(wildcard + 1),
+                        caseSensitive);
+            }
+        }
+        return new RegExpPatternStep(source, caseSensitive);
     }
 }
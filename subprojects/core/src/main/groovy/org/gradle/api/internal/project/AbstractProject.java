@@ -37,6 +37,7 @@ import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.initialization.ScriptClassLoaderProvider;
 import org.gradle.api.internal.plugins.DefaultObjectConfigurationAction;
 import org.gradle.api.internal.tasks.TaskContainerInternal;
+import org.gradle.api.internal.tasks.TaskNameIndex;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
@@ -171,6 +172,7 @@ public abstract class AbstractProject implements ProjectInternal, DynamicObjectA
         fileResolver = services.get(FileResolver.class);
         antBuilderFactory = services.getFactory(AntBuilder.class);
         taskContainer = services.newInstance(TaskContainerInternal.class);
+        services.get(TaskNameIndex.class).addTasks(this, taskContainer);
         implicitTasksContainer = services.newInstance(TaskContainerInternal.class);
         fileOperations = services.get(FileOperations.class);
         repositoryHandlerFactory = services.getFactory(RepositoryHandler.class);
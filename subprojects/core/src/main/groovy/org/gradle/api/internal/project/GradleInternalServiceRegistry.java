@@ -23,6 +23,7 @@ import org.gradle.api.internal.artifacts.repositories.DefaultInternalRepository;
 import org.gradle.api.internal.artifacts.repositories.InternalRepository;
 import org.gradle.api.internal.plugins.DefaultPluginRegistry;
 import org.gradle.api.internal.plugins.PluginRegistry;
+import org.gradle.api.internal.tasks.TaskNameIndex;
 import org.gradle.execution.DefaultTaskGraphExecuter;
 import org.gradle.execution.TaskGraphExecuter;
 import org.gradle.listener.ListenerManager;
@@ -54,6 +55,10 @@ public class GradleInternalServiceRegistry extends DefaultServiceRegistry implem
         return new DefaultTaskGraphExecuter(get(ListenerManager.class));
     }
 
+    protected TaskNameIndex createTaskNameIndex() {
+        return new TaskNameIndex();
+    }
+
     protected PluginRegistry createPluginRegistry() {
         return new DefaultPluginRegistry(gradle.getScriptClassLoader());
     }
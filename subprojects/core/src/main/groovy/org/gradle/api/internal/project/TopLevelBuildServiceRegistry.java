@@ -305,6 +305,10 @@ public class TopLevelBuildServiceRegistry extends DefaultServiceRegistry impleme
         return new DefaultExceptionAnalyser(get(ListenerManager.class));
     }
 
+    protected ExecutedScriptRecorder createExecutedScriptRecorder() {
+        return new ExecutedScriptRecorder(get(ListenerManager.class));
+    }
+
     protected ScriptHandlerFactory createScriptHandlerFactory() {
         return new DefaultScriptHandlerFactory(
                 getFactory(RepositoryHandler.class),
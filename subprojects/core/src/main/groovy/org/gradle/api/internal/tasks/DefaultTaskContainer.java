@@ -17,6 +17,7 @@ package org.gradle.api.internal.tasks;
 
 import groovy.lang.Closure;
 import org.apache.commons.lang.StringUtils;
+import org.gradle.api.Action;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.Project;
 import org.gradle.api.Task;
@@ -24,17 +25,24 @@ import org.gradle.api.UnknownTaskException;
 import org.gradle.api.internal.ClassGenerator;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.project.taskfactory.ITaskFactory;
+import org.gradle.listener.ActionBroadcast;
 import org.gradle.util.GUtil;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 
 public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements TaskContainerInternal {
     private final ITaskFactory taskFactory;
+    private final LazyTaskStore store;
 
     public DefaultTaskContainer(ProjectInternal project, ClassGenerator classGenerator, ITaskFactory taskFactory) {
-        super(Task.class, classGenerator, project);
+        this(project, classGenerator, taskFactory, new LazyTaskStore(project, taskFactory));
+    }
+
+    private DefaultTaskContainer(ProjectInternal project, ClassGenerator classGenerator, ITaskFactory taskFactory,
+                                 LazyTaskStore store) {
+        super(Task.class, classGenerator, project, store);
         this.taskFactory = taskFactory;
+        this.store = store;
     }
 
     public Task add(Map<String, ?> options) {
@@ -46,16 +54,33 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         Task task = taskFactory.createTask(project, mutableOptions);
         String name = task.getName();
 
-        if (!replace && findByNameWithoutRules(name) != null) {
+        if (!replace && hasTask(name)) {
             throw new InvalidUserDataException(String.format(
                     "Cannot add %s as a task with that name already exists.", task));
         }
 
+        store.discardLazyTask(name);
         addObject(name, task);
 
         return task;
     }
 
+    public <T extends Task> void addLazy(String name, Class<T> type, Action<? super T> configureAction) {
+        if (hasTask(name)) {
+            throw new InvalidUserDataException(String.format(
+                    "Cannot add task '%s' as a task with that name already exists.", name));
+        }
+        store.addLazyTask(new LazyTask<T>(name, type, configureAction));
+    }
+
+    public void whenLazyTaskAdded(Action<? super String> action) {
+        store.lazyTaskAdded(action);
+    }
+
+    private boolean hasTask(String name) {
+        return store.hasLazyTask(name) || findByNameWithoutRules(name) != null;
+    }
+
     public Task add(Map<String, ?> options, Closure configureClosure) throws InvalidUserDataException {
         return add(options).configure(configureClosure);
     }
@@ -110,4 +135,77 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         }
         return task;
     }
+
+    private static class LazyTask<T extends Task> {
+        private final String name;
+        private final Class<T> type;
+        private final Action<? super T> configureAction;
+
+        private LazyTask(String name, Class<T> type, Action<? super T> configureAction) {
+            this.name = name;
+            this.type = type;
+            this.configureAction = configureAction;
+        }
+
+        public void realize(LazyTaskStore store, ProjectInternal project, ITaskFactory taskFactory) {
+            T task = type.cast(taskFactory.createTask(project, GUtil.map(Task.TASK_NAME, name, Task.TASK_TYPE, type)));
+            store.put(name, task);
+            configureAction.execute(task);
+        }
+    }
+
+    /**
+     * A store which holds tasks registered using {@link #addLazy}, and creates them when they are first looked up by
+     * name or the contents of the store are queried.
+     */
+    private static class LazyTaskStore extends MapStore<Task> {
+        private final ProjectInternal project;
+        private final ITaskFactory taskFactory;
+        private final Map<String, LazyTask<?>> lazyTasks = new LinkedHashMap<String, LazyTask<?>>();
+        private final ActionBroadcast<String> lazyAddActions = new ActionBroadcast<String>();
+
+        private LazyTaskStore(ProjectInternal project, ITaskFactory taskFactory) {
+            this.project = project;
+            this.taskFactory = taskFactory;
+        }
+
+        public void addLazyTask(LazyTask<?> task) {
+            lazyTasks.put(task.name, task);
+            lazyAddActions.execute(task.name);
+        }
+
+        public boolean hasLazyTask(String name) {
+            return lazyTasks.containsKey(name);
+        }
+
+        public void discardLazyTask(String name) {
+            lazyTasks.remove(name);
+        }
+
+        public void lazyTaskAdded(Action<? super String> action) {
+            lazyAddActions.add(action);
+        }
+
+        @Override
+        public Task find(String name) {
+            LazyTask<?> lazyTask = lazyTasks.remove(name);
+            if (lazyTask != null) {
+                lazyTask.realize(this, project, taskFactory);
+            }
+            return super.find(name);
+        }
+
+        @Override
+        public Map<String, Task> getAsMap() {
+            while (!lazyTasks.isEmpty()) {
+                find(lazyTasks.keySet().iterator().next());
+            }
+            return super.getAsMap();
+        }
+
+        @Override
+        public Collection<? extends Task> getRealized() {
+            return super.getAsMap().values();
+        }
+    }
 }
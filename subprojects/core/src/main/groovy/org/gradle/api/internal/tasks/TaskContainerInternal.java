@@ -15,9 +15,31 @@
  */
 package org.gradle.api.internal.tasks;
 
+import org.gradle.api.Action;
+import org.gradle.api.Task;
 import org.gradle.api.tasks.TaskContainer;
 import org.gradle.api.internal.DynamicObject;
 
 public interface TaskContainerInternal extends TaskContainer, TaskResolver {
     DynamicObject getAsDynamicObject();
+
+    /**
+     * Registers a task which is created only when it is first required, that is, when it is located by name or path,
+     * or when the contents of this container are queried. The task is then created with the given type, added to this
+     * container and passed to the given action to be configured.
+     *
+     * <p>Actions registered using {@link #all(Action)} or {@link #whenTaskAdded(Action)} are executed for the task
+     * when it is created, and do not cause it to be created.</p>
+     *
+     * @param name The name of the task.
+     * @param type The type of the task.
+     * @param configureAction The action to configure the task with once it has been created.
+     * @throws org.gradle.api.InvalidUserDataException If a task with the given name already exists in this container.
+     */
+    <T extends Task> void addLazy(String name, Class<T> type, Action<? super T> configureAction);
+
+    /**
+     * Adds an action to be executed with the name of each task registered using {@link #addLazy}.
+     */
+    void whenLazyTaskAdded(Action<? super String> action);
 }
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks;
+
+import org.gradle.api.Action;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.tasks.TaskContainer;
+import org.gradle.util.NameMatcher;
+
+import java.util.*;
+
+/**
+ * A build-wide index of the tasks of all projects, keyed by task name. The index is kept up to date by listening to the
+ * add and remove events of each project's task container, so that task selection does not need to visit every task of
+ * every project. Tasks which have been registered with a container but not yet created are indexed by name, and are
+ * created only once they have been selected.
+ */
+public class TaskNameIndex {
+    private final Map<String, Set<Task>> tasksByName = new HashMap<String, Set<Task>>();
+    private final Map<String, Map<Project, TaskContainer>> lazyTasksByName = new HashMap<String, Map<Project, TaskContainer>>();
+    private final SortedMap<String, Set<String>> namesByNormalisedName = new TreeMap<String, Set<String>>();
+
+    /**
+     * Adds the tasks of the given container to this index, and keeps the index up to date as tasks are added to and
+     * removed from the container.
+     */
+    public void addTasks(final Project project, final TaskContainerInternal tasks) {
+        tasks.all(new Action<Task>() {
+            public void execute(Task task) {
+                taskAdded(task);
+            }
+        });
+        tasks.whenObjectRemoved(new Action<Task>() {
+            public void execute(Task task) {
+                taskRemoved(task);
+            }
+        });
+        tasks.whenLazyTaskAdded(new Action<String>() {
+            public void execute(String name) {
+                lazyTaskAdded(project, name, tasks);
+            }
+        });
+    }
+
+    void taskAdded(Task task) {
+        String name = task.getName();
+        Map<Project, TaskContainer> lazyTasks = lazyTasksByName.get(name);
+        if (lazyTasks != null) {
+            lazyTasks.remove(task.getProject());
+            if (lazyTasks.isEmpty()) {
+                lazyTasksByName.remove(name);
+            }
+        }
+        Set<Task> tasks = tasksByName.get(name);
+        if (tasks == null) {
+            tasks = new LinkedHashSet<Task>();
+            tasksByName.put(name, tasks);
+            addName(name);
+        }
+        tasks.add(task);
+    }
+
+    void lazyTaskAdded(Project project, String name, TaskContainer container) {
+        Map<Project, TaskContainer> lazyTasks = lazyTasksByName.get(name);
+        if (lazyTasks == null) {
+            lazyTasks = new LinkedHashMap<Project, TaskContainer>();
+            lazyTasksByName.put(name, lazyTasks);
+            addName(name);
+        }
+        lazyTasks.put(project, container);
+    }
+
+    void taskRemoved(Task task) {
+        String name = task.getName();
+        Set<Task> tasks = tasksByName.get(name);
+        if (tasks == null || !tasks.remove(task) || !tasks.isEmpty()) {
+            return;
+        }
+        tasksByName.remove(name);
+        if (!lazyTasksByName.containsKey(name)) {
+            removeName(name);
+        }
+    }
+
+    private void addName(String name) {
+        String normalisedName = normalise(name);
+        Set<String> names = namesByNormalisedName.get(normalisedName);
+        if (names == null) {
+            names = new TreeSet<String>();
+            namesByNormalisedName.put(normalisedName, names);
+        }
+        names.add(name);
+    }
+
+    private void removeName(String name) {
+        String normalisedName = normalise(name);
+        Set<String> names = namesByNormalisedName.get(normalisedName);
+        names.remove(name);
+        if (names.isEmpty()) {
+            namesByNormalisedName.remove(normalisedName);
+        }
+    }
+
+    /**
+     * Returns the names of the tasks of the given project and its subprojects which {@link NameMatcher} could match
+     * against the given pattern, including the names of tasks which have not been created yet. When no task names could
+     * match the pattern, the names of all tasks of the given project and its subprojects are returned, so that the caller
+     * can still report potential candidates. Does not create any tasks.
+     */
+    public Set<String> getCandidateNames(String pattern, Project project) {
+        Set<String> names = new LinkedHashSet<String>();
+        String prefix = normalise(NameMatcher.getCommonPrefix(pattern));
+        addNames(namesByNormalisedName.subMap(prefix, prefix + Character.MAX_VALUE).values(), project, names);
+        if (names.isEmpty()) {
+            addNames(namesByNormalisedName.values(), project, names);
+        }
+        return names;
+    }
+
+    /**
+     * Returns the tasks with the given name of the given project and its subprojects. Creates those of the tasks which
+     * have not been created yet.
+     */
+    public Set<Task> getTasks(String name, Project project) {
+        realizeLazyTasks(name, project);
+        Set<Task> result = new LinkedHashSet<Task>();
+        Set<Task> tasks = tasksByName.get(name);
+        if (tasks != null) {
+            for (Task task : tasks) {
+                if (isInScope(task, project)) {
+                    result.add(task);
+                }
+            }
+        }
+        return result;
+    }
+
+    private void addNames(Collection<Set<String>> nameGroups, Project project, Set<String> names) {
+        for (Set<String> group : nameGroups) {
+            for (String name : group) {
+                if (hasTaskInScope(name, project)) {
+                    names.add(name);
+                }
+            }
+        }
+    }
+
+    private boolean hasTaskInScope(String name, Project project) {
+        Set<Task> tasks = tasksByName.get(name);
+        if (tasks != null) {
+            for (Task task : tasks) {
+                if (isInScope(task, project)) {
+                    return true;
+                }
+            }
+        }
+        Map<Project, TaskContainer> lazyTasks = lazyTasksByName.get(name);
+        if (lazyTasks != null) {
+            for (Project taskProject : lazyTasks.keySet()) {
+                if (isInScope(taskProject, project)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void realizeLazyTasks(String name, Project project) {
+        Map<Project, TaskContainer> lazyTasks = lazyTasksByName.get(name);
+        if (lazyTasks == null) {
+            return;
+        }
+        // Several projects in scope can have a lazy task with the same name. Creating the task notifies this index of
+        // the new task, which removes it from the lazy tasks, so collect the containers first
+        List<TaskContainer> containers = new ArrayList<TaskContainer>();
+        for (Map.Entry<Project, TaskContainer> entry : lazyTasks.entrySet()) {
+            if (isInScope(entry.getKey(), project)) {
+                containers.add(entry.getValue());
+            }
+        }
+        for (TaskContainer container : containers) {
+            container.findByName(name);
+        }
+    }
+
+    private static boolean isInScope(Task task, Project project) {
+        return isInScope(task.getProject(), project);
+    }
+
+    private static boolean isInScope(Project taskProject, Project project) {
+        for (Project current = taskProject; current != null; current = current.getParent()) {
+            if (current == project) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String normalise(String name) {
+        return name.toLowerCase(Locale.ENGLISH);
+    }
+}
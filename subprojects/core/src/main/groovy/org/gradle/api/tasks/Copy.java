@@ -57,7 +57,7 @@ public class Copy extends AbstractCopyTask {
 
     public Copy() {
         FileResolver fileResolver = getServices().get(FileResolver.class);
-        copyAction = new FileCopyActionImpl(fileResolver, new FileCopySpecVisitor());
+        copyAction = new FileCopyActionImpl(fileResolver, new FileCopySpecVisitor().parallel());
     }
 
     protected void configureRootSpec() {
@@ -31,7 +31,7 @@ public class Sync extends AbstractCopyTask {
 
     public Sync() {
         FileResolver fileResolver = getServices().get(FileResolver.class);
-        action = new FileCopyActionImpl(fileResolver, new SyncCopySpecVisitor(new FileCopySpecVisitor()));
+        action = new FileCopyActionImpl(fileResolver, new SyncCopySpecVisitor(new FileCopySpecVisitor().parallel()));
     }
 
     @Override
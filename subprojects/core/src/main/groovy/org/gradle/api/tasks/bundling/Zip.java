@@ -16,11 +16,13 @@
 package org.gradle.api.tasks.bundling;
 
 import org.gradle.api.internal.file.FileResolver;
+import org.gradle.api.internal.file.archive.ZipCopyAction;
 import org.gradle.api.internal.file.archive.ZipCopySpecVisitor;
-import org.gradle.api.internal.file.copy.ArchiveCopyAction;
 import org.gradle.api.internal.file.copy.CopyActionImpl;
+import org.gradle.api.tasks.Input;
 
 import java.io.File;
+import java.util.zip.Deflater;
 
 /**
  * Assembles a ZIP archive.
@@ -30,23 +32,102 @@ import java.io.File;
 public class Zip extends AbstractArchiveTask {
     public static final String ZIP_EXTENSION = "zip";
     private final CopyActionImpl action;
+    private ZipEntryCompression entryCompression = ZipEntryCompression.DEFLATED;
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    private boolean incremental;
 
     public Zip() {
         setExtension(ZIP_EXTENSION);
-        action = new ZipCopyAction(getServices().get(FileResolver.class));
+        action = new ZipCopyActionImpl(getServices().get(FileResolver.class));
     }
 
     protected CopyActionImpl getCopyAction() {
         return action;
     }
 
-    private class ZipCopyAction extends CopyActionImpl implements ArchiveCopyAction {
-        public ZipCopyAction(FileResolver fileResolver) {
-            super(fileResolver, new ZipCopySpecVisitor());
+    /**
+     * Returns the compression to apply to the entries of this archive. Defaults to {@link ZipEntryCompression#DEFLATED}.
+     *
+     * @return The entry compression. Never returns null.
+     */
+    @Input
+    public ZipEntryCompression getEntryCompression() {
+        return entryCompression;
+    }
+
+    /**
+     * Specifies the compression to apply to the entries of this archive. Using {@link ZipEntryCompression#STORED}
+     * produces a larger archive, but is faster to build.
+     *
+     * @param entryCompression The entry compression. Should not be null.
+     */
+    public void setEntryCompression(ZipEntryCompression entryCompression) {
+        this.entryCompression = entryCompression;
+    }
+
+    /**
+     * Returns the level of compression to apply to DEFLATED entries, from 0 to 9. Defaults to -1, which means the
+     * default level.
+     *
+     * @return The compression level.
+     */
+    @Input
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * Specifies the level of compression to apply to DEFLATED entries, from 0 (fastest) to 9 (smallest), or -1 to use
+     * the default level.
+     *
+     * @param compressionLevel The compression level.
+     */
+    public void setCompressionLevel(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Returns whether this archive is updated incrementally. When true, entries whose path, size and CRC are the same
+     * as an entry of the existing archive reuse the compressed data of that entry, rather than being compressed again.
+     * Defaults to false.
+     *
+     * <p>The compressed data of a reused entry is the data which was compressed when the existing archive was built,
+     * using the compression level at that time.</p>
+     *
+     * @return true if this archive is updated incrementally.
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * Specifies whether this archive is updated incrementally.
+     *
+     * @param incremental true if this archive should be updated incrementally.
+     */
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    private class ZipCopyActionImpl extends CopyActionImpl implements ZipCopyAction {
+        public ZipCopyActionImpl(FileResolver fileResolver) {
+            super(fileResolver, new ZipCopySpecVisitor().parallel());
         }
 
         public File getArchivePath() {
             return Zip.this.getArchivePath();
         }
+
+        public ZipEntryCompression getEntryCompression() {
+            return Zip.this.getEntryCompression();
+        }
+
+        public int getCompressionLevel() {
+            return Zip.this.getCompressionLevel();
+        }
+
+        public boolean isIncremental() {
+            return Zip.this.isIncremental();
+        }
     }
 }
@@ -20,8 +20,12 @@ import com.google.common.collect.SetMultimap;
 import org.gradle.api.Project;
 import org.gradle.api.Task;
 import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.internal.tasks.TaskNameIndex;
+import org.gradle.util.NameMatcher;
 
 import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 public class TaskNameResolver {
     
@@ -33,7 +37,7 @@ public class TaskNameResolver {
         return select(name, (ProjectInternal) project, project.getSubprojects());
     }
 
-    private SetMultimap<String, Task> select(String name, ProjectInternal project, Iterable<Project> additionalProjects) {
+    private SetMultimap<String, Task> select(String name, ProjectInternal project, Set<Project> additionalProjects) {
         SetMultimap<String, Task> selected = LinkedHashMultimap.create();
         Task task = project.getTasks().findByName(name);
         if (task != null) {
@@ -62,10 +66,18 @@ public class TaskNameResolver {
                 selected.put(t.getName(), t);
             }
         }
-        for (Project additionalProject : additionalProjects) {
-            for (Task t : additionalProject.getTasks()) {
-                selected.put(t.getName(), t);
+        if (!additionalProjects.isEmpty()) {
+            // Use the build-wide index, rather than visiting every task of every subproject. Match against the task
+            // names, so that only the tasks with the selected name are created
+            TaskNameIndex index = project.getServices().get(TaskNameIndex.class);
+            Set<String> names = new LinkedHashSet<String>(selected.keySet());
+            names.addAll(index.getCandidateNames(name, project));
+            NameMatcher matcher = new NameMatcher();
+            String actualName = matcher.find(name, names);
+            if (actualName == null) {
+                throw new TaskSelectionException(matcher.formatErrorMessage("task", project));
             }
+            selected.putAll(actualName, index.getTasks(actualName, project));
         }
 
         return selected;
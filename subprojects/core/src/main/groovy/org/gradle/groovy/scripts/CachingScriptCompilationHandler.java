@@ -35,7 +35,8 @@ public class CachingScriptCompilationHandler implements ScriptCompilationHandler
 
     public <T extends Script> Class<? extends T> loadFromDir(ScriptSource source, ClassLoader classLoader,
                                                              File scriptCacheDir, Class<T> scriptBaseClass) {
-        List<Object> key = Arrays.asList(source.getClassName(), classLoader, scriptCacheDir);
+        // The file name is part of the key, as it is written into the loaded class for use in stack traces
+        List<Object> key = Arrays.asList(source.getClassName(), source.getFileName(), classLoader, scriptCacheDir);
         Class<?> c = cachedClasses.get(key);
         if (c == null) {
             c = handler.loadFromDir(source, classLoader, scriptCacheDir, scriptBaseClass);
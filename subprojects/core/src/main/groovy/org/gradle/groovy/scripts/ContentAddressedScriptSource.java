@@ -0,0 +1,59 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.groovy.scripts;
+
+import org.apache.commons.lang.StringUtils;
+import org.gradle.util.HashUtil;
+
+/**
+ * A {@link ScriptSource} whose class name is derived from the text of the script, rather than from its location. This
+ * allows scripts with the same text, such as the build scripts of many similar projects, to share a single compiled
+ * class in the script cache.
+ */
+public class ContentAddressedScriptSource extends DelegatingScriptSource {
+    private String className;
+
+    public ContentAddressedScriptSource(ScriptSource source) {
+        super(source);
+    }
+
+    @Override
+    public String getClassName() {
+        if (className == null) {
+            String prefix = StringUtils.substringBeforeLast(getSource().getClassName(), "_");
+            className = prefix + "_" + HashUtil.createHash(getResource().getText());
+        }
+        return className;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        ContentAddressedScriptSource other = (ContentAddressedScriptSource) obj;
+        return other.getSource().equals(getSource());
+    }
+
+    @Override
+    public int hashCode() {
+        return getSource().hashCode();
+    }
+}
@@ -19,7 +19,10 @@ package org.gradle.groovy.scripts;
 import groovy.lang.GroovyClassLoader;
 import groovy.lang.GroovyCodeSource;
 import groovy.lang.Script;
+import groovyjarjarasm.asm.ClassAdapter;
+import groovyjarjarasm.asm.ClassReader;
 import groovyjarjarasm.asm.ClassWriter;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.codehaus.groovy.ast.expr.ConstantExpression;
 import org.codehaus.groovy.ast.stmt.ReturnStatement;
@@ -37,7 +40,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Field;
+import java.net.URL;
 import java.net.URLClassLoader;
 import java.security.CodeSource;
 import java.util.List;
@@ -161,8 +167,7 @@ public class DefaultScriptCompilationHandler implements ScriptCompilationHandler
         }
         
         try {
-            URLClassLoader urlClassLoader = new URLClassLoader(WrapUtil.toArray(scriptCacheDir.toURI().toURL()),
-                    classLoader);
+            URLClassLoader urlClassLoader = new ScriptClassLoader(source, scriptCacheDir.toURI().toURL(), classLoader);
             return urlClassLoader.loadClass(source.getClassName()).asSubclass(scriptBaseClass);
         } catch (Exception e) {
             throw new GradleException(String.format("Could not load compiled classes for %s from cache.\n"
@@ -175,6 +180,49 @@ public class DefaultScriptCompilationHandler implements ScriptCompilationHandler
         }
     }
 
+    /**
+     * Loads the compiled classes of a script. The classes in the cache may have been compiled from another script with
+     * the same text, so the source file name in the debug info of each class is replaced with the file name of the
+     * script being loaded. This makes stack traces refer to the correct script.
+     */
+    private static class ScriptClassLoader extends URLClassLoader {
+        private final ScriptSource source;
+
+        public ScriptClassLoader(ScriptSource source, URL classesDir, ClassLoader parent) {
+            super(WrapUtil.toArray(classesDir), parent);
+            this.source = source;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            URL resource = findResource(name.replace('.', '/') + ".class");
+            if (resource == null) {
+                throw new ClassNotFoundException(name);
+            }
+            byte[] bytecode;
+            try {
+                InputStream inputStream = resource.openStream();
+                try {
+                    bytecode = IOUtils.toByteArray(inputStream);
+                } finally {
+                    inputStream.close();
+                }
+            } catch (IOException e) {
+                throw new ClassNotFoundException(name, e);
+            }
+
+            ClassWriter classWriter = new ClassWriter(0);
+            new ClassReader(bytecode).accept(new ClassAdapter(classWriter) {
+                @Override
+                public void visitSource(String sourcePath, String debugInfo) {
+                    super.visitSource(source.getFileName(), debugInfo);
+                }
+            }, 0);
+            bytecode = classWriter.toByteArray();
+            return defineClass(name, bytecode, 0, bytecode.length);
+        }
+    }
+
     private static class PackageStatementDetector extends CompilationUnit.SourceUnitOperation {
         private boolean hasPackageStatement;
 
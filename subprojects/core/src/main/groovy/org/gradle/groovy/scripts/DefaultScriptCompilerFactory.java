@@ -17,7 +17,6 @@ package org.gradle.groovy.scripts;
 
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.PersistentCache;
-import org.gradle.util.HashUtil;
 import org.gradle.util.ReflectionUtil;
 
 import java.io.File;
@@ -31,6 +30,7 @@ public class DefaultScriptCompilerFactory implements ScriptCompilerFactory {
     private final ScriptCompilationHandler scriptCompilationHandler;
     private final CacheRepository cacheRepository;
     private final ScriptRunnerFactory scriptRunnerFactory;
+    private final Map<String, PersistentCache> caches = new HashMap<String, PersistentCache>();
 
     public DefaultScriptCompilerFactory(ScriptCompilationHandler scriptCompilationHandler,
                                         ScriptRunnerFactory scriptRunnerFactory, CacheRepository cacheRepository) {
@@ -73,11 +73,9 @@ public class DefaultScriptCompilerFactory implements ScriptCompilerFactory {
         }
 
         private <T extends Script> T loadViaCache(ClassLoader classLoader, Class<T> scriptBaseClass) {
-            Map<String, Object> properties = new HashMap<String, Object>();
-            properties.put("source.filename", source.getFileName());
-            properties.put("source.hash", HashUtil.createHash(source.getResource().getText()));
-
-            PersistentCache cache = cacheRepository.cache(String.format("scripts/%s", source.getClassName())).withProperties(properties).open();
+            // Scripts with the same text share a cache entry and compiled classes
+            ScriptSource source = new ContentAddressedScriptSource(this.source);
+            PersistentCache cache = openCache(source);
             File classesDir;
             if (transformer != null) {
                 String subdirName = String.format("%s_%s", transformer.getId(), scriptBaseClass.getSimpleName());
@@ -95,4 +93,14 @@ public class DefaultScriptCompilerFactory implements ScriptCompilerFactory {
             return scriptBaseClass.cast(ReflectionUtil.newInstance(scriptClass, new Object[0]));
         }
     }
+
+    private PersistentCache openCache(ScriptSource source) {
+        String key = String.format("scripts/%s", source.getClassName());
+        PersistentCache cache = caches.get(key);
+        if (cache == null) {
+            cache = cacheRepository.cache(key).open();
+            caches.put(key, cache);
+        }
+        return cache;
+    }
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.groovy.scripts;
+
+import org.gradle.listener.ListenerManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the scripts which have been executed by the build, such as the init scripts, the settings script, the build
+ * scripts and any scripts which they apply.
+ */
+public class ExecutedScriptRecorder implements ScriptExecutionListener {
+    private final Map<String, ScriptSource> scripts = new LinkedHashMap<String, ScriptSource>();
+
+    public ExecutedScriptRecorder(ListenerManager listenerManager) {
+        listenerManager.addListener(this);
+    }
+
+    public void beforeScript(Script script) {
+        ScriptSource source = script.getScriptSource();
+        synchronized (scripts) {
+            scripts.put(source.getFileName(), source);
+        }
+    }
+
+    public void afterScript(Script script, Throwable result) {
+    }
+
+    /**
+     * Returns the scripts which have been executed so far, in the order they were first executed.
+     */
+    public List<ScriptSource> getScripts() {
+        synchronized (scripts) {
+            return new ArrayList<ScriptSource>(scripts.values());
+        }
+    }
+}
@@ -26,6 +26,7 @@ import org.gradle.api.logging.Logging;
 import org.gradle.api.logging.StandardOutputListener;
 import org.gradle.cache.CacheRepository;
 import org.gradle.configuration.BuildConfigurer;
+import org.gradle.groovy.scripts.ExecutedScriptRecorder;
 import org.gradle.invocation.DefaultGradle;
 import org.gradle.listener.ListenerManager;
 import org.gradle.logging.LoggingManagerInternal;
@@ -120,6 +121,9 @@ public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
             listenerManager.addListener(new ProfileListener(requestMetaData.getBuildTimeClock().getStartTime()));
         }
 
+        // Create the script recorder up front, so that it sees the init and settings scripts
+        serviceRegistry.get(ExecutedScriptRecorder.class);
+
         DefaultGradle gradle = new DefaultGradle(
                 tracker.getCurrentBuild(),
                 startParameter, serviceRegistry);
@@ -19,6 +19,8 @@ import org.apache.commons.lang.StringUtils;
 import org.gradle.api.LocationAwareException;
 import org.gradle.api.internal.ClassGenerator;
 import org.gradle.api.internal.Contextual;
+import org.gradle.api.internal.Factory;
+import org.gradle.api.internal.GeneratedClassCache;
 import org.gradle.groovy.scripts.ScriptSource;
 import org.gradle.util.ReflectionUtil;
 import org.objectweb.asm.ClassWriter;
@@ -28,16 +30,14 @@ import org.objectweb.asm.Type;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * A {@link ClassGenerator} which mixes {@link org.gradle.api.LocationAwareException} into the supplied exception
  * types. Uses {@link ExceptionHelper} to do the work.
  */
 public class ExceptionDecoratingClassGenerator implements ClassGenerator {
-    private static final Map<Class<?>, Class<?>> GENERATED_CLASSES = new HashMap<Class<?>, Class<?>>();
+    private static final GeneratedClassCache GENERATED_CLASSES = new GeneratedClassCache();
 
     public <T> T newInstance(Class<T> type, Object... parameters) {
         Throwable throwable = ReflectionUtil.newInstance(generate(type), parameters);
@@ -45,13 +45,12 @@ public class ExceptionDecoratingClassGenerator implements ClassGenerator {
         return type.cast(throwable);
     }
 
-    public <T> Class<? extends T> generate(Class<T> type) {
-        Class generated = GENERATED_CLASSES.get(type);
-        if (generated == null) {
-            generated = doGenerate(type);
-            GENERATED_CLASSES.put(type, generated);
-        }
-        return generated;
+    public <T> Class<? extends T> generate(final Class<T> type) {
+        return GENERATED_CLASSES.get(type, new Factory<Class<? extends T>>() {
+            public Class<? extends T> create() {
+                return doGenerate(type);
+            }
+        });
     }
 
     private <T> Class<? extends T> doGenerate(Class<T> type) {
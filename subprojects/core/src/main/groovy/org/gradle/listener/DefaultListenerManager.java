@@ -17,15 +17,16 @@
 package org.gradle.listener;
 
 import groovy.lang.Closure;
+import org.gradle.messaging.dispatch.AsmBackedDispatchGenerator;
 import org.gradle.messaging.dispatch.BroadcastDispatch;
 import org.gradle.messaging.dispatch.Dispatch;
 import org.gradle.messaging.dispatch.MethodInvocation;
-import org.gradle.messaging.dispatch.ReflectionDispatch;
 
 import java.util.*;
 
 @SuppressWarnings({"unchecked"})
 public class DefaultListenerManager implements ListenerManager {
+    private static final AsmBackedDispatchGenerator DISPATCH_GENERATOR = new AsmBackedDispatchGenerator();
     private final Set<Object> allListeners = new LinkedHashSet<Object>();
     private final Set<Object> allLoggers = new LinkedHashSet<Object>();
     private final Map<Class<?>, ListenerBroadcast> broadcasters = new HashMap<Class<?>, ListenerBroadcast>();
@@ -175,7 +176,7 @@ public class DefaultListenerManager implements ListenerManager {
 
         public void maybeSetLogger(Object logger) {
             if (type.isInstance(logger)) {
-                dispatch = new ReflectionDispatch(logger);
+                dispatch = DISPATCH_GENERATOR.newDispatch((Class) type, logger);
             }
         }
     }
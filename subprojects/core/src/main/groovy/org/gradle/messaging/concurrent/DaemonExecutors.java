@@ -0,0 +1,72 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.messaging.concurrent;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates executors which use daemon threads, for code which has no access to an {@link ExecutorFactory}, such as
+ * code which runs in a worker process or which is not created from a service registry.
+ *
+ * <p>Prefer an {@link ExecutorFactory} where one is available, as the executors it creates are stopped along with
+ * the build.</p>
+ */
+public class DaemonExecutors {
+    private static final long IDLE_TIMEOUT_SECONDS = 60;
+
+    private DaemonExecutors() {
+    }
+
+    /**
+     * Creates a factory for daemon threads.
+     *
+     * @param displayName The display name for the threads. Used for thread names.
+     */
+    public static ThreadFactory newThreadFactory(String displayName) {
+        return new DaemonThreadFactory(displayName);
+    }
+
+    /**
+     * Creates an executor which runs at most the given number of tasks concurrently. It has no queue: a task which is
+     * submitted while all threads are busy is run by the submitting thread, which keeps the amount of pending work
+     * bounded. Threads are discarded once they have been idle for a while, so the executor does not need to be shut
+     * down.
+     *
+     * @param displayName The display name for the threads. Used for thread names.
+     * @param maxThreads The maximum number of threads.
+     */
+    public static ExecutorService newBoundedExecutor(String displayName, int maxThreads) {
+        return new ThreadPoolExecutor(0, maxThreads, IDLE_TIMEOUT_SECONDS, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(), new DaemonThreadFactory(displayName),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicLong counter = new AtomicLong();
+        private final String displayName;
+
+        public DaemonThreadFactory(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, String.format("%s Thread %s", displayName, counter.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
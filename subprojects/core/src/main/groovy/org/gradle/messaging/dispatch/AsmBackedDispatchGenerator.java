@@ -0,0 +1,286 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.messaging.dispatch;
+
+import org.gradle.api.internal.Factory;
+import org.gradle.api.internal.GeneratedClassCache;
+import org.gradle.util.ReflectionUtil;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * Generates {@link DirectDispatch} implementations for listener interfaces, which call the listener methods using
+ * ordinary interface calls rather than reflection. Falls back to a {@link ReflectionDispatch} for types which cannot
+ * be generated for, such as classes or types loaded by the bootstrap class loader.
+ */
+public class AsmBackedDispatchGenerator {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsmBackedDispatchGenerator.class);
+    private static final String METHODS_FIELD = "METHODS";
+    // Maps each listener type to its generated class, or to ReflectionDispatch when no class can be generated for it
+    private static final GeneratedClassCache GENERATED_CLASSES = new GeneratedClassCache();
+
+    /**
+     * Creates a dispatch which delivers invocations of the methods of the given type to the given target.
+     */
+    public <T> Dispatch<MethodInvocation> newDispatch(Class<T> type, T target) {
+        Class<? extends Dispatch<MethodInvocation>> generatedClass = generate(type);
+        if (generatedClass == ReflectionDispatch.class) {
+            return new ReflectionDispatch(target);
+        }
+        try {
+            return (DirectDispatch) generatedClass.getConstructor(Object.class).newInstance(target);
+        } catch (Exception e) {
+            throw new IllegalStateException(String.format("Could not create dispatch for %s.", target), e);
+        }
+    }
+
+    private Class<? extends Dispatch<MethodInvocation>> generate(final Class<?> type) {
+        if (type.getClassLoader() == null) {
+            // Can't define a class in the bootstrap class loader, nor cache anything for its types
+            return ReflectionDispatch.class;
+        }
+        return GENERATED_CLASSES.get(type, new Factory<Class<? extends Dispatch<MethodInvocation>>>() {
+            public Class<? extends Dispatch<MethodInvocation>> create() {
+                if (!canGenerate(type)) {
+                    return ReflectionDispatch.class;
+                }
+                try {
+                    Class<?> generatedClass = new ClassBuilder(type).generate();
+                    if (!DirectDispatch.class.isAssignableFrom(generatedClass)) {
+                        // The listener type can see a different copy of the Gradle classes
+                        return ReflectionDispatch.class;
+                    }
+                    return generatedClass.asSubclass(DirectDispatch.class);
+                } catch (Throwable e) {
+                    LOGGER.debug(String.format("Could not generate a dispatch class for %s.", type.getName()), e);
+                    return ReflectionDispatch.class;
+                }
+            }
+        });
+    }
+
+    private static boolean canGenerate(Class<?> type) {
+        if (!type.isInterface()) {
+            return false;
+        }
+        // The generated class is defined in the package of the listener type, and refers to the interfaces which
+        // declare the methods and to their parameter and return types
+        for (Method method : type.getMethods()) {
+            if (!isAccessible(method.getDeclaringClass(), type) || !isAccessible(method.getReturnType(), type)) {
+                return false;
+            }
+            for (Class<?> parameterType : method.getParameterTypes()) {
+                if (!isAccessible(parameterType, type)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAccessible(Class<?> candidate, Class<?> fromType) {
+        while (candidate.isArray()) {
+            candidate = candidate.getComponentType();
+        }
+        if (candidate.isPrimitive() || Modifier.isPublic(candidate.getModifiers())) {
+            return true;
+        }
+        return candidate.getClassLoader() == fromType.getClassLoader() && getPackageName(candidate).equals(
+                getPackageName(fromType));
+    }
+
+    private static String getPackageName(Class<?> type) {
+        String name = type.getName();
+        int index = name.lastIndexOf('.');
+        return index < 0 ? "" : name.substring(0, index);
+    }
+
+    private static class ClassBuilder {
+        private final Class<?> type;
+        private final String typeName;
+        private final Type generatedType;
+        private final Type superclassType = Type.getType(DirectDispatch.class);
+        private final ClassWriter visitor = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+
+        private ClassBuilder(Class<?> type) {
+            this.type = type;
+            typeName = type.getName() + "_Dispatch";
+            generatedType = Type.getType("L" + typeName.replaceAll("\\.", "/") + ";");
+        }
+
+        public Class<?> generate() throws Exception {
+            List<Method> methods = Arrays.asList(type.getMethods());
+
+            visitor.visit(Opcodes.V1_5, Opcodes.ACC_PUBLIC, generatedType.getInternalName(), null,
+                    superclassType.getInternalName(), new String[0]);
+            addMethodsField();
+            addConstructor();
+            addInvokeMethod(methods);
+            visitor.visitEnd();
+
+            byte[] bytecode = visitor.toByteArray();
+            Class<?> generatedClass = (Class<?>) ReflectionUtil.invoke(type.getClassLoader(), "defineClass", new Object[]{
+                    typeName, bytecode, 0, bytecode.length
+            });
+
+            // The method indices are held by the generated class, so they live exactly as long as it does
+            Map<Method, Integer> indices = new HashMap<Method, Integer>();
+            for (int i = 0; i < methods.size(); i++) {
+                indices.put(methods.get(i), i);
+            }
+            generatedClass.getField(METHODS_FIELD).set(null, indices);
+            return generatedClass;
+        }
+
+        private void addMethodsField() {
+            // GENERATE public static Map METHODS;
+            visitor.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, METHODS_FIELD,
+                    Type.getDescriptor(Map.class), null, null).visitEnd();
+        }
+
+        private void addConstructor() {
+            String methodDescriptor = Type.getMethodDescriptor(Type.VOID_TYPE, new Type[]{
+                    Type.getType(Object.class)
+            });
+            MethodVisitor methodVisitor = visitor.visitMethod(Opcodes.ACC_PUBLIC, "<init>", methodDescriptor, null,
+                    new String[0]);
+            methodVisitor.visitCode();
+
+            // GENERATE super(target, METHODS)
+            methodVisitor.visitVarInsn(Opcodes.ALOAD, 0);
+            methodVisitor.visitVarInsn(Opcodes.ALOAD, 1);
+            methodVisitor.visitFieldInsn(Opcodes.GETSTATIC, generatedType.getInternalName(), METHODS_FIELD,
+                    Type.getDescriptor(Map.class));
+            methodVisitor.visitMethodInsn(Opcodes.INVOKESPECIAL, superclassType.getInternalName(), "<init>",
+                    Type.getMethodDescriptor(Type.VOID_TYPE, new Type[]{
+                            Type.getType(Object.class), Type.getType(Map.class)
+                    }));
+
+            methodVisitor.visitInsn(Opcodes.RETURN);
+            methodVisitor.visitMaxs(0, 0);
+            methodVisitor.visitEnd();
+        }
+
+        private void addInvokeMethod(List<Method> methods) {
+            String methodDescriptor = Type.getMethodDescriptor(Type.VOID_TYPE, new Type[]{
+                    Type.getType(Object.class), Type.INT_TYPE, Type.getType(Object[].class)
+            });
+            MethodVisitor methodVisitor = visitor.visitMethod(Opcodes.ACC_PROTECTED, "invoke", methodDescriptor, null,
+                    new String[]{Type.getType(Throwable.class).getInternalName()});
+            methodVisitor.visitCode();
+
+            Label defaultLabel = new Label();
+            Label[] labels = new Label[methods.size()];
+            for (int i = 0; i < labels.length; i++) {
+                labels[i] = new Label();
+            }
+
+            // GENERATE switch (method) { case i: ((Type) target).method_i((P0) arguments[0], ...); return; }
+
+            if (labels.length > 0) {
+                methodVisitor.visitVarInsn(Opcodes.ILOAD, 2);
+                methodVisitor.visitTableSwitchInsn(0, labels.length - 1, defaultLabel, labels);
+            }
+
+            for (int i = 0; i < labels.length; i++) {
+                Method method = methods.get(i);
+                Type ownerType = Type.getType(method.getDeclaringClass());
+                methodVisitor.visitLabel(labels[i]);
+
+                methodVisitor.visitVarInsn(Opcodes.ALOAD, 1);
+                methodVisitor.visitTypeInsn(Opcodes.CHECKCAST, ownerType.getInternalName());
+
+                Class<?>[] parameterTypes = method.getParameterTypes();
+                for (int j = 0; j < parameterTypes.length; j++) {
+                    methodVisitor.visitVarInsn(Opcodes.ALOAD, 3);
+                    methodVisitor.visitLdcInsn(j);
+                    methodVisitor.visitInsn(Opcodes.AALOAD);
+                    unpack(methodVisitor, Type.getType(parameterTypes[j]));
+                }
+
+                methodVisitor.visitMethodInsn(Opcodes.INVOKEINTERFACE, ownerType.getInternalName(), method.getName(),
+                        Type.getMethodDescriptor(method));
+
+                Type returnType = Type.getType(method.getReturnType());
+                if (returnType.getSize() == 1) {
+                    methodVisitor.visitInsn(Opcodes.POP);
+                } else if (returnType.getSize() == 2) {
+                    methodVisitor.visitInsn(Opcodes.POP2);
+                }
+                methodVisitor.visitInsn(Opcodes.RETURN);
+            }
+
+            methodVisitor.visitLabel(defaultLabel);
+            methodVisitor.visitInsn(Opcodes.RETURN);
+            methodVisitor.visitMaxs(0, 0);
+            methodVisitor.visitEnd();
+        }
+
+        private void unpack(MethodVisitor methodVisitor, Type type) {
+            String boxedType;
+            String unboxMethod;
+            switch (type.getSort()) {
+                case Type.BOOLEAN:
+                    boxedType = "java/lang/Boolean";
+                    unboxMethod = "booleanValue";
+                    break;
+                case Type.CHAR:
+                    boxedType = "java/lang/Character";
+                    unboxMethod = "charValue";
+                    break;
+                case Type.BYTE:
+                    boxedType = "java/lang/Byte";
+                    unboxMethod = "byteValue";
+                    break;
+                case Type.SHORT:
+                    boxedType = "java/lang/Short";
+                    unboxMethod = "shortValue";
+                    break;
+                case Type.INT:
+                    boxedType = "java/lang/Integer";
+                    unboxMethod = "intValue";
+                    break;
+                case Type.FLOAT:
+                    boxedType = "java/lang/Float";
+                    unboxMethod = "floatValue";
+                    break;
+                case Type.LONG:
+                    boxedType = "java/lang/Long";
+                    unboxMethod = "longValue";
+                    break;
+                case Type.DOUBLE:
+                    boxedType = "java/lang/Double";
+                    unboxMethod = "doubleValue";
+                    break;
+                default:
+                    methodVisitor.visitTypeInsn(Opcodes.CHECKCAST, type.getInternalName());
+                    return;
+            }
+            methodVisitor.visitTypeInsn(Opcodes.CHECKCAST, boxedType);
+            methodVisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL, boxedType, unboxMethod,
+                    Type.getMethodDescriptor(type, new Type[0]));
+        }
+    }
+}
@@ -24,16 +24,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.*;
 
 public class BroadcastDispatch<T> implements StoppableDispatch<MethodInvocation> {
     private static final Logger LOGGER = LoggerFactory.getLogger(BroadcastDispatch.class);
+    private static final AsmBackedDispatchGenerator DISPATCH_GENERATOR = new AsmBackedDispatchGenerator();
     private final Class<T> type;
     private final Map<Object, Dispatch<MethodInvocation>> handlers
             = new LinkedHashMap<Object, Dispatch<MethodInvocation>>();
+    private volatile List<Dispatch<MethodInvocation>> dispatchOrder = Collections.emptyList();
 
     public BroadcastDispatch(Class<T> type) {
         this.type = type;
@@ -45,20 +44,24 @@ public class BroadcastDispatch<T> implements StoppableDispatch<MethodInvocation>
 
     public void add(Dispatch<MethodInvocation> dispatch) {
         handlers.put(dispatch, dispatch);
+        handlersChanged();
     }
 
     public void add(T listener) {
-        handlers.put(listener, new ReflectionDispatch(listener));
+        handlers.put(listener, DISPATCH_GENERATOR.newDispatch(type, listener));
+        handlersChanged();
     }
 
     public void add(String methodName, Closure closure) {
         assertIsMethod(methodName);
         handlers.put(closure, new ClosureInvocationHandler(methodName, closure));
+        handlersChanged();
     }
 
     public void add(String methodName, Action<?> action) {
         assertIsMethod(methodName);
         handlers.put(action, new ActionInvocationHandler(methodName, action));
+        handlersChanged();
     }
 
     private void assertIsMethod(String methodName) {
@@ -73,6 +76,12 @@ public class BroadcastDispatch<T> implements StoppableDispatch<MethodInvocation>
 
     public void remove(Object listener) {
         handlers.remove(listener);
+        handlersChanged();
+    }
+
+    private void handlersChanged() {
+        // Take a copy of the handlers on change rather than on each dispatch, as events are far more frequent
+        dispatchOrder = new ArrayList<Dispatch<MethodInvocation>>(handlers.values());
     }
 
     private String getErrorMessage() {
@@ -82,17 +91,26 @@ public class BroadcastDispatch<T> implements StoppableDispatch<MethodInvocation>
 
     public void dispatch(MethodInvocation invocation) {
         try {
-            ExceptionTrackingListener tracker = new ExceptionTrackingListener(LOGGER);
-            for (Dispatch<MethodInvocation> handler : new ArrayList<Dispatch<MethodInvocation>>(handlers.values())) {
+            ExceptionTrackingListener tracker = null;
+            List<Dispatch<MethodInvocation>> handlers = dispatchOrder;
+            for (int i = 0; i < handlers.size(); i++) {
+                Throwable failure;
                 try {
-                    handler.dispatch(invocation);
+                    handlers.get(i).dispatch(invocation);
+                    continue;
                 } catch (UncheckedException e) {
-                    tracker.execute(e.getCause());
+                    failure = e.getCause();
                 } catch (Throwable t) {
-                    tracker.execute(t);
+                    failure = t;
                 }
+                if (tracker == null) {
+                    tracker = new ExceptionTrackingListener(LOGGER);
+                }
+                tracker.execute(failure);
+            }
+            if (tracker != null) {
+                tracker.stop();
             }
-            tracker.stop();
         } catch (Throwable t) {
             throw new ListenerNotificationException(getErrorMessage(), t);
         }
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.messaging.dispatch;
+
+import org.gradle.util.UncheckedException;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * A {@link Dispatch} which calls the methods of a target object directly, rather than through reflection. Subclasses
+ * are generated by {@link AsmBackedDispatchGenerator}.
+ */
+public abstract class DirectDispatch implements Dispatch<MethodInvocation> {
+    private final Object target;
+    private final Map<Method, Integer> methods;
+    private final ReflectionDispatch reflectionDispatch;
+
+    protected DirectDispatch(Object target, Map<Method, Integer> methods) {
+        this.target = target;
+        this.methods = methods;
+        // Used for methods which the generated class does not know about
+        reflectionDispatch = new ReflectionDispatch(target);
+    }
+
+    public void dispatch(MethodInvocation message) {
+        Integer method = methods.get(message.getMethod());
+        if (method == null) {
+            reflectionDispatch.dispatch(message);
+            return;
+        }
+        try {
+            invoke(target, method, message.getArguments());
+        } catch (Throwable throwable) {
+            throw UncheckedException.asUncheckedException(throwable);
+        }
+    }
+
+    /**
+     * Calls the given method on the given target.
+     *
+     * @param target The target object.
+     * @param method The index of the method to call.
+     * @param arguments The arguments to pass to the method. May be null when the method has no parameters.
+     */
+    protected abstract void invoke(Object target, int method, Object[] arguments) throws Throwable;
+}
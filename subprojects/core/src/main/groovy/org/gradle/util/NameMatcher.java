@@ -95,6 +95,23 @@ public class NameMatcher {
         return null;
     }
 
+    /**
+     * Returns the leading part of the given pattern which every match for the pattern must start with. The comparison
+     * should ignore case, as a match may differ in case from the pattern.
+     *
+     * @return The prefix. Returns an empty string when the pattern is empty.
+     */
+    public static String getCommonPrefix(String pattern) {
+        if (pattern.length() == 0) {
+            return pattern;
+        }
+        int end = 0;
+        while (end < pattern.length() && Character.isLowerCase(pattern.charAt(end))) {
+            end++;
+        }
+        return pattern.substring(0, Math.max(end, 1));
+    }
+
     private static Pattern getPatternForName(String name) {
         Pattern boundaryPattern = Pattern.compile("((^|\\p{Punct})\\p{javaLowerCase}+)|(\\p{javaUpperCase}\\p{javaLowerCase}*)");
         Matcher matcher = boundaryPattern.matcher(name);
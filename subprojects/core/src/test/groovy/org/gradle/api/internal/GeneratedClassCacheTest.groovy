@@ -0,0 +1,42 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal
+
+import spock.lang.Specification
+
+class GeneratedClassCacheTest extends Specification {
+    private final GeneratedClassCache cache = new GeneratedClassCache()
+
+    def generatesClassOnFirstRequestAndReusesItForLaterRequests() {
+        Factory<Class<? extends Number>> generator = Mock()
+
+        when:
+        def first = cache.get(Number, generator)
+        def second = cache.get(Number, generator)
+
+        then:
+        1 * generator.create() >> Integer
+        first == Integer
+        second == Integer
+    }
+
+    def cachesClassesForEachSourceType() {
+        expect:
+        cache.get(Number, { Integer } as Factory) == Integer
+        cache.get(CharSequence, { String } as Factory) == String
+        cache.get(Number, { Long } as Factory) == Integer
+    }
+}
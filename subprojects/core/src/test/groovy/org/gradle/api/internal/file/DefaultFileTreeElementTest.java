@@ -0,0 +1,87 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file;
+
+import org.gradle.api.file.RelativePath;
+import org.gradle.util.TemporaryFolder;
+import org.gradle.util.TestFile;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+public class DefaultFileTreeElementTest {
+    @Rule
+    public final TemporaryFolder tmpDir = new TemporaryFolder();
+
+    @Test
+    public void canCopyToFile() {
+        TestFile src = tmpDir.file("src");
+        src.write("content");
+        TestFile dest = tmpDir.file("dir/dest");
+
+        assertTrue(element(src).copyTo(dest));
+
+        dest.assertIsFile();
+        assertThat(dest.getText(), equalTo("content"));
+        assertThat(dest.lastModified(), equalTo(src.lastModified()));
+    }
+
+    @Test
+    public void canCopyEmptyFile() {
+        TestFile src = tmpDir.file("src");
+        src.write("");
+        TestFile dest = tmpDir.file("dest");
+
+        assertTrue(element(src).copyTo(dest));
+
+        dest.assertIsFile();
+        assertThat(dest.getText(), equalTo(""));
+    }
+
+    @Test
+    public void doesNotCopyFileWhenTargetIsUpToDate() {
+        TestFile src = tmpDir.file("src");
+        src.write("content");
+        TestFile dest = tmpDir.file("dest");
+        element(src).copyTo(dest);
+
+        dest.write("CONTENT");
+        dest.setLastModified(src.lastModified());
+
+        assertFalse(element(src).copyTo(dest));
+        assertThat(dest.getText(), equalTo("CONTENT"));
+    }
+
+    @Test
+    public void copiesFileWhenTargetIsOutOfDate() {
+        TestFile src = tmpDir.file("src");
+        src.write("content");
+        TestFile dest = tmpDir.file("dest");
+        element(src).copyTo(dest);
+
+        src.write("new content");
+        src.setLastModified(dest.lastModified() - 2000);
+
+        assertTrue(element(src).copyTo(dest));
+        assertThat(dest.getText(), equalTo("new content"));
+    }
+
+    private DefaultFileTreeElement element(TestFile file) {
+        return new DefaultFileTreeElement(file, new RelativePath(true, file.getName()));
+    }
+}
@@ -31,6 +31,10 @@ public class RelativePathTest {
         String[] actualPaths = path.getSegments();
         assertArrayEquals(expectedSegments, actualPaths);
         assertEquals(isFile, path.isFile());
+        assertEquals(expectedSegments.length, path.getSegmentCount());
+        for (int i = 0; i < expectedSegments.length; i++) {
+            assertEquals(expectedSegments[i], path.getSegment(i));
+        }
     }
 
     @Test
@@ -121,6 +125,31 @@ public class RelativePathTest {
         assertThat(new RelativePath(false).getParent(), nullValue());
     }
 
+    @Test
+    public void canGetPathString() {
+        assertThat(new RelativePath(true).getPathString(), equalTo(""));
+        assertThat(new RelativePath(true, "a").getPathString(), equalTo("a"));
+        assertThat(new RelativePath(false, "a", "b").append(true, "c").getPathString(), equalTo("a/b/c"));
+        assertThat(new RelativePath(true, "a", "b").append(true, "c").toString(), equalTo("a/b/c"));
+    }
+
+    @Test
+    public void appendedPathsShareParentPath() {
+        RelativePath dir = new RelativePath(false, "a", "b");
+        RelativePath child1 = dir.append(true, "c");
+        RelativePath child2 = dir.append(false, "d");
+
+        assertThat(child1.getParent(), sameInstance(dir));
+        assertThat(child2.getParent(), sameInstance(dir));
+        assertThat(child1.replaceLastName("e").getParent(), sameInstance(dir));
+        assertThat(child2.append(true, "f"), equalTo(new RelativePath(true, "a", "b", "d", "f")));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void cannotGetNameBeyondEndOfPath() {
+        new RelativePath(true, "a", "b").getSegment(2);
+    }
+
     @Test
     public void canReplaceLastName() {
         assertPathContains(new RelativePath(true, "old").replaceLastName("new"), true, "new");
@@ -17,6 +17,8 @@ package org.gradle.api.internal.file.archive;
 
 import org.gradle.api.GradleException;
 import org.gradle.api.InvalidUserDataException;
+import org.apache.commons.lang.StringUtils;
+import org.gradle.api.tasks.util.PatternSet;
 import static org.gradle.api.file.FileVisitorUtil.*;
 import static org.gradle.api.tasks.AntBuilderAwareUtil.*;
 import org.gradle.util.TestFile;
@@ -53,6 +55,45 @@ public class TarFileTreeTest {
         assertSetContainsForAllTypes(tree, toList("subdir/file1.txt", "subdir2/file2.txt"));
     }
 
+    @Test
+    public void visitsContentsOfGzipCompressedTarFile() {
+        rootDir.file("subdir/file1.txt").write("content");
+        rootDir.file("subdir2/file2.txt").write("content");
+        rootDir.tgzTo(tarFile);
+
+        assertVisits(tree, toList("subdir/file1.txt", "subdir2/file2.txt"), toList("subdir", "subdir2"));
+    }
+
+    @Test
+    public void visitsContentsOfBzip2CompressedTarFile() {
+        rootDir.file("subdir/file1.txt").write("content");
+        rootDir.file("subdir2/file2.txt").write("content");
+        rootDir.tbzTo(tarFile);
+
+        assertVisits(tree, toList("subdir/file1.txt", "subdir2/file2.txt"), toList("subdir", "subdir2"));
+    }
+
+    @Test
+    public void visitsEntriesWhichMatchPatterns() {
+        rootDir.file("file1.txt").write("content");
+        rootDir.file("file2.html").write("content");
+        rootDir.file("subdir/file3.txt").write("content");
+        rootDir.tgzTo(tarFile);
+
+        PatternSet patterns = new PatternSet();
+        patterns.include("*.txt");
+        assertVisits(tree.filter(patterns), toList("file1.txt"), EMPTY_LIST);
+    }
+
+    @Test
+    public void visitsEntriesWithLongNames() {
+        String name = "subdir/" + StringUtils.repeat("a", 120) + ".txt";
+        rootDir.file(name).write("content");
+        rootDir.tarTo(tarFile);
+
+        assertVisits(tree, toList(name), toList("subdir"));
+    }
+
     @Test
     public void canStopVisitingFiles() {
         rootDir.file("subdir/file1.txt").write("content");
@@ -15,12 +15,14 @@
  */
 package org.gradle.api.internal.file.archive;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.gradle.api.GradleException;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.internal.file.copy.ArchiveCopyAction;
 import org.gradle.api.internal.file.copy.ReadableCopySpec;
+import org.gradle.api.tasks.bundling.ZipEntryCompression;
 import org.gradle.util.TestFile;
 import org.gradle.util.TemporaryFolder;
 import org.hamcrest.Description;
@@ -36,7 +38,10 @@ import org.junit.Test;
 import org.junit.Before;
 import org.junit.runner.RunWith;
 
+import java.io.IOException;
 import java.io.OutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 @RunWith(JMock.class)
 public class ZipCopySpecVisitorTest {
@@ -44,6 +49,7 @@ public class ZipCopySpecVisitorTest {
     public final TemporaryFolder tmpDir = new TemporaryFolder();
     private final JUnit4Mockery context = new JUnit4Mockery();
     private final ArchiveCopyAction copyAction = context.mock(ArchiveCopyAction.class);
+    private final ZipCopyAction zipCopyAction = context.mock(ZipCopyAction.class);
     private final ReadableCopySpec copySpec = context.mock(ReadableCopySpec.class);
     private final ZipCopySpecVisitor visitor = new ZipCopySpecVisitor();
 
@@ -81,6 +87,157 @@ public class ZipCopySpecVisitorTest {
         expandDir.file("file2").assertContents(equalTo("contents of file2"));
     }
 
+    @Test
+    public void createsSameZipFileWhenCompressingInParallel() throws IOException {
+        final TestFile zipFile = tmpDir.getDir().file("test.zip");
+        final TestFile parallelZipFile = tmpDir.getDir().file("parallel.zip");
+
+        context.checking(new Expectations(){{
+            allowing(copyAction).getArchivePath();
+            will(onConsecutiveCalls(returnValue(zipFile), returnValue(parallelZipFile)));
+        }});
+
+        FileVisitDetails[] elements = {
+                dir("dir"), file("dir/file1"), file("dir/empty", new byte[0]),
+                file("dir/large", new byte[5 * 1024 * 1024 + 1]), file("file2"), dir("dir2")
+        };
+        writeZip(visitor, elements);
+        writeZip(new ZipCopySpecVisitor().parallel(), elements);
+
+        assertTrue(FileUtils.contentEquals(zipFile, parallelZipFile));
+        TestFile expandDir = tmpDir.getDir().file("expanded");
+        parallelZipFile.unzipTo(expandDir);
+        expandDir.file("dir/file1").assertContents(equalTo("contents of dir/file1"));
+        expandDir.file("dir/empty").assertContents(equalTo(""));
+        expandDir.file("dir/large").assertIsFile();
+        expandDir.file("file2").assertContents(equalTo("contents of file2"));
+    }
+
+    @Test
+    public void createsZipFileWithStoredEntries() throws IOException {
+        final TestFile zipFile = tmpDir.getDir().file("test.zip");
+
+        context.checking(new Expectations(){{
+            allowing(zipCopyAction).getArchivePath();
+            will(returnValue(zipFile));
+            allowing(zipCopyAction).getEntryCompression();
+            will(returnValue(ZipEntryCompression.STORED));
+            allowing(zipCopyAction).getCompressionLevel();
+            will(returnValue(-1));
+            allowing(zipCopyAction).isIncremental();
+            will(returnValue(false));
+        }});
+
+        writeZip(new ZipCopySpecVisitor().parallel(), zipCopyAction, dir("dir"), file("dir/file1"), file("file2"));
+
+        ZipFile zip = new ZipFile(zipFile);
+        try {
+            assertThat(zip.getEntry("dir/").getMethod(), equalTo(ZipEntry.STORED));
+            assertThat(zip.getEntry("dir/file1").getMethod(), equalTo(ZipEntry.STORED));
+            assertThat(zip.getEntry("file2").getMethod(), equalTo(ZipEntry.STORED));
+        } finally {
+            zip.close();
+        }
+        TestFile expandDir = tmpDir.getDir().file("expanded");
+        zipFile.unzipTo(expandDir);
+        expandDir.file("dir/file1").assertContents(equalTo("contents of dir/file1"));
+        expandDir.file("file2").assertContents(equalTo("contents of file2"));
+    }
+
+    @Test
+    public void reusesCompressedEntriesOfPreviousZipFileWhenIncremental() throws IOException {
+        final TestFile zipFile = tmpDir.getDir().file("test.zip");
+
+        context.checking(new Expectations(){{
+            allowing(zipCopyAction).getArchivePath();
+            will(returnValue(zipFile));
+            allowing(zipCopyAction).getEntryCompression();
+            will(returnValue(ZipEntryCompression.DEFLATED));
+            allowing(zipCopyAction).getCompressionLevel();
+            will(onConsecutiveCalls(returnValue(0), returnValue(9)));
+            allowing(zipCopyAction).isIncremental();
+            will(returnValue(true));
+        }});
+
+        FileVisitDetails dir = dir("dir");
+        FileVisitDetails unchanged = file("dir/unchanged", new byte[1000]);
+        FileVisitDetails file1 = file("dir/file1");
+        writeZip(new ZipCopySpecVisitor(), zipCopyAction, dir, unchanged, file1);
+        long storedSize = compressedSize(zipFile, "dir/unchanged");
+
+        writeZip(new ZipCopySpecVisitor(), zipCopyAction, dir, unchanged, file1, file("dir/added", new byte[1000]));
+
+        // The unchanged entry keeps the data compressed at level 0, the added entry is compressed at level 9
+        assertThat(compressedSize(zipFile, "dir/unchanged"), equalTo(storedSize));
+        assertThat(compressedSize(zipFile, "dir/added"), lessThan(storedSize));
+        tmpDir.getDir().file("test.zip.previous").assertDoesNotExist();
+        TestFile expandDir = tmpDir.getDir().file("expanded");
+        zipFile.unzipTo(expandDir);
+        expandDir.file("dir/file1").assertContents(equalTo("contents of dir/file1"));
+        assertThat(expandDir.file("dir/unchanged").length(), equalTo(1000L));
+        assertThat(expandDir.file("dir/added").length(), equalTo(1000L));
+    }
+
+    @Test
+    public void rebuildsAllEntriesWhenCentralDirectoryOfPreviousZipFileIsOutOfRange() throws IOException {
+        final TestFile zipFile = tmpDir.getDir().file("test.zip");
+
+        context.checking(new Expectations(){{
+            allowing(zipCopyAction).getArchivePath();
+            will(returnValue(zipFile));
+            allowing(zipCopyAction).getEntryCompression();
+            will(returnValue(ZipEntryCompression.DEFLATED));
+            allowing(zipCopyAction).getCompressionLevel();
+            will(returnValue(-1));
+            allowing(zipCopyAction).isIncremental();
+            will(returnValue(true));
+        }});
+
+        // An end of central directory record whose central directory size does not fit in an int
+        byte[] endOfCentralDirectory = new byte[22];
+        endOfCentralDirectory[0] = 0x50;
+        endOfCentralDirectory[1] = 0x4b;
+        endOfCentralDirectory[2] = 0x05;
+        endOfCentralDirectory[3] = 0x06;
+        endOfCentralDirectory[15] = (byte) 0xF0;
+        FileUtils.writeByteArrayToFile(zipFile, endOfCentralDirectory);
+
+        writeZip(new ZipCopySpecVisitor(), zipCopyAction, dir("dir"), file("dir/file1"));
+
+        tmpDir.getDir().file("test.zip.previous").assertDoesNotExist();
+        TestFile expandDir = tmpDir.getDir().file("expanded");
+        zipFile.unzipTo(expandDir);
+        expandDir.file("dir/file1").assertContents(equalTo("contents of dir/file1"));
+    }
+
+    private long compressedSize(TestFile zipFile, String path) throws IOException {
+        ZipFile zip = new ZipFile(zipFile);
+        try {
+            ZipEntry entry = zip.getEntry(path);
+            assertThat(entry.getMethod(), equalTo(ZipEntry.DEFLATED));
+            return entry.getCompressedSize();
+        } finally {
+            zip.close();
+        }
+    }
+
+    private void writeZip(ZipCopySpecVisitor visitor, FileVisitDetails... elements) {
+        writeZip(visitor, copyAction, elements);
+    }
+
+    private void writeZip(ZipCopySpecVisitor visitor, ArchiveCopyAction copyAction, FileVisitDetails... elements) {
+        visitor.startVisit(copyAction);
+        visitor.visitSpec(copySpec);
+        for (FileVisitDetails element : elements) {
+            if (element.getRelativePath().isFile()) {
+                visitor.visitFile(element);
+            } else {
+                visitor.visitDir(element);
+            }
+        }
+        visitor.endVisit();
+    }
+
     @Test
     public void wrapsFailureToOpenOutputFile() {
         final TestFile zipFile = tmpDir.createDir("test.zip");
@@ -146,6 +303,32 @@ public class ZipCopySpecVisitorTest {
         return details;
     }
 
+    private FileVisitDetails file(final String path, final byte[] content) {
+        final FileVisitDetails details = context.mock(FileVisitDetails.class, path);
+
+        context.checking(new Expectations() {{
+            allowing(details).getRelativePath();
+            will(returnValue(RelativePath.parse(true, path)));
+
+            allowing(details).getLastModified();
+            will(returnValue(1000L));
+
+            allowing(details).copyTo(with(notNullValue(OutputStream.class)));
+            will(new Action() {
+                public void describeTo(Description description) {
+                    description.appendText("write content");
+                }
+
+                public Object invoke(Invocation invocation) throws Throwable {
+                    ((OutputStream) invocation.getParameter(0)).write(content);
+                    return null;
+                }
+            });
+        }});
+
+        return details;
+    }
+
     private FileVisitDetails dir(final String path) {
         final FileVisitDetails details = context.mock(FileVisitDetails.class, path);
 
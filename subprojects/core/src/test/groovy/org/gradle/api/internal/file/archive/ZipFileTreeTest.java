@@ -27,6 +27,17 @@ import static org.gradle.api.tasks.AntBuilderAwareUtil.*;
 import static org.gradle.api.file.FileVisitorUtil.*;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.GradleException;
+import org.gradle.api.file.EmptyFileVisitor;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.tasks.util.PatternSet;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static java.util.Collections.*;
 
@@ -62,6 +73,79 @@ public class ZipFileTreeTest {
         assertCanStopVisiting(tree);
     }
 
+    @Test
+    public void visitsEntriesWhichMatchPatterns() {
+        rootDir.file("file1.txt").write("content");
+        rootDir.file("file2.html").write("content");
+        rootDir.file("subdir/file3.txt").write("content");
+        rootDir.zipTo(zipFile);
+
+        PatternSet patterns = new PatternSet();
+        patterns.include("*.txt");
+        assertVisits(tree.filter(patterns), toList("file1.txt"), EMPTY_LIST);
+    }
+
+    @Test
+    public void visitsEntriesInArchiveOrder() throws IOException {
+        ZipOutputStream outputStream = new ZipOutputStream(new FileOutputStream(zipFile));
+        try {
+            for (String name : toList("b.txt", "dir/", "dir/c.txt", "a.txt")) {
+                outputStream.putNextEntry(new ZipEntry(name));
+                outputStream.closeEntry();
+            }
+        } finally {
+            outputStream.close();
+        }
+
+        assertThat(visitedPaths(tree), equalTo(toList("a.txt", "b.txt", "dir", "dir/c.txt")));
+        assertThat(visitedPaths(new ZipFileTree(zipFile, expandDir).inArchiveOrder()), equalTo(toList("b.txt", "dir", "dir/c.txt", "a.txt")));
+    }
+
+    @Test
+    public void extractsEntryAgainWhenExtractedFileHasDifferentContentOfSameSizeAndTime() {
+        rootDir.file("file1.txt").write("content");
+        rootDir.zipTo(zipFile);
+
+        File file = extractedFile(tree, "file1.txt");
+        TestFile extracted = new TestFile(file);
+        extracted.assertContents(equalTo("content"));
+        long lastModified = extracted.lastModified();
+        extracted.write("CONTENT");
+        extracted.setLastModified(lastModified);
+
+        assertThat(extractedFile(tree, "file1.txt"), equalTo(file));
+        extracted.assertContents(equalTo("content"));
+    }
+
+    private List<String> visitedPaths(ZipFileTree tree) {
+        final List<String> paths = new ArrayList<String>();
+        tree.visit(new EmptyFileVisitor() {
+            @Override
+            public void visitDir(FileVisitDetails dirDetails) {
+                paths.add(dirDetails.getPath());
+            }
+
+            @Override
+            public void visitFile(FileVisitDetails fileDetails) {
+                paths.add(fileDetails.getPath());
+            }
+        });
+        return paths;
+    }
+
+    private File extractedFile(ZipFileTree tree, final String path) {
+        final List<File> files = new ArrayList<File>();
+        tree.visit(new EmptyFileVisitor() {
+            @Override
+            public void visitFile(FileVisitDetails fileDetails) {
+                if (fileDetails.getPath().equals(path)) {
+                    files.add(fileDetails.getFile());
+                }
+            }
+        });
+        return files.get(0);
+    }
+
     @Test
     public void isEmptyWhenZipFileDoesNotExist() {
         assertVisits(tree, EMPTY_LIST, EMPTY_LIST);
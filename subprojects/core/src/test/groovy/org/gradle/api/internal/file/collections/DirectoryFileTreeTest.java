@@ -16,6 +16,7 @@
 package org.gradle.api.internal.file.collections;
 
 import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.internal.file.DefaultFileTreeElement;
 import org.gradle.api.internal.file.copy.CopySpecVisitor;
@@ -44,6 +45,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -231,6 +233,40 @@ public class DirectoryFileTreeTest {
         fileTree.visit(visitor);
     }
 
+    @Test
+    public void parallelWalkVisitsInSameOrderAsSequentialWalk() {
+        TestFile rootDir = tmpDir.createDir("root");
+        for (int i = 0; i < 5; i++) {
+            rootDir.file("file" + i).createFile();
+            for (int j = 0; j < 5; j++) {
+                rootDir.file("dir" + i + "/file" + j).createFile();
+                rootDir.file("dir" + i + "/dir" + j + "/file").createFile();
+            }
+        }
+
+        List<String> sequential = visitPaths(new DirectoryFileTree(rootDir));
+        List<String> parallel = visitPaths(new DirectoryFileTree(rootDir).parallel());
+        List<String> parallelDepthFirst = visitPaths(new DirectoryFileTree(rootDir).depthFirst().parallel());
+
+        assertEquals(5 + 5 * (1 + 5 + 5 * 2), sequential.size());
+        assertEquals(sequential, parallel);
+        assertEquals(visitPaths(new DirectoryFileTree(rootDir).depthFirst()), parallelDepthFirst);
+    }
+
+    private List<String> visitPaths(DirectoryFileTree fileTree) {
+        final List<String> paths = new ArrayList<String>();
+        fileTree.visit(new FileVisitor() {
+            public void visitDir(FileVisitDetails dirDetails) {
+                paths.add(dirDetails.getPath() + "/");
+            }
+
+            public void visitFile(FileVisitDetails fileDetails) {
+                paths.add(fileDetails.getPath());
+            }
+        });
+        return paths;
+    }
+
     @Test
     public void canTestForFileMembership() {
         TestFile rootDir = tmpDir.createDir("root");
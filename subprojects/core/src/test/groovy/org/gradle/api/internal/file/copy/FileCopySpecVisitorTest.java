@@ -16,9 +16,11 @@
 
 package org.gradle.api.internal.file.copy;
 
+import org.gradle.api.GradleException;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.RelativePath;
+import org.gradle.api.internal.file.DefaultFileTreeElement;
 import org.gradle.util.TestFile;
 import org.gradle.util.TemporaryFolder;
 import org.jmock.Expectations;
@@ -33,11 +35,12 @@ import java.io.File;
 import java.io.IOException;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.*;
 
 @RunWith(JMock.class)
 public class FileCopySpecVisitorTest {
-    private File destDir;
+    private TestFile destDir;
     private TestFile sourceDir;
     private final JUnit4Mockery context = new JUnit4Mockery();
     private final FileCopySpecVisitor visitor = new FileCopySpecVisitor();
@@ -64,6 +67,55 @@ public class FileCopySpecVisitorTest {
         visitor.visitFile(file(new RelativePath(true, "subdir", "anotherfile.txt"), new File(destDir, "subdir/anotherfile.txt")));
     }
 
+    @Test
+    public void parallelCopyCopiesFilesBeforeEndOfVisit() {
+        FileCopySpecVisitor visitor = new FileCopySpecVisitor().parallel();
+        visitor.startVisit(action(destDir));
+
+        for (int i = 0; i < 20; i++) {
+            TestFile source = sourceDir.file("file" + i + ".txt").write("content " + i);
+            visitor.visitFile(new TestFileVisitDetails(source, new RelativePath(true, "dir", source.getName())));
+        }
+        visitor.endVisit();
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(destDir.file("dir/file" + i + ".txt").getText(), equalTo("content " + i));
+        }
+        assertTrue(visitor.getDidWork());
+    }
+
+    @Test
+    public void parallelCopyCopiesLastVisitedFileWhenTargetsOverlap() {
+        FileCopySpecVisitor visitor = new FileCopySpecVisitor().parallel();
+        visitor.startVisit(action(destDir));
+
+        for (int i = 0; i < 20; i++) {
+            TestFile source = sourceDir.file("dir" + i + "/file.txt").write("content " + i);
+            source.setLastModified(source.lastModified() - 2000 * (20 - i));
+            visitor.visitFile(new TestFileVisitDetails(source, new RelativePath(true, "file.txt")));
+        }
+        visitor.endVisit();
+
+        assertThat(destDir.file("file.txt").getText(), equalTo("content 19"));
+    }
+
+    @Test
+    public void parallelCopyReportsFailureAtEndOfVisit() {
+        FileCopySpecVisitor visitor = new FileCopySpecVisitor().parallel();
+        visitor.startVisit(action(destDir));
+        TestFile source = sourceDir.file("file.txt").write("content");
+        destDir.file("file.txt").createDir();
+
+        visitor.visitFile(new TestFileVisitDetails(source, new RelativePath(true, "file.txt")));
+
+        try {
+            visitor.endVisit();
+            fail();
+        } catch (GradleException e) {
+            assertThat(e.getMessage(), startsWith("Could not copy"));
+        }
+    }
+
     @Test
     public void testThrowsExceptionWhenNoDestinationSet() {
         try {
@@ -74,6 +126,15 @@ public class FileCopySpecVisitorTest {
         }
     }
 
+    private static class TestFileVisitDetails extends DefaultFileTreeElement implements FileVisitDetails {
+        private TestFileVisitDetails(File file, RelativePath relativePath) {
+            super(file, relativePath);
+        }
+
+        public void stopVisiting() {
+        }
+    }
+
     private FileCopyAction action(final File destDir) {
         final FileCopyAction action = context.mock(FileCopyAction.class);
         context.checking(new Expectations(){{
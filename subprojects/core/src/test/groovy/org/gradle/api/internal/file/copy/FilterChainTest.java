@@ -24,6 +24,8 @@ import java.io.FilterReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
 
 import static org.gradle.util.WrapUtil.*;
 import static org.hamcrest.Matchers.*;
@@ -71,6 +73,40 @@ public class FilterChainTest {
         assertThat(IOUtils.toString(transformedReader), equalTo("[1][2][3]"));
     }
 
+    @Test
+    public void expandFilterReplacesSimpleTokens() throws IOException {
+        filterChain.expand(WrapUtil.toMap("prop", 1));
+        Reader transformedReader = filterChain.transform(new StringReader("[$prop][${prop}]\n\"$prop\""));
+        assertThat(IOUtils.toString(transformedReader), equalTo("[1][1]\n\"1\""));
+    }
+
+    @Test
+    public void expandsSimpleTokensWithoutUsingTemplateEngine() {
+        Map<String, Object> properties = new HashMap<String, Object>();
+        properties.put("prop", "value");
+        properties.put("number", 12);
+        properties.put("empty", null);
+
+        assertThat(FilterChain.expandLiteralTokens("no tokens", properties), equalTo("no tokens"));
+        assertThat(FilterChain.expandLiteralTokens("$prop-${number}:$empty", properties), equalTo("value-12:null"));
+    }
+
+    @Test
+    public void usesTemplateEngineForTextWhichIsNotMadeOfSimpleTokens() {
+        Map<String, Object> properties = new HashMap<String, Object>();
+        properties.put("prop", "value");
+        properties.put("list", toList("a"));
+
+        assertThat(FilterChain.expandLiteralTokens("${prop + 1}", properties), nullValue());
+        assertThat(FilterChain.expandLiteralTokens("$prop.length()", properties), nullValue());
+        assertThat(FilterChain.expandLiteralTokens("<%= prop %>", properties), nullValue());
+        assertThat(FilterChain.expandLiteralTokens("\\$prop", properties), nullValue());
+        assertThat(FilterChain.expandLiteralTokens("line\r\n", properties), nullValue());
+        assertThat(FilterChain.expandLiteralTokens("$unknown", properties), nullValue());
+        assertThat(FilterChain.expandLiteralTokens("$list", properties), nullValue());
+        assertThat(FilterChain.expandLiteralTokens("cost: $", properties), nullValue());
+    }
+
     public static class TestFilterReader extends FilterReader {
         String property;
 
@@ -77,6 +77,15 @@ class LineFilterTest {
         assertThat(filter.text, equalTo(lines("1 - one", "2 - two", "3 - three")))
     }
 
+    @Test void testLinesLongerThanBuffer() {
+        def line = 'x' * 10000
+        def input = new StringReader("$line\r\n$line\r$line")
+        def lineCount = 1
+        def filter = new LineFilter(input, { "${lineCount++} - $it" as String })
+
+        assertThat(filter.text, equalTo(lines("1 - " + line, "2 - " + line, "3 - " + line)))
+    }
+
     private String lines(String ... lines) {
         (lines as List).join(SystemProperties.lineSeparator)
     }
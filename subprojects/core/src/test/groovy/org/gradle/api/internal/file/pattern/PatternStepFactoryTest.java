@@ -1,19 +1,19 @@
-/*
- * Copyright 2009 the original author or authors.
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *      http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
+/*
+ * Copyright 2009 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
 package org.gradle.api.internal.file.pattern;
 
 import org.junit.Test;
@@ -37,4 +37,37 @@ public class PatternStepFactoryTest {
         step = PatternStepFactory.getStep("*.jsp", true, false);
         assertTrue(step.matches("fred.JSP", true));
     }
+
+    @Test public void testLiteral() {
+        PatternStep step = PatternStepFactory.getStep("fred.jsp", true, true);
+        assertTrue(step instanceof FixedPatternStep);
+        assertTrue(step.matches("fred.jsp", true));
+        assertFalse(step.matches("fred.JSP", true));
+        assertFalse(step.matches("fred.jsp2", true));
+
+        step = PatternStepFactory.getStep("fred.jsp", true, false);
+        assertTrue(step.matches("FRED.jsp", true));
+    }
+
+    @Test public void testSingleWildcard() {
+        PatternStep step = PatternStepFactory.getStep("a*.jsp", true, true);
+        assertTrue(step instanceof HasPrefixAndSuffixPatternStep);
+        assertTrue(step.matches("a.jsp", true));
+        assertTrue(step.matches("abc.jsp", true));
+        assertFalse(step.matches("A.jsp", true));
+        assertFalse(step.matches("a.jsp2", true));
+        assertFalse(step.matches("a.js", true));
+
+        step = PatternStepFactory.getStep("a*.jsp", true, false);
+        assertTrue(step.matches("Abc.JSP", true));
+
+        step = PatternStepFactory.getStep("*", true, true);
+        assertTrue(step.matches("", true));
+        assertTrue(step.matches("anything", true));
+    }
+
+    @Test public void testUsesRegExpForOtherPatterns() {
+        assertTrue(PatternStepFactory.getStep("a?c", true, true) instanceof RegExpPatternStep);
+        assertTrue(PatternStepFactory.getStep("a*b*c", true, true) instanceof RegExpPatternStep);
+    }
 }
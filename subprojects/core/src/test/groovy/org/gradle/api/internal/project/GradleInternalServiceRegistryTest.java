@@ -24,6 +24,7 @@ import org.gradle.api.internal.artifacts.repositories.DefaultInternalRepository;
 import org.gradle.api.internal.artifacts.repositories.InternalRepository;
 import org.gradle.api.internal.plugins.DefaultPluginRegistry;
 import org.gradle.api.internal.plugins.PluginRegistry;
+import org.gradle.api.internal.tasks.TaskNameIndex;
 import org.gradle.execution.DefaultTaskGraphExecuter;
 import org.gradle.execution.TaskGraphExecuter;
 import org.gradle.listener.ListenerBroadcast;
@@ -85,6 +86,12 @@ public class GradleInternalServiceRegistryTest {
         assertThat(registry.get(PluginRegistry.class), sameInstance(registry.get(PluginRegistry.class)));
     }
 
+    @Test
+    public void providesATaskNameIndex() {
+        assertThat(registry.get(TaskNameIndex.class), instanceOf(TaskNameIndex.class));
+        assertThat(registry.get(TaskNameIndex.class), sameInstance(registry.get(TaskNameIndex.class)));
+    }
+
     @Test
     public void providesATaskGraphExecuter() {
         context.checking(new Expectations() {{
@@ -35,6 +35,7 @@ import org.gradle.configuration.DefaultBuildConfigurer;
 import org.gradle.configuration.DefaultScriptPluginFactory;
 import org.gradle.configuration.ScriptPluginFactory;
 import org.gradle.groovy.scripts.DefaultScriptCompilerFactory;
+import org.gradle.groovy.scripts.ExecutedScriptRecorder;
 import org.gradle.groovy.scripts.ScriptCompilerFactory;
 import org.gradle.initialization.*;
 import org.gradle.listener.DefaultListenerManager;
@@ -192,6 +193,13 @@ public class TopLevelBuildServiceRegistryTest {
         assertThat(factory.get(ExceptionAnalyser.class), sameInstance(factory.get(ExceptionAnalyser.class)));
     }
 
+    @Test
+    public void providesAnExecutedScriptRecorder() {
+        expectListenerManagerCreated();
+        assertThat(factory.get(ExecutedScriptRecorder.class), instanceOf(ExecutedScriptRecorder.class));
+        assertThat(factory.get(ExecutedScriptRecorder.class), sameInstance(factory.get(ExecutedScriptRecorder.class)));
+    }
+
     @Test
     public void providesAWorkerProcessFactory() {
         context.checking(new Expectations() {{
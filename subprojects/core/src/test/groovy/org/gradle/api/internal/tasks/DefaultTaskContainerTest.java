@@ -168,6 +168,98 @@ public class DefaultTaskContainerTest {
         assertThat(container.getByName("task"), sameInstance(newTask));
     }
 
+    @Test
+    public void createsLazyTaskWhenItIsFirstLocatedByName() {
+        final Action<Task> action = context.mock(Action.class);
+        final Task task = task("task");
+
+        container.addLazy("task", Task.class, action);
+
+        context.checking(new Expectations() {{
+            one(taskFactory).createTask(project, GUtil.map(Task.TASK_NAME, "task", Task.TASK_TYPE, Task.class));
+            will(returnValue(task));
+            one(action).execute(task);
+        }});
+
+        assertThat(container.getByName("task"), sameInstance(task));
+        assertThat(container.findByName("task"), sameInstance(task));
+    }
+
+    @Test
+    public void doesNotCreateLazyTaskWhenActionIsAddedForAllTasks() {
+        final Action<Task> action = context.mock(Action.class);
+        final Action<Task> allAction = context.mock(Action.class, "all");
+        final Task task = task("task");
+
+        container.addLazy("task", Task.class, action);
+        container.all(allAction);
+
+        context.checking(new Expectations() {{
+            one(taskFactory).createTask(project, GUtil.map(Task.TASK_NAME, "task", Task.TASK_TYPE, Task.class));
+            will(returnValue(task));
+            one(allAction).execute(task);
+            one(action).execute(task);
+        }});
+
+        assertThat(container.getAsMap().get("task"), sameInstance(task));
+    }
+
+    @Test
+    public void notifiesActionWhenLazyTaskIsAdded() {
+        final Action<String> action = context.mock(Action.class);
+
+        container.whenLazyTaskAdded(action);
+
+        context.checking(new Expectations() {{
+            one(action).execute("task");
+        }});
+
+        container.addLazy("task", Task.class, context.mock(Action.class, "configure"));
+    }
+
+    @Test
+    public void cannotAddLazyTaskWithSameNameAsExistingTask() {
+        addTask("task");
+
+        try {
+            container.addLazy("task", Task.class, context.mock(Action.class));
+            fail();
+        } catch (InvalidUserDataException e) {
+            assertThat(e.getMessage(), equalTo("Cannot add task 'task' as a task with that name already exists."));
+        }
+    }
+
+    @Test
+    public void cannotAddTaskWithSameNameAsLazyTask() {
+        container.addLazy("task", Task.class, context.mock(Action.class));
+
+        context.checking(new Expectations() {{
+            one(taskFactory).createTask(project, GUtil.map(Task.TASK_NAME, "task"));
+            will(returnValue(task("task")));
+        }});
+
+        try {
+            container.add("task");
+            fail();
+        } catch (InvalidUserDataException e) {
+            assertThat(e.getMessage(), equalTo("Cannot add [task1] as a task with that name already exists."));
+        }
+    }
+
+    @Test
+    public void canReplaceLazyTask() {
+        container.addLazy("task", Task.class, context.mock(Action.class));
+
+        final Task newTask = task("task");
+        context.checking(new Expectations() {{
+            one(taskFactory).createTask(project, GUtil.map(Task.TASK_NAME, "task"));
+            will(returnValue(newTask));
+        }});
+
+        container.replace("task");
+        assertThat(container.getByName("task"), sameInstance(newTask));
+    }
+
     @Test
     public void getByNameFailsForUnknownTask() {
         try {
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks
+
+import org.gradle.api.Action
+import org.gradle.api.Project
+import org.gradle.api.Task
+import org.gradle.api.tasks.TaskContainer
+import spock.lang.Specification
+
+class TaskNameIndexTest extends Specification {
+    private final TaskNameIndex index = new TaskNameIndex()
+    private final Project root = Mock()
+    private final Project child = Mock()
+    private final Project other = Mock()
+
+    def setup() {
+        _ * child.parent >> root
+    }
+
+    def findsTasksWithNameInProjectAndSubprojects() {
+        Task task1 = task('compile', root)
+        Task task2 = task('compile', child)
+        Task task3 = task('compile', other)
+        Task task4 = task('test', child)
+        [task1, task2, task3, task4].each { index.taskAdded(it) }
+
+        expect:
+        tasks('compile', root) == [task1, task2] as Set
+        tasks('compile', child) == [task2] as Set
+        tasks('test', other).empty
+        tasks('unknown', root).empty
+    }
+
+    def candidatesAreTasksWhoseNameStartsWithPrefixOfPattern() {
+        Task task1 = task('compileJava', root)
+        Task task2 = task('CompileTest', child)
+        Task task3 = task('test', child)
+        Task task4 = task('check', other)
+        [task1, task2, task3, task4].each { index.taskAdded(it) }
+
+        expect:
+        index.getCandidateNames('coJ', root) == ['compileJava', 'CompileTest'] as Set
+    }
+
+    def candidatesAreAllTasksInScopeWhenNoNameHasPrefixOfPattern() {
+        Task task1 = task('compileJava', root)
+        Task task2 = task('test', child)
+        Task task3 = task('check', other)
+        [task1, task2, task3].each { index.taskAdded(it) }
+
+        expect:
+        index.getCandidateNames('xyz', root) == ['compileJava', 'test'] as Set
+    }
+
+    def removesTaskFromIndex() {
+        Task task1 = task('compile', root)
+        Task task2 = task('compile', child)
+        [task1, task2].each { index.taskAdded(it) }
+
+        when:
+        index.taskRemoved(task1)
+
+        then:
+        tasks('compile', root) == [task2] as Set
+
+        when:
+        index.taskRemoved(task2)
+
+        then:
+        tasks('compile', root).empty
+        index.getCandidateNames('c', root).empty
+    }
+
+    def tracksTasksAddedToAndRemovedFromContainer() {
+        TaskContainerInternal container = Mock()
+        Action<Task> addAction
+        Action<Task> removeAction
+        Task task = task('compile', root)
+
+        when:
+        index.addTasks(root, container)
+
+        then:
+        1 * container.all(!null) >> { addAction = it[0] }
+        1 * container.whenObjectRemoved(!null) >> { removeAction = it[0] }
+        1 * container.whenLazyTaskAdded(!null)
+
+        when:
+        addAction.execute(task)
+
+        then:
+        tasks('compile', root) == [task] as Set
+
+        when:
+        removeAction.execute(task)
+
+        then:
+        tasks('compile', root).empty
+    }
+
+    def createsLazyTasksInScopeWhenTheyAreSelected() {
+        TaskContainer rootTasks = Mock()
+        TaskContainer otherTasks = Mock()
+        Task task = task('javadoc', root)
+        index.lazyTaskAdded(root, 'javadoc', rootTasks)
+        index.lazyTaskAdded(other, 'javadoc', otherTasks)
+
+        when:
+        def result = tasks('javadoc', root)
+
+        then:
+        1 * rootTasks.findByName('javadoc') >> { index.taskAdded(task); task }
+        0 * otherTasks._
+        result == [task] as Set
+    }
+
+    def createsLazyTasksWithTheSameNameInEachProjectInScope() {
+        Project child2 = Mock()
+        _ * child2.parent >> root
+        TaskContainer childTasks = Mock()
+        TaskContainer child2Tasks = Mock()
+        Task task1 = task('javadoc', child)
+        Task task2 = task('javadoc', child2)
+        index.lazyTaskAdded(child, 'javadoc', childTasks)
+        index.lazyTaskAdded(child2, 'javadoc', child2Tasks)
+
+        when:
+        def result = tasks('javadoc', root)
+
+        then:
+        1 * childTasks.findByName('javadoc') >> { index.taskAdded(task1); task1 }
+        1 * child2Tasks.findByName('javadoc') >> { index.taskAdded(task2); task2 }
+        result == [task1, task2] as Set
+    }
+
+    def lazyTasksAreCandidatesButAreNotCreated() {
+        TaskContainer childTasks = Mock()
+        TaskContainer otherTasks = Mock()
+        Task task = task('jar', root)
+        index.taskAdded(task)
+        index.lazyTaskAdded(child, 'javadoc', childTasks)
+        index.lazyTaskAdded(other, 'javadocAll', otherTasks)
+
+        when:
+        def names = index.getCandidateNames('javD', root)
+
+        then:
+        0 * childTasks._
+        0 * otherTasks._
+        names == ['javadoc'] as Set
+
+        when:
+        names = index.getCandidateNames('xyz', root)
+
+        then:
+        0 * childTasks._
+        names == ['jar', 'javadoc'] as Set
+    }
+
+    def tasks(String name, Project project) {
+        return index.getTasks(name, project)
+    }
+
+    def task(String name, Project project) {
+        Task task = Mock()
+        _ * task.name >> name
+        _ * task.project >> project
+        return task
+    }
+}
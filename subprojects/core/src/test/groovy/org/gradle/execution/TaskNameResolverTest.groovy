@@ -17,7 +17,9 @@ package org.gradle.execution
 
 import org.gradle.api.Task
 import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ServiceRegistryFactory
 import org.gradle.api.internal.tasks.TaskContainerInternal
+import org.gradle.api.internal.tasks.TaskNameIndex
 import spock.lang.Specification
 
 class TaskNameResolverTest extends Specification {
@@ -124,39 +126,112 @@ class TaskNameResolverTest extends Specification {
         candidates.get('task') == [task1, task2] as Set
     }
 
-    def selectsAllTasksForMultipleProjectsWhenThereIsNoExactMatchOnName() {
+    def selectsTasksWithMatchingNameForMultipleProjectsWhenThereIsNoExactMatchOnName() {
         ProjectInternal project = Mock()
         TaskContainerInternal tasks = Mock()
         TaskContainerInternal implicitTasks = Mock()
         ProjectInternal childProject = Mock()
         TaskContainerInternal childProjectTasks = Mock()
+        ServiceRegistryFactory services = Mock()
+        TaskNameIndex index = new TaskNameIndex()
         _ * project.tasks >> tasks
         _ * project.implicitTasks >> implicitTasks
         _ * project.subprojects >> ([childProject] as Set)
+        _ * project.services >> services
+        _ * services.get(TaskNameIndex) >> index
         _ * childProject.tasks >> childProjectTasks
+        _ * childProject.parent >> project
 
-        Task task1 = task('name1')
+        Task task1 = task('name1', project)
         Task task2 = task('name2')
-        Task task3 = task('name1')
-        Task task4 = task('name2')
+        Task task3 = task('name1', childProject)
+        Task task4 = task('name2', childProject)
+        Task task5 = task('other', childProject)
+        [task1, task3, task4, task5].each { index.taskAdded(it) }
 
         when:
-        def candidates = resolver.selectAll('task', project)
+        def candidates = resolver.selectAll('na1', project)
 
         then:
-        1 * tasks.findByName('task') >> null
-        1 * implicitTasks.findByName('task') >> null
-        1 * childProjectTasks.findByName('task') >> null
+        1 * tasks.findByName('na1') >> null
+        1 * implicitTasks.findByName('na1') >> null
+        1 * childProjectTasks.findByName('na1') >> null
         1 * tasks.iterator() >> [task1].iterator()
         1 * implicitTasks.iterator() >> [task2].iterator()
-        1 * childProjectTasks.iterator() >> [task3, task4].iterator()
+        0 * childProjectTasks.iterator()
         candidates.get('name1') == [task1, task3] as Set
-        candidates.get('name2') == [task2, task4] as Set
+        candidates.get('name2') == [task2] as Set
+        candidates.get('other').empty
+    }
+
+    def createsOnlyTheLazyTasksWithTheMatchingNameForMultipleProjects() {
+        ProjectInternal project = Mock()
+        TaskContainerInternal tasks = Mock()
+        TaskContainerInternal implicitTasks = Mock()
+        ProjectInternal childProject = Mock()
+        TaskContainerInternal childProjectTasks = Mock()
+        ServiceRegistryFactory services = Mock()
+        TaskNameIndex index = new TaskNameIndex()
+        _ * project.tasks >> tasks
+        _ * project.implicitTasks >> implicitTasks
+        _ * project.subprojects >> ([childProject] as Set)
+        _ * project.services >> services
+        _ * services.get(TaskNameIndex) >> index
+        _ * childProject.parent >> project
+        _ * tasks.iterator() >> [].iterator()
+        _ * implicitTasks.iterator() >> [].iterator()
+
+        Task task = task('javadoc', childProject)
+        index.lazyTaskAdded(childProject, 'javadoc', childProjectTasks)
+        index.lazyTaskAdded(childProject, 'jar', childProjectTasks)
+
+        when:
+        def candidates = resolver.selectAll('jD', project)
+
+        then:
+        _ * childProject.tasks >> childProjectTasks
+        1 * childProjectTasks.findByName('jD') >> null
+        1 * childProjectTasks.findByName('javadoc') >> { index.taskAdded(task); task }
+        0 * childProjectTasks._
+        candidates.get('javadoc') == [task] as Set
+    }
+
+    def failsWithoutCreatingLazyTasksWhenNoTaskNameMatchesForMultipleProjects() {
+        ProjectInternal project = Mock()
+        TaskContainerInternal tasks = Mock()
+        TaskContainerInternal implicitTasks = Mock()
+        ProjectInternal childProject = Mock()
+        TaskContainerInternal childProjectTasks = Mock()
+        ServiceRegistryFactory services = Mock()
+        TaskNameIndex index = new TaskNameIndex()
+        _ * project.tasks >> tasks
+        _ * project.implicitTasks >> implicitTasks
+        _ * project.subprojects >> ([childProject] as Set)
+        _ * project.services >> services
+        _ * services.get(TaskNameIndex) >> index
+        _ * childProject.parent >> project
+        _ * tasks.iterator() >> [].iterator()
+        _ * implicitTasks.iterator() >> [].iterator()
+
+        Task task = task('tast', childProject)
+        index.taskAdded(task)
+        index.lazyTaskAdded(childProject, 'other', childProjectTasks)
+
+        when:
+        resolver.selectAll('task', project)
+
+        then:
+        _ * childProject.tasks >> childProjectTasks
+        1 * childProjectTasks.findByName('task') >> null
+        0 * childProjectTasks._
+        TaskSelectionException e = thrown()
+        e.message.endsWith("Some candidates are: 'tast'.")
     }
 
-    def task(String name) {
+    def task(String name, ProjectInternal project = null) {
         Task task = Mock()
         _ * task.name >> name
+        _ * task.project >> project
         return task
     }
 }
@@ -83,9 +83,25 @@ class CachingScriptCompilationHandlerTest extends Specification {
         1 * target.loadFromDir(script2, parentClassLoader2, cacheDir, Script.class) >> Script.class
     }
     
-    def scriptSource(String className = 'script') {
+    def doesNotCacheForDifferentScriptFile() {
+        ScriptSource script1 = scriptSource('script', 'file1')
+        ScriptSource script2 = scriptSource('script', 'file2')
+        ClassLoader parentClassLoader = Mock()
+        File cacheDir = new File('cacheDir')
+
+        when:
+        def c1 = handler.loadFromDir(script1, parentClassLoader, cacheDir, Script.class)
+        def c2 = handler.loadFromDir(script2, parentClassLoader, cacheDir, Script.class)
+
+        then:
+        1 * target.loadFromDir(script1, parentClassLoader, cacheDir, Script.class) >> Script.class
+        1 * target.loadFromDir(script2, parentClassLoader, cacheDir, Script.class) >> Script.class
+    }
+
+    def scriptSource(String className = 'script', String fileName = 'file') {
         ScriptSource script = Mock()
         _ * script.className >> className
+        _ * script.fileName >> fileName
         script
     }
 }
@@ -261,6 +261,30 @@ public class DefaultScriptCompilationHandlerTest {
         evaluateScript(script);
     }
 
+    @Test
+    public void testLoadedClassesReferToFileNameOfLoadingScript() throws Exception {
+        ScriptSource source = scriptSource("throw new RuntimeException('broken')");
+        scriptCompilationHandler.compileToDir(source, classLoader, scriptCacheDir, null, expectedScriptClass);
+
+        scriptFileName = "other-file-name";
+        ScriptSource otherSource = scriptSource("throw new RuntimeException('broken') ");
+        Script script = scriptCompilationHandler.loadFromDir(otherSource, classLoader, scriptCacheDir, expectedScriptClass).newInstance();
+        try {
+            script.run();
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getMessage(), equalTo("broken"));
+            boolean found = false;
+            for (StackTraceElement element : e.getStackTrace()) {
+                if (element.getClassName().equals(scriptClassName)) {
+                    assertThat(element.getFileName(), equalTo("other-file-name"));
+                    found = true;
+                }
+            }
+            assertTrue(found);
+        }
+    }
+
     private void checkScriptClassesInCache() {
         assertTrue(scriptCacheDir.isDirectory());
         assertTrue(cachedFile.isFile());
@@ -22,7 +22,6 @@ import org.gradle.logging.StandardOutputCapture;
 import org.gradle.cache.CacheBuilder;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.PersistentCache;
-import org.gradle.util.GUtil;
 import org.gradle.util.HashUtil;
 import org.gradle.util.TemporaryFolder;
 import org.gradle.util.TestFile;
@@ -40,7 +39,6 @@ import org.junit.runner.RunWith;
 import java.io.File;
 import java.net.URL;
 import java.net.URLClassLoader;
-import java.util.Map;
 
 import static org.gradle.util.Matchers.*;
 import static org.hamcrest.Matchers.*;
@@ -70,10 +68,11 @@ public class DefaultScriptCompilerFactoryTest {
     Mockery context = new JUnit4Mockery();
 
     Class expectedScriptBaseClass = groovy.lang.Script.class;
-    Map<String, Object> expectedCacheProperties;
+    String expectedCacheKey;
 
     ScriptSource source;
     ScriptSource expectedSource;
+    ScriptSource expectedCompiledSource;
     ScriptRunner expectedScriptRunner;
     CacheBuilder cacheBuilder;
 
@@ -115,8 +114,8 @@ public class DefaultScriptCompilerFactoryTest {
         }});
 
         expectedSource = new CachingScriptSource(source);
-        String expectedHash = HashUtil.createHash(TEST_SCRIPT_TEXT);
-        expectedCacheProperties = GUtil.map("source.filename", "file-name", "source.hash", expectedHash);
+        expectedCompiledSource = new ContentAddressedScriptSource(expectedSource);
+        expectedCacheKey = "scripts/class-name_" + HashUtil.createHash(TEST_SCRIPT_TEXT);
 
         originalClassLoader = Thread.currentThread().getContextClassLoader();
         Thread.currentThread().setContextClassLoader(testClassLoader);
@@ -132,10 +131,7 @@ public class DefaultScriptCompilerFactoryTest {
         final Collector<TestScript> collector = collector();
 
         context.checking(new Expectations() {{
-            one(cacheRepositoryMock).cache("scripts/class-name");
-            will(returnValue(cacheBuilder));
-
-            one(cacheBuilder).withProperties(expectedCacheProperties);
+            one(cacheRepositoryMock).cache(expectedCacheKey);
             will(returnValue(cacheBuilder));
 
             one(cacheBuilder).open();
@@ -144,12 +140,12 @@ public class DefaultScriptCompilerFactoryTest {
             allowing(cacheMock).isValid();
             will(returnValue(false));
 
-            one(scriptCompilationHandlerMock).compileToDir(expectedSource, testClassLoader, expectedScriptCacheDir, null,
+            one(scriptCompilationHandlerMock).compileToDir(expectedCompiledSource, testClassLoader, expectedScriptCacheDir, null,
                     expectedScriptBaseClass);
 
             one(cacheMock).markValid();
 
-            one(scriptCompilationHandlerMock).loadFromDir(expectedSource, testClassLoader, expectedScriptCacheDir,
+            one(scriptCompilationHandlerMock).loadFromDir(expectedCompiledSource, testClassLoader, expectedScriptCacheDir,
                     expectedScriptBaseClass);
             will(returnValue(TestScript.class));
 
@@ -167,10 +163,7 @@ public class DefaultScriptCompilerFactoryTest {
         final Collector<TestScript> collector = collector();
 
         context.checking(new Expectations() {{
-            one(cacheRepositoryMock).cache("scripts/class-name");
-            will(returnValue(cacheBuilder));
-
-            one(cacheBuilder).withProperties(expectedCacheProperties);
+            one(cacheRepositoryMock).cache(expectedCacheKey);
             will(returnValue(cacheBuilder));
 
             one(cacheBuilder).open();
@@ -179,7 +172,7 @@ public class DefaultScriptCompilerFactoryTest {
             allowing(cacheMock).isValid();
             will(returnValue(true));
 
-            one(scriptCompilationHandlerMock).loadFromDir(expectedSource, testClassLoader, expectedScriptCacheDir, expectedScriptBaseClass);
+            one(scriptCompilationHandlerMock).loadFromDir(expectedCompiledSource, testClassLoader, expectedScriptCacheDir, expectedScriptBaseClass);
             will(returnValue(TestScript.class));
 
             one(scriptRunnerFactoryMock).create(with(notNullValue(TestScript.class)));
@@ -198,10 +191,7 @@ public class DefaultScriptCompilerFactoryTest {
         };
 
         context.checking(new Expectations(){{
-            one(cacheRepositoryMock).cache("scripts/class-name");
-            will(returnValue(cacheBuilder));
-
-            one(cacheBuilder).withProperties(expectedCacheProperties);
+            one(cacheRepositoryMock).cache(expectedCacheKey);
             will(returnValue(cacheBuilder));
 
             one(cacheBuilder).open();
@@ -210,7 +200,7 @@ public class DefaultScriptCompilerFactoryTest {
             allowing(cacheMock).isValid();
             will(returnValue(true));
 
-            one(scriptCompilationHandlerMock).loadFromDir(expectedSource, classLoader, expectedScriptCacheDir,
+            one(scriptCompilationHandlerMock).loadFromDir(expectedCompiledSource, classLoader, expectedScriptCacheDir,
                     expectedScriptBaseClass);
             will(returnValue(TestScript.class));
 
@@ -231,10 +221,7 @@ public class DefaultScriptCompilerFactoryTest {
             allowing(transformer).getId();
             will(returnValue("transformer"));
 
-            one(cacheRepositoryMock).cache("scripts/class-name");
-            will(returnValue(cacheBuilder));
-
-            one(cacheBuilder).withProperties(expectedCacheProperties);
+            one(cacheRepositoryMock).cache(expectedCacheKey);
             will(returnValue(cacheBuilder));
 
             one(cacheBuilder).open();
@@ -243,7 +230,7 @@ public class DefaultScriptCompilerFactoryTest {
             allowing(cacheMock).isValid();
             will(returnValue(true));
 
-            one(scriptCompilationHandlerMock).loadFromDir(expectedSource, testClassLoader, expectedCacheDir,
+            one(scriptCompilationHandlerMock).loadFromDir(expectedCompiledSource, testClassLoader, expectedCacheDir,
                     expectedScriptBaseClass);
             will(returnValue(TestScript.class));
 
@@ -254,6 +241,41 @@ public class DefaultScriptCompilerFactoryTest {
         assertSame(expectedScriptRunner, scriptProcessor.createCompiler(source).setTransformer(transformer).compile(expectedScriptBaseClass));
     }
 
+    @Test
+    public void testScriptsWithSameTextShareCache() {
+        final ScriptSource otherSource = context.mock(ScriptSource.class, "other");
+
+        context.checking(new Expectations() {{
+            allowing(otherSource).getClassName();
+            will(returnValue("class-name"));
+            allowing(otherSource).getResource();
+            will(returnValue(source.getResource()));
+
+            one(cacheRepositoryMock).cache(expectedCacheKey);
+            will(returnValue(cacheBuilder));
+
+            one(cacheBuilder).open();
+            will(returnValue(cacheMock));
+
+            allowing(cacheMock).isValid();
+            will(returnValue(true));
+
+            one(scriptCompilationHandlerMock).loadFromDir(expectedCompiledSource, testClassLoader, expectedScriptCacheDir,
+                    expectedScriptBaseClass);
+            will(returnValue(TestScript.class));
+
+            one(scriptCompilationHandlerMock).loadFromDir(new ContentAddressedScriptSource(new CachingScriptSource(otherSource)),
+                    testClassLoader, expectedScriptCacheDir, expectedScriptBaseClass);
+            will(returnValue(TestScript.class));
+
+            exactly(2).of(scriptRunnerFactoryMock).create(with(notNullValue(TestScript.class)));
+            will(returnValue(expectedScriptRunner));
+        }});
+
+        scriptProcessor.createCompiler(source).compile(expectedScriptBaseClass);
+        scriptProcessor.createCompiler(otherSource).compile(expectedScriptBaseClass);
+    }
+
     public static class TestScript extends Script {
         @Override
         public StandardOutputCapture getStandardOutputCapture() {
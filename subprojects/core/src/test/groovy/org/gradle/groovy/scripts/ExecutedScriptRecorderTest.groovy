@@ -0,0 +1,51 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.groovy.scripts
+
+import org.gradle.listener.ListenerManager
+import spock.lang.Specification
+
+class ExecutedScriptRecorderTest extends Specification {
+    final ListenerManager listenerManager = Mock()
+
+    def registersItselfAsAListener() {
+        when:
+        new ExecutedScriptRecorder(listenerManager)
+
+        then:
+        1 * listenerManager.addListener({ it instanceof ExecutedScriptRecorder })
+    }
+
+    def recordsEachExecutedScriptOnceInOrderOfFirstExecution() {
+        def recorder = new ExecutedScriptRecorder(listenerManager)
+        ScriptSource source1 = Mock()
+        ScriptSource source2 = Mock()
+        _ * source1.fileName >> 'settings.gradle'
+        _ * source2.fileName >> 'build.gradle'
+
+        when:
+        recorder.beforeScript(script(source1))
+        recorder.beforeScript(script(source2))
+        recorder.beforeScript(script(source1))
+
+        then:
+        recorder.scripts == [source1, source2]
+    }
+
+    def script(ScriptSource source) {
+        return [getScriptSource: { source }] as Script
+    }
+}
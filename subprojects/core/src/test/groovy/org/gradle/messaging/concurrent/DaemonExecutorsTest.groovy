@@ -0,0 +1,53 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.messaging.concurrent
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import spock.lang.Specification
+
+class DaemonExecutorsTest extends Specification {
+    def createsNamedDaemonThreads() {
+        def factory = DaemonExecutors.newThreadFactory('Worker')
+
+        when:
+        def thread1 = factory.newThread({} as Runnable)
+        def thread2 = factory.newThread({} as Runnable)
+
+        then:
+        thread1.name == 'Worker Thread 1'
+        thread2.name == 'Worker Thread 2'
+        thread1.daemon
+        thread2.daemon
+    }
+
+    def boundedExecutorRunsTaskInSubmittingThreadWhenAllThreadsAreBusy() {
+        def executor = DaemonExecutors.newBoundedExecutor('Worker', 1)
+        def started = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        Thread runner
+
+        when:
+        def busy = executor.submit({ started.countDown(); release.await() } as Runnable)
+        started.await()
+        executor.submit({ runner = Thread.currentThread() } as Runnable).get()
+        release.countDown()
+        busy.get(10, TimeUnit.SECONDS)
+
+        then:
+        runner == Thread.currentThread()
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.messaging.dispatch
+
+import org.gradle.messaging.dispatch.fixtures.ListenerWithPackagePrivateParameter
+import org.gradle.util.UncheckedException
+import spock.lang.Specification
+
+class AsmBackedDispatchGeneratorTest extends Specification {
+    private final AsmBackedDispatchGenerator generator = new AsmBackedDispatchGenerator()
+
+    def generatedDispatchCallsListenerMethods() {
+        DispatchTestListener listener = Mock()
+        def dispatch = generator.newDispatch(DispatchTestListener, listener)
+
+        when:
+        dispatch.dispatch(new MethodInvocation(DispatchTestListener.getMethod('stringAndInt', String, int), ['param', 12] as Object[]))
+        dispatch.dispatch(new MethodInvocation(DispatchTestListener.getMethod('longAndArray', long, boolean[]), [12L, [true] as boolean[]] as Object[]))
+        dispatch.dispatch(new MethodInvocation(DispatchTestListener.getMethod('noParams'), null))
+
+        then:
+        dispatch instanceof DirectDispatch
+        1 * listener.stringAndInt('param', 12)
+        1 * listener.longAndArray(12L, { it == [true] as boolean[] }) >> 4L
+        1 * listener.noParams()
+        0 * listener._
+    }
+
+    def generatedDispatchRethrowsListenerFailure() {
+        DispatchTestListener listener = Mock()
+        def dispatch = generator.newDispatch(DispatchTestListener, listener)
+        def failure = new IOException()
+
+        when:
+        dispatch.dispatch(new MethodInvocation(DispatchTestListener.getMethod('noParams'), null))
+
+        then:
+        1 * listener.noParams() >> { throw failure }
+        UncheckedException e = thrown()
+        e.cause == failure
+    }
+
+    def reusesGeneratedClassForType() {
+        DispatchTestListener listener1 = Mock()
+        DispatchTestListener listener2 = Mock()
+
+        expect:
+        generator.newDispatch(DispatchTestListener, listener1).class == new AsmBackedDispatchGenerator().newDispatch(DispatchTestListener, listener2).class
+    }
+
+    def usesReflectionForTypeWhichIsNotAnInterface() {
+        expect:
+        generator.newDispatch(Object, new Object()) instanceof ReflectionDispatch
+    }
+
+    def usesReflectionForTypeWithMethodWhoseParameterTypeIsNotAccessible() {
+        SubListener listener = Mock()
+
+        expect:
+        generator.newDispatch(SubListener, listener) instanceof ReflectionDispatch
+        generator.newDispatch(SubListener, listener) instanceof ReflectionDispatch
+    }
+}
+
+interface SubListener extends ListenerWithPackagePrivateParameter {
+}
+
+interface DispatchTestListener {
+    void stringAndInt(String param, int value)
+
+    long longAndArray(long value, boolean[] flags)
+
+    void noParams() throws IOException
+}
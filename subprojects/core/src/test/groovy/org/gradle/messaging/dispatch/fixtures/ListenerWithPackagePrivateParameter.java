@@ -1,5 +1,5 @@
 /*
- * Copyright 2009 the original author or authors.
+ * Copyright 2011 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -13,12 +13,11 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
+package org.gradle.messaging.dispatch.fixtures;
 
-package org.gradle.api.internal.tasks.testing.detection;
+public interface ListenerWithPackagePrivateParameter {
+    void event(PackagePrivateEvent event);
+}
 
-/**
- * @author Tom Eyckmans
- */
-public interface JarFilePackageListener {
-    void receivePackage(String packageName);
+class PackagePrivateEvent {
 }
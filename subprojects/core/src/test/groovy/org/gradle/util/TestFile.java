@@ -419,6 +419,25 @@ public class TestFile extends File implements TestFileContext {
         return this;
     }
 
+    public TestFile tgzTo(TestFile tarFile) {
+        return tarTo(tarFile, "gzip");
+    }
+
+    public TestFile tbzTo(TestFile tarFile) {
+        return tarTo(tarFile, "bzip2");
+    }
+
+    private TestFile tarTo(TestFile tarFile, String compression) {
+        Tar tar = new Tar();
+        tar.setBasedir(this);
+        tar.setDestFile(tarFile);
+        Tar.TarCompressionMethod method = new Tar.TarCompressionMethod();
+        method.setValue(compression);
+        tar.setCompression(method);
+        AntUtil.execute(tar);
+        return this;
+    }
+
     public Snapshot snapshot() {
         assertIsFile();
         return new Snapshot();
@@ -24,25 +24,36 @@ import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
+ * Detects test classes by inspecting their class files and those of their super classes. The details of each class
+ * file are read from the {@link ClassInfoCache}, when one is provided, so that class files which have not changed
+ * since the previous build are not parsed again. Test classes can be processed by several threads at once.
+ *
  * @author Tom Eyckmans
  */
 public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor> implements TestFrameworkDetector {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractTestFrameworkDetector.class);
     protected static final String TEST_CASE = "junit/framework/TestCase";
     protected static final String GROOVY_TEST_CASE = "groovy/util/GroovyTestCase";
 
     private final File testClassesDirectory;
     private final FileCollection testClasspath;
     private List<File> testClassDirectories;
-    private ClassFileExtractionManager classFileExtractionManager;
-    private final Map<File, Boolean> superClasses;
+    private JarClassIndex jarClassIndex;
+    private final ConcurrentMap<String, Boolean> superClasses;
+    private ClassInfoCache classInfoCache;
 
     protected TestClassProcessor testClassProcessor;
 
@@ -51,43 +62,88 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
     protected AbstractTestFrameworkDetector(File testClassesDirectory, FileCollection testClasspath) {
         this.testClassesDirectory = testClassesDirectory;
         this.testClasspath = testClasspath;
-        this.superClasses = new HashMap<File, Boolean>();
+        this.superClasses = new ConcurrentHashMap<String, Boolean>();
         this.knownTestCaseClassNames = new ArrayList<String>();
         addKnownTestCaseClassNames(TEST_CASE, GROOVY_TEST_CASE);
     }
 
     protected abstract T createClassVisitor();
 
-    protected File getSuperTestClassFile(String superClassName) {
-        prepareClasspath();
+    /**
+     * Returns true if a class which extends the given class is a test, without looking at the given class.
+     */
+    protected abstract boolean isKnownTestSuperClass(String superClassName);
+
+    public void setClassInfoCache(ClassInfoCache classInfoCache) {
+        this.classInfoCache = classInfoCache;
+    }
+
+    public boolean processTestClass(File testClassFile) {
+        ClassInfo classInfo = classInfo(testClassFile);
+        boolean isTest = classInfo.isTest() || isTestSuperClass(classInfo.getSuperClassName());
+        if (isTest && !classInfo.isAbstract()) {
+            publishTestClass(classInfo);
+        }
+        return isTest;
+    }
+
+    private boolean isTestSuperClass(String superClassName) {
         if (StringUtils.isEmpty(superClassName)) {
-            throw new IllegalArgumentException("superClassName is empty!");
+            return false;
         }
+        if (isKnownTestSuperClass(superClassName)) {
+            return true;
+        }
+
+        Boolean isSuperTest = superClasses.get(superClassName);
+        if (isSuperTest == null) {
+            // Several threads may end up inspecting the same class, which is harmless
+            ClassInfo superClassInfo = superClassInfo(superClassName);
+            if (superClassInfo == null) {
+                LOGGER.debug("test-class-scan : failed to scan parent class {}, could not find the class file",
+                        superClassName);
+                isSuperTest = false;
+            } else {
+                isSuperTest = superClassInfo.isTest() || isTestSuperClass(superClassInfo.getSuperClassName());
+            }
+            superClasses.put(superClassName, isSuperTest);
+        }
+        return isSuperTest;
+    }
 
-        final Iterator<File> testClassDirectoriesIt = testClassDirectories.iterator();
+    private ClassInfo superClassInfo(String superClassName) {
+        // Use the index returned by prepareClasspath(), as the field is only safe to read while holding the lock
+        JarClassIndex jarClassIndex = prepareClasspath();
 
-        File superTestClassFile = null;
-        while (superTestClassFile == null && testClassDirectoriesIt.hasNext()) {
-            final File testClassDirectory = testClassDirectoriesIt.next();
-            final File superTestClassFileCandidate = new File(testClassDirectory, superClassName + ".class");
-            if (superTestClassFileCandidate.exists()) {
-                superTestClassFile = superTestClassFileCandidate;
+        for (File testClassDirectory : testClassDirectories) {
+            final File superTestClassFile = new File(testClassDirectory, superClassName + ".class");
+            if (superTestClassFile.exists()) {
+                return classInfo(superTestClassFile);
             }
         }
 
-        if (superTestClassFile != null) {
-            return superTestClassFile;
-        } else { // super test class file not in test class directories
-            return classFileExtractionManager.getLibraryClassFile(superClassName);
+        // super test class file not in test class directories
+        File jarFile = jarClassIndex.getLibraryJar(superClassName);
+        if (jarFile == null) {
+            return null;
+        }
+        ClassInfo classInfo = classInfoCache == null ? null : classInfoCache.get(jarFile, superClassName);
+        if (classInfo == null) {
+            classInfo = readClassInfo(jarClassIndex.openClassFile(superClassName),
+                    jarFile.getAbsolutePath() + "!" + superClassName);
+            if (classInfoCache != null) {
+                classInfoCache.put(jarFile, superClassName, classInfo);
+            }
         }
+        return classInfo;
     }
 
-    private void prepareClasspath() {
-        if (classFileExtractionManager != null) {
-            return;
+    private synchronized JarClassIndex prepareClasspath() {
+        if (jarClassIndex != null) {
+            return jarClassIndex;
         }
 
-        classFileExtractionManager = new ClassFileExtractionManager();
+        JarClassIndex jarClassIndex = new JarClassIndex();
         testClassDirectories = new ArrayList<File>();
 
         testClassDirectories.add(testClassesDirectory);
@@ -96,67 +152,64 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
                 if (file.isDirectory()) {
                     testClassDirectories.add(file);
                 } else if (file.isFile() && file.getName().endsWith(".jar")) {
-                    classFileExtractionManager.addLibraryJar(file);
+                    jarClassIndex.addLibraryJar(file);
                 }
             }
         }
+        this.jarClassIndex = jarClassIndex;
+        return jarClassIndex;
+    }
+
+    private ClassInfo classInfo(File classFile) {
+        String className = classFile.getName();
+        ClassInfo classInfo = classInfoCache == null ? null : classInfoCache.get(classFile, className);
+        if (classInfo == null) {
+            try {
+                classInfo = readClassInfo(new FileInputStream(classFile), classFile.getAbsolutePath());
+            } catch (FileNotFoundException e) {
+                throw new GradleException("failed to read class file " + classFile.getAbsolutePath(), e);
+            }
+            if (classInfoCache != null) {
+                classInfoCache.put(classFile, className, classInfo);
+            }
+        }
+        return classInfo;
     }
 
-    protected TestClassVisitor classVisitor(final File testClassFile) {
+    private ClassInfo readClassInfo(InputStream classFile, String classFileName) {
         final TestClassVisitor classVisitor = createClassVisitor();
 
         InputStream classStream = null;
         try {
-            classStream = new BufferedInputStream(new FileInputStream(testClassFile));
+            classStream = new BufferedInputStream(classFile);
             final ClassReader classReader = new ClassReader(classStream);
             classReader.accept(classVisitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
         } catch (Throwable e) {
-            throw new GradleException("failed to read class file " + testClassFile.getAbsolutePath(), e);
+            throw new GradleException("failed to read class file " + classFileName, e);
         } finally {
             IOUtils.closeQuietly(classStream);
         }
 
-        return classVisitor;
+        return new ClassInfo(classVisitor.getClassName(), classVisitor.getSuperClassName(), classVisitor.isAbstract(),
+                classVisitor.isTest());
     }
 
-    public boolean processTestClass(File testClassFile) {
-        return processTestClass(testClassFile, false);
-    }
-
-    protected abstract boolean processTestClass(File testClassFile, boolean superClass);
-
-    protected boolean processSuperClass(File testClassFile) {
-        boolean isTest = false;
-
-        Boolean isSuperTest = superClasses.get(testClassFile);
-
-        if (isSuperTest == null) {
-            isTest = processTestClass(testClassFile, true);
-
-            superClasses.put(testClassFile, isTest);
-        } else {
-            isTest = isSuperTest;
-        }
-
-        return isTest;
-    }
-
-    /**
-     * In none super class mode a test class is published when the class is a test and it is not abstract. In super
-     * class mode it musn't publish the class otherwise it will get published multiple times (for each extending
-     * class).
-     */
-    protected void publishTestClass(boolean isTest, TestClassVisitor classVisitor, boolean superClass) {
-        if (isTest && !classVisitor.isAbstract() && !superClass) {
-            String className = Type.getObjectType(classVisitor.getClassName()).getClassName();
-            testClassProcessor.processTestClass(new DefaultTestClassRunInfo(className));
-        }
+    private synchronized void publishTestClass(ClassInfo classInfo) {
+        String className = Type.getObjectType(classInfo.getClassName()).getClassName();
+        testClassProcessor.processTestClass(new DefaultTestClassRunInfo(className));
     }
 
     public void startDetection(TestClassProcessor testClassProcessor) {
         this.testClassProcessor = testClassProcessor;
+        superClasses.clear();
     }
 
+    public synchronized void stopDetection() {
+        if (jarClassIndex != null) {
+            jarClassIndex.close();
+            jarClassIndex = null;
+        }
+    }
     public void addKnownTestCaseClassNames(String... knownTestCaseClassNames) {
         if (knownTestCaseClassNames != null && knownTestCaseClassNames.length != 0) {
             for (String knownTestCaseClassName : knownTestCaseClassNames) {
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection;
+
+import java.io.File;
+
+/**
+ * A cache of the details of classes, which can be used across builds. Implementations must be thread-safe.
+ */
+public interface ClassInfoCache {
+    /**
+     * Returns the details of the given class.
+     *
+     * @param source The class file, or the jar file which contains the class.
+     * @param className The internal name of the class.
+     * @return The details, or null if the class is not cached or its source has changed since it was cached.
+     */
+    ClassInfo get(File source, String className);
+
+    void put(File source, String className, ClassInfo classInfo);
+}
@@ -22,25 +22,34 @@ import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.messaging.concurrent.ExecutorFactory;
+import org.gradle.messaging.concurrent.StoppableExecutor;
+import org.gradle.util.UncheckedException;
 
 import java.io.File;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * The default test class scanner depending on the availability of a test framework detecter a detection or filename
- * scan is performed to find test classes.
+ * scan is performed to find test classes. Class files are passed to the detecter by several threads at once, so test
+ * classes are found in no particular order.
  *
  * @author Tom Eyckmans
  */
 public class DefaultTestClassScanner implements Runnable {
+    private static final int MAX_DETECTIONS = Runtime.getRuntime().availableProcessors();
     private final FileTree candidateClassFiles;
     private final TestFrameworkDetector testFrameworkDetector;
     private final TestClassProcessor testClassProcessor;
+    private final ExecutorFactory executorFactory;
 
     public DefaultTestClassScanner(FileTree candidateClassFiles, TestFrameworkDetector testFrameworkDetector,
-                                   TestClassProcessor testClassProcessor) {
+                                   TestClassProcessor testClassProcessor, ExecutorFactory executorFactory) {
         this.candidateClassFiles = candidateClassFiles;
         this.testFrameworkDetector = testFrameworkDetector;
         this.testClassProcessor = testClassProcessor;
+        this.executorFactory = executorFactory;
     }
 
     public void run() {
@@ -53,11 +62,56 @@ public class DefaultTestClassScanner implements Runnable {
 
     private void detectionScan() {
         testFrameworkDetector.startDetection(testClassProcessor);
-        candidateClassFiles.visit(new ClassFileVisitor() {
-            public void visitClassFile(FileVisitDetails fileDetails) {
-                testFrameworkDetector.processTestClass(fileDetails.getFile());
-            }
-        });
+        final StoppableExecutor executor = executorFactory.create("Test class detection");
+        // The executor does not limit its threads, so limit the number of detections in progress instead
+        final Semaphore available = new Semaphore(MAX_DETECTIONS);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        try {
+            candidateClassFiles.visit(new ClassFileVisitor() {
+                public void visitClassFile(FileVisitDetails fileDetails) {
+                    if (failure.get() != null) {
+                        fileDetails.stopVisiting();
+                        return;
+                    }
+                    final File file = fileDetails.getFile();
+                    acquire(available);
+                    try {
+                        executor.execute(new Runnable() {
+                            public void run() {
+                                try {
+                                    testFrameworkDetector.processTestClass(file);
+                                } catch (Throwable throwable) {
+                                    failure.compareAndSet(null, throwable);
+                                } finally {
+                                    available.release();
+                                }
+                            }
+                        });
+                    } catch (RuntimeException e) {
+                        available.release();
+                        throw e;
+                    }
+                }
+            });
+        } finally {
+            // Wait for the detections in progress to finish, even when visiting has failed, as stopping detection
+            // closes the jars which they may be reading
+            available.acquireUninterruptibly(MAX_DETECTIONS);
+            executor.stop();
+            testFrameworkDetector.stopDetection();
+        }
+        Throwable throwable = failure.get();
+        if (throwable != null) {
+            throw UncheckedException.asUncheckedException(throwable);
+        }
+    }
+
+    private static void acquire(Semaphore semaphore) {
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            throw UncheckedException.asUncheckedException(e);
+        }
     }
 
     private void filenameScan() {
@@ -22,14 +22,34 @@ import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestFramework;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.api.internal.tasks.testing.impact.TestImpactAnalyzer;
+import org.gradle.api.internal.tasks.testing.impact.TestImpactState;
+import org.gradle.api.internal.tasks.testing.impact.TestImpactStateSerializer;
+import org.gradle.api.internal.tasks.testing.processors.FilteringTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.processors.HistoryOrderingTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.MaxNParallelTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.RestartEveryNTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.TestMainAction;
+import org.gradle.api.internal.tasks.testing.results.TestClassHistory;
+import org.gradle.api.internal.tasks.testing.results.TestClassHistoryRecorder;
+import org.gradle.api.internal.tasks.testing.results.TestClassHistorySerializer;
 import org.gradle.api.internal.tasks.testing.worker.ForkingTestClassProcessor;
 import org.gradle.api.tasks.testing.Test;
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.groovy.scripts.ExecutedScriptRecorder;
+import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.listener.ListenerBroadcast;
 import org.gradle.messaging.actor.ActorFactory;
+import org.gradle.messaging.concurrent.ExecutorFactory;
+import org.gradle.messaging.concurrent.StoppableExecutor;
 import org.gradle.process.internal.WorkerProcessBuilder;
 import org.gradle.util.TrueTimeProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.*;
 
 /**
  * The default test class scanner factory.
@@ -37,20 +57,30 @@ import org.gradle.util.TrueTimeProvider;
  * @author Tom Eyckmans
  */
 public class DefaultTestExecuter implements TestExecuter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultTestExecuter.class);
     private final Factory<WorkerProcessBuilder> workerFactory;
     private final ActorFactory actorFactor;
+    private final CacheRepository cacheRepository;
+    private final ExecutorFactory executorFactory;
+    private final ExecutedScriptRecorder scriptRecorder;
 
-    public DefaultTestExecuter(Factory<WorkerProcessBuilder> workerFactory, ActorFactory actorFactor) {
+    public DefaultTestExecuter(Factory<WorkerProcessBuilder> workerFactory, ActorFactory actorFactor,
+                               CacheRepository cacheRepository, ExecutorFactory executorFactory,
+                               ExecutedScriptRecorder scriptRecorder) {
         this.workerFactory = workerFactory;
         this.actorFactor = actorFactor;
+        this.cacheRepository = cacheRepository;
+        this.executorFactory = executorFactory;
+        this.scriptRecorder = scriptRecorder;
     }
 
     public void execute(final Test testTask, TestResultProcessor testResultProcessor) {
         final TestFramework testFramework = testTask.getTestFramework();
         final WorkerTestClassProcessorFactory testInstanceFactory = testFramework.getProcessorFactory();
+        final StoppableExecutor workerStartExecutor = executorFactory.create("Start test worker");
         final Factory<TestClassProcessor> forkingProcessorFactory = new Factory<TestClassProcessor>() {
             public TestClassProcessor create() {
-                return new ForkingTestClassProcessor(workerFactory, testInstanceFactory, testTask,
+                return new ForkingTestClassProcessor(workerFactory, workerStartExecutor, testInstanceFactory, testTask,
                         testTask.getClasspath(), testFramework.getWorkerConfigurationAction());
             }
         };
@@ -63,15 +93,81 @@ public class DefaultTestExecuter implements TestExecuter {
         TestClassProcessor processor = new MaxNParallelTestClassProcessor(testTask.getMaxParallelForks(),
                 reforkingProcessorFactory, actorFactor);
 
+        PersistentIndexedCache<String, TestClassHistory> historyCache = cacheRepository.cache("testHistory").forObject(
+                testTask.getProject().getGradle()).open().openIndexedCache(new TestClassHistorySerializer());
+        TestClassHistory history = historyCache.get(testTask.getPath());
+        if (history == null) {
+            history = new TestClassHistory();
+        }
+        if (!history.isEmpty() && (testTask.getMaxParallelForks() > 1 || testTask.isFailedTestsFirst())) {
+            processor = new HistoryOrderingTestClassProcessor(processor, history, testTask.isFailedTestsFirst());
+        }
+        TestImpactAnalyzer impactAnalyzer = null;
+        PersistentIndexedCache<String, TestImpactState> impactCache = null;
+        if (testTask.isAffectedTestsOnly()) {
+            impactCache = cacheRepository.cache("testImpact").forObject(testTask.getProject().getGradle()).open()
+                    .openIndexedCache(new TestImpactStateSerializer());
+            Set<File> classDirectories = new LinkedHashSet<File>();
+            classDirectories.add(testTask.getTestClassesDir());
+            List<File> classpathFiles = new ArrayList<File>();
+            List<Object> inputs = new ArrayList<Object>();
+            classpathFiles.add(testTask.getProject().getBuildFile());
+            for (ScriptSource script : scriptRecorder.getScripts()) {
+                File scriptFile = script.getResource().getFile();
+                if (scriptFile != null) {
+                    classpathFiles.add(scriptFile);
+                } else {
+                    inputs.add(script.getDisplayName());
+                }
+            }
+            for (File file : testTask.getClasspath()) {
+                if (file.isDirectory()) {
+                    classDirectories.add(file);
+                } else {
+                    classpathFiles.add(file);
+                }
+            }
+            inputs.add(testTask.getAllJvmArgs());
+            inputs.add(new TreeMap<String, Object>(testTask.getEnvironment()));
+            inputs.add(new TreeSet<String>(testTask.getIncludes()));
+            inputs.add(new TreeSet<String>(testTask.getExcludes()));
+            inputs.add(testTask.getWorkingDir());
+            inputs.add(testTask.getExecutable());
+            impactAnalyzer = new TestImpactAnalyzer(classDirectories, TestImpactAnalyzer.classpathSignature(
+                    classpathFiles, inputs), impactCache.get(testTask.getPath()), history);
+            processor = new FilteringTestClassProcessor(processor, impactAnalyzer);
+        }
+        TestClassHistoryRecorder historyRecorder = new TestClassHistoryRecorder();
+        ListenerBroadcast<TestResultProcessor> resultProcessors = new ListenerBroadcast<TestResultProcessor>(
+                TestResultProcessor.class);
+        resultProcessors.add(testResultProcessor);
+        resultProcessors.add(historyRecorder);
+
         final FileTree testClassFiles = testTask.getCandidateClassFiles();
 
         Runnable detector;
         if (testTask.isScanForTestClasses()) {
             TestFrameworkDetector testFrameworkDetector = testTask.getTestFramework().getDetector();
-            detector = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, processor);
+            PersistentIndexedCache<String, PersistentClassInfoCache.CachedClassInfo> classInfoCache
+                    = cacheRepository.cache("testClassInfo").forObject(testTask.getProject().getGradle()).open()
+                    .openIndexedCache(PersistentClassInfoCache.serializer());
+            testFrameworkDetector.setClassInfoCache(new PersistentClassInfoCache(classInfoCache,
+                    testFrameworkDetector.getClass().getName()));
+            detector = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, processor, executorFactory);
         } else {
-            detector = new DefaultTestClassScanner(testClassFiles, null, processor);
+            detector = new DefaultTestClassScanner(testClassFiles, null, processor, executorFactory);
+        }
+        try {
+            new TestMainAction(detector, processor, resultProcessors.getSource(), new TrueTimeProvider()).run();
+            if (impactAnalyzer != null) {
+                impactCache.put(testTask.getPath(), impactAnalyzer.getState(historyRecorder.getHistory()));
+                LOGGER.info("Skipped {} test classes which are not affected by the changes.",
+                        impactAnalyzer.getSkippedCount());
+            }
+        } finally {
+            workerStartExecutor.stop();
+            history.update(historyRecorder.getHistory());
+            historyCache.put(testTask.getPath(), history);
         }
-        new TestMainAction(detector, processor, testResultProcessor, new TrueTimeProvider()).run();
     }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.detection;
+
+import org.gradle.api.GradleException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * An index of the classes contained in a set of library jars. Each jar is opened once, when it is added to the index,
+ * and is kept open until the index is closed, so that class files can be read straight from the jar. When several
+ * jars contain the same class, the jar which was added first is used, as a class loader would. Can be used by several
+ * threads at once.
+ */
+public class JarClassIndex {
+    private final Map<String, ZipFile> classJars = new HashMap<String, ZipFile>();
+    private final List<ZipFile> jars = new ArrayList<ZipFile>();
+
+    /**
+     * Adds the classes of the given jar to this index.
+     *
+     * @param libraryJar Jar file to add to the index.
+     */
+    public synchronized void addLibraryJar(File libraryJar) {
+        ZipFile zipFile;
+        try {
+            zipFile = new ZipFile(libraryJar);
+        } catch (IOException e) {
+            throw new GradleException("failed to scan jar file for classes (" + libraryJar.getAbsolutePath() + ")", e);
+        }
+        jars.add(zipFile);
+
+        Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        while (entries.hasMoreElements()) {
+            String entryName = entries.nextElement().getName();
+            if (entryName.endsWith(".class") && !entryName.startsWith("META-INF")) {
+                String className = entryName.substring(0, entryName.length() - ".class".length());
+                if (!classJars.containsKey(className)) {
+                    classJars.put(className, zipFile);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the jar which contains the given class.
+     *
+     * @param className The internal name of the class.
+     * @return The jar, or null if none of the jars in this index contain the class.
+     */
+    public synchronized File getLibraryJar(String className) {
+        ZipFile zipFile = classJars.get(className);
+        return zipFile == null ? null : new File(zipFile.getName());
+    }
+
+    /**
+     * Opens the class file of the given class, without extracting it from its jar.
+     *
+     * @param className The internal name of the class.
+     * @return The content of the class file, or null if none of the jars in this index contain the class.
+     */
+    public InputStream openClassFile(String className) {
+        ZipFile zipFile;
+        synchronized (this) {
+            zipFile = classJars.get(className);
+        }
+        if (zipFile == null) {
+            return null;
+        }
+        try {
+            return zipFile.getInputStream(zipFile.getEntry(className + ".class"));
+        } catch (IOException e) {
+            throw new GradleException("failed to read class file from jar (" + zipFile.getName() + ")", e);
+        }
+    }
+
+    /**
+     * Closes the jars in this index.
+     */
+    public synchronized void close() {
+        for (ZipFile jar : jars) {
+            try {
+                jar.close();
+            } catch (IOException e) {
+                // Ignore
+            }
+        }
+        jars.clear();
+        classJars.clear();
+    }
+}
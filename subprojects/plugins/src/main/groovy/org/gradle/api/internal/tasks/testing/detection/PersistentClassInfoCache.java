@@ -0,0 +1,100 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection;
+
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.Serializer;
+
+import java.io.*;
+
+/**
+ * A {@link ClassInfoCache} backed by a persistent cache. An entry is used for as long as the length and last modified
+ * time of its source file are unchanged, so that unchanged class files and jars are not read again.
+ */
+public class PersistentClassInfoCache implements ClassInfoCache {
+    private final PersistentIndexedCache<String, CachedClassInfo> cache;
+    private final String keyPrefix;
+
+    /**
+     * @param cache The persistent cache, opened using {@link #serializer()}.
+     * @param keyPrefix A prefix for the keys of the entries, so that different kinds of details for the same class can
+     * be held by the same persistent cache.
+     */
+    public PersistentClassInfoCache(PersistentIndexedCache<String, CachedClassInfo> cache, String keyPrefix) {
+        this.cache = cache;
+        this.keyPrefix = keyPrefix;
+    }
+
+    public static Serializer<CachedClassInfo> serializer() {
+        return new CachedClassInfoSerializer();
+    }
+
+    public synchronized ClassInfo get(File source, String className) {
+        CachedClassInfo cached = cache.get(key(source, className));
+        if (cached == null || cached.length != source.length() || cached.lastModified != source.lastModified()) {
+            return null;
+        }
+        return cached.classInfo;
+    }
+
+    public synchronized void put(File source, String className, ClassInfo classInfo) {
+        cache.put(key(source, className), new CachedClassInfo(source.length(), source.lastModified(), classInfo));
+    }
+
+    private String key(File source, String className) {
+        return keyPrefix + ':' + source.getAbsolutePath() + '!' + className;
+    }
+
+    public static class CachedClassInfo {
+        private final long length;
+        private final long lastModified;
+        private final ClassInfo classInfo;
+
+        private CachedClassInfo(long length, long lastModified, ClassInfo classInfo) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.classInfo = classInfo;
+        }
+    }
+
+    private static class CachedClassInfoSerializer implements Serializer<CachedClassInfo> {
+        public CachedClassInfo read(InputStream instr) throws Exception {
+            DataInputStream input = new DataInputStream(instr);
+            long length = input.readLong();
+            long lastModified = input.readLong();
+            String className = input.readUTF();
+            String superClassName = input.readBoolean() ? input.readUTF() : null;
+            boolean isAbstract = input.readBoolean();
+            boolean test = input.readBoolean();
+            return new CachedClassInfo(length, lastModified, new ClassInfo(className, superClassName, isAbstract, test));
+        }
+
+        public void write(OutputStream outstr, CachedClassInfo value) throws Exception {
+            DataOutputStream output = new DataOutputStream(outstr);
+            output.writeLong(value.length);
+            output.writeLong(value.lastModified);
+            output.writeUTF(value.classInfo.getClassName());
+            output.writeBoolean(value.classInfo.getSuperClassName() != null);
+            if (value.classInfo.getSuperClassName() != null) {
+                output.writeUTF(value.classInfo.getSuperClassName());
+            }
+            output.writeBoolean(value.classInfo.isAbstract());
+            output.writeBoolean(value.classInfo.isTest());
+            output.flush();
+        }
+    }
+}
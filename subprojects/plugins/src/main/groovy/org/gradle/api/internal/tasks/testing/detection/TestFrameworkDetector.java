@@ -25,5 +25,18 @@ import java.io.File;
 public interface TestFrameworkDetector {
     void startDetection(TestClassProcessor testClassProcessor);
 
+    /**
+     * Processes the given class file. May be called by several threads at once.
+     */
     boolean processTestClass(File testClassFile);
+
+    /**
+     * Releases the resources used while processing test classes.
+     */
+    void stopDetection();
+
+    /**
+     * Sets the cache to read the details of class files from, so that unchanged class files are not parsed again.
+     */
+    void setClassInfoCache(ClassInfoCache classInfoCache);
 }
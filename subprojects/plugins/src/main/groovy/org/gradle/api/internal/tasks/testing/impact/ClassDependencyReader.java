@@ -0,0 +1,122 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.impact;
+
+import org.gradle.api.GradleException;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Reads the classes which a class refers to from the constant pool of its class file. These are the classes which may
+ * be loaded when the class is used.
+ */
+public class ClassDependencyReader {
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int UTF8 = 1;
+    private static final int INTEGER = 3;
+    private static final int FLOAT = 4;
+    private static final int LONG = 5;
+    private static final int DOUBLE = 6;
+    private static final int CLASS = 7;
+    private static final int STRING = 8;
+    private static final int FIELD_REF = 9;
+    private static final int METHOD_REF = 10;
+    private static final int INTERFACE_METHOD_REF = 11;
+    private static final int NAME_AND_TYPE = 12;
+    private static final int METHOD_HANDLE = 15;
+    private static final int METHOD_TYPE = 16;
+    private static final int INVOKE_DYNAMIC = 18;
+
+    /**
+     * Returns the internal names of the classes which the given class file refers to, not including array classes.
+     */
+    public Set<String> readDependencies(File classFile) {
+        try {
+            DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(classFile)));
+            try {
+                return readDependencies(input);
+            } finally {
+                input.close();
+            }
+        } catch (IOException e) {
+            throw new GradleException("failed to read class file " + classFile.getAbsolutePath(), e);
+        }
+    }
+
+    private Set<String> readDependencies(DataInputStream input) throws IOException {
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Not a class file.");
+        }
+        input.readUnsignedShort();
+        input.readUnsignedShort();
+
+        int count = input.readUnsignedShort();
+        String[] strings = new String[count];
+        List<Integer> classes = new ArrayList<Integer>();
+        for (int i = 1; i < count; i++) {
+            int tag = input.readUnsignedByte();
+            switch (tag) {
+                case UTF8:
+                    strings[i] = input.readUTF();
+                    break;
+                case CLASS:
+                    classes.add(input.readUnsignedShort());
+                    break;
+                case STRING:
+                case METHOD_TYPE:
+                    input.readUnsignedShort();
+                    break;
+                case METHOD_HANDLE:
+                    input.readUnsignedByte();
+                    input.readUnsignedShort();
+                    break;
+                case INTEGER:
+                case FLOAT:
+                case FIELD_REF:
+                case METHOD_REF:
+                case INTERFACE_METHOD_REF:
+                case NAME_AND_TYPE:
+                case INVOKE_DYNAMIC:
+                    input.readInt();
+                    break;
+                case LONG:
+                case DOUBLE:
+                    input.readLong();
+                    // These take up two entries of the constant pool
+                    i++;
+                    break;
+                default:
+                    throw new IOException(String.format("Unexpected constant pool tag %s.", tag));
+            }
+        }
+
+        Set<String> dependencies = new HashSet<String>();
+        for (Integer nameIndex : classes) {
+            String className = strings[nameIndex];
+            if (className.startsWith("[")) {
+                // An array class, which refers to its element class if that is not a primitive type
+                int elementStart = className.lastIndexOf('[') + 1;
+                if (className.charAt(elementStart) != 'L') {
+                    continue;
+                }
+                className = className.substring(elementStart + 1, className.length() - 1);
+            }
+            dependencies.add(className);
+        }
+        return dependencies;
+    }
+}
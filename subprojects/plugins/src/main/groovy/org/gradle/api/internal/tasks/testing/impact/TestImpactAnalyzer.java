@@ -0,0 +1,189 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.impact;
+
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.results.TestClassHistory;
+import org.gradle.api.specs.Spec;
+import org.gradle.util.HashUtil;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Selects the test classes which are affected by the changes made to the class files in a set of class directories
+ * since the previous execution of a test task.
+ *
+ * <p>A test class depends on the classes it refers to, directly or through other classes in the class directories.
+ * A test class is affected when one of the classes it depends on has changed, when it failed the last time it was
+ * executed, or when its dependencies are not known. Every test class is affected when the classpath signature has
+ * changed, or when a file other than a class file, such as a resource, has been added to, removed from or modified in
+ * the class directories.</p>
+ */
+public class TestImpactAnalyzer implements Spec<TestClassRunInfo> {
+    private final ClassDependencyReader dependencyReader = new ClassDependencyReader();
+    private final Map<String, File> classFiles = new HashMap<String, File>();
+    private final Map<String, Set<String>> directDependencies = new HashMap<String, Set<String>>();
+    private final Map<String, Set<String>> affectedTests = new HashMap<String, Set<String>>();
+    private final Set<String> changedClasses = new HashSet<String>();
+    private final TestImpactState previous;
+    private final TestClassHistory history;
+    private final TestImpactState current;
+    private final boolean allAffected;
+    private int skippedCount;
+
+    /**
+     * @param classDirectories The class directories, in classpath order.
+     * @param classpathSignature The signature of the things which affect every test class.
+     * @param previous The state as of the previous execution, or null if there is none.
+     * @param history The history of the test classes.
+     */
+    public TestImpactAnalyzer(Iterable<File> classDirectories, String classpathSignature, TestImpactState previous,
+                              TestClassHistory history) {
+        this.previous = previous;
+        this.history = history;
+
+        Map<String, String> classSignatures = new HashMap<String, String>();
+        StringBuilder resourceSignatures = new StringBuilder(classpathSignature);
+        for (File classDirectory : classDirectories) {
+            addClassFiles(classDirectory, "", classSignatures, resourceSignatures);
+        }
+        String stateSignature = HashUtil.createHash(resourceSignatures.toString());
+        current = new TestImpactState(stateSignature, classSignatures);
+
+        allAffected = previous == null || !previous.getClasspathSignature().equals(stateSignature);
+        if (!allAffected) {
+            Set<String> classNames = new HashSet<String>(classSignatures.keySet());
+            classNames.addAll(previous.getClassSignatures().keySet());
+            for (String className : classNames) {
+                String signature = classSignatures.get(className);
+                if (signature == null || !signature.equals(previous.getClassSignatures().get(className))) {
+                    changedClasses.add(className);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the signature of the given files, which changes when any of the files are added, removed or modified.
+     */
+    public static String classpathSignature(Iterable<File> files) {
+        return classpathSignature(files, Collections.emptyList());
+    }
+
+    /**
+     * Returns the signature of the given files and values, which changes when any of the files are added, removed or
+     * modified, or when the string value of any of the values changes.
+     */
+    public static String classpathSignature(Iterable<File> files, Iterable<?> values) {
+        StringBuilder signature = new StringBuilder();
+        for (File file : files) {
+            signature.append(file.getAbsolutePath()).append(File.pathSeparatorChar);
+            if (file.isFile()) {
+                signature.append(signature(file));
+            }
+            signature.append(File.pathSeparatorChar);
+        }
+        for (Object value : values) {
+            signature.append(value).append(File.pathSeparatorChar);
+        }
+        return HashUtil.createHash(signature.toString());
+    }
+
+    private static String signature(File file) {
+        return file.length() + ":" + file.lastModified();
+    }
+
+    private void addClassFiles(File directory, String packagePrefix, Map<String, String> classSignatures,
+                               StringBuilder resourceSignatures) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        // Sort the files, so that the resource signatures are in the same order each time
+        Arrays.sort(files);
+        for (File file : files) {
+            if (file.isDirectory()) {
+                addClassFiles(file, packagePrefix + file.getName() + '/', classSignatures, resourceSignatures);
+            } else if (file.getName().endsWith(".class")) {
+                String className = packagePrefix + file.getName().substring(0, file.getName().length() - 6);
+                if (!classFiles.containsKey(className)) {
+                    classFiles.put(className, file);
+                    classSignatures.put(className, signature(file));
+                }
+            } else {
+                // Which classes use a resource is not known, so a changed resource affects every test class
+                resourceSignatures.append(File.pathSeparatorChar).append(file.getAbsolutePath());
+                resourceSignatures.append(File.pathSeparatorChar).append(signature(file));
+            }
+        }
+    }
+
+    public synchronized boolean isSatisfiedBy(TestClassRunInfo testClass) {
+        String className = testClass.getTestClassName().replace('.', '/');
+        Set<String> previousDependencies = previous == null ? null : previous.getTestDependencies(className);
+        if (allAffected || previousDependencies == null || history.isFailed(testClass.getTestClassName())
+                || !Collections.disjoint(previousDependencies, changedClasses)) {
+            affectedTests.put(className, dependencies(className));
+            return true;
+        }
+        current.addTestDependencies(className, previousDependencies);
+        skippedCount++;
+        return false;
+    }
+
+    /**
+     * Returns the number of test classes which were not affected by the changes.
+     */
+    public synchronized int getSkippedCount() {
+        return skippedCount;
+    }
+
+    /**
+     * Returns the state to use for the next execution. The dependencies of an affected test class are only kept when
+     * the test class has been executed, so that it is affected again next time if it has not.
+     *
+     * @param executed The history of the test classes which have been executed.
+     */
+    public synchronized TestImpactState getState(TestClassHistory executed) {
+        for (Map.Entry<String, Set<String>> entry : affectedTests.entrySet()) {
+            if (!entry.getValue().isEmpty() && executed.getClassNames().contains(entry.getKey().replace('/', '.'))) {
+                current.addTestDependencies(entry.getKey(), entry.getValue());
+            }
+        }
+        return current;
+    }
+
+    private Set<String> dependencies(String testClassName) {
+        Set<String> dependencies = new HashSet<String>();
+        LinkedList<String> queue = new LinkedList<String>();
+        queue.add(testClassName);
+        while (!queue.isEmpty()) {
+            String className = queue.removeFirst();
+            File classFile = classFiles.get(className);
+            if (classFile == null || !dependencies.add(className)) {
+                continue;
+            }
+            Set<String> classDependencies = directDependencies.get(className);
+            if (classDependencies == null) {
+                classDependencies = dependencyReader.readDependencies(classFile);
+                directDependencies.put(className, classDependencies);
+            }
+            queue.addAll(classDependencies);
+        }
+        return dependencies;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.impact;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The state of the classes under test, and the classes each test class depends on, as of the most recent execution of
+ * a test task.
+ */
+public class TestImpactState {
+    private final String classpathSignature;
+    private final Map<String, String> classSignatures;
+    private final Map<String, Set<String>> testDependencies = new HashMap<String, Set<String>>();
+
+    /**
+     * @param classpathSignature The signature of the things which affect every test class, such as the library jars.
+     * @param classSignatures The signature of each class file, by class name.
+     */
+    public TestImpactState(String classpathSignature, Map<String, String> classSignatures) {
+        this.classpathSignature = classpathSignature;
+        this.classSignatures = classSignatures;
+    }
+
+    public String getClasspathSignature() {
+        return classpathSignature;
+    }
+
+    public Map<String, String> getClassSignatures() {
+        return classSignatures;
+    }
+
+    /**
+     * Returns the test classes whose dependencies are known, by class name.
+     */
+    public Set<String> getTestClassNames() {
+        return testDependencies.keySet();
+    }
+
+    /**
+     * Returns the classes the given test class depends on, including the test class itself.
+     *
+     * @return The class names, or null when the dependencies of the test class are not known.
+     */
+    public Set<String> getTestDependencies(String testClassName) {
+        return testDependencies.get(testClassName);
+    }
+
+    public void addTestDependencies(String testClassName, Set<String> dependencies) {
+        testDependencies.put(testClassName, dependencies);
+    }
+}
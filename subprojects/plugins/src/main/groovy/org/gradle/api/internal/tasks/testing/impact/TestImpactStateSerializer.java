@@ -0,0 +1,69 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.impact;
+
+import org.gradle.cache.Serializer;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.*;
+
+public class TestImpactStateSerializer implements Serializer<TestImpactState> {
+    public TestImpactState read(InputStream instr) throws Exception {
+        DataInputStream input = new DataInputStream(instr);
+        String classpathSignature = input.readUTF();
+        int classCount = input.readInt();
+        Map<String, String> classSignatures = new HashMap<String, String>();
+        for (int i = 0; i < classCount; i++) {
+            String className = input.readUTF();
+            classSignatures.put(className, input.readUTF());
+        }
+        TestImpactState state = new TestImpactState(classpathSignature, classSignatures);
+        int testCount = input.readInt();
+        for (int i = 0; i < testCount; i++) {
+            String testClassName = input.readUTF();
+            int dependencyCount = input.readInt();
+            Set<String> dependencies = new HashSet<String>();
+            for (int j = 0; j < dependencyCount; j++) {
+                dependencies.add(input.readUTF());
+            }
+            state.addTestDependencies(testClassName, dependencies);
+        }
+        return state;
+    }
+
+    public void write(OutputStream outstr, TestImpactState value) throws Exception {
+        DataOutputStream output = new DataOutputStream(outstr);
+        output.writeUTF(value.getClasspathSignature());
+        output.writeInt(value.getClassSignatures().size());
+        for (Map.Entry<String, String> entry : value.getClassSignatures().entrySet()) {
+            output.writeUTF(entry.getKey());
+            output.writeUTF(entry.getValue());
+        }
+        output.writeInt(value.getTestClassNames().size());
+        for (String testClassName : value.getTestClassNames()) {
+            Set<String> dependencies = value.getTestDependencies(testClassName);
+            output.writeUTF(testClassName);
+            output.writeInt(dependencies.size());
+            for (String dependency : dependencies) {
+                output.writeUTF(dependency);
+            }
+        }
+        output.flush();
+    }
+}
@@ -20,34 +20,75 @@ import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.processors.CaptureTestOutputTestResultProcessor;
+import org.gradle.api.internal.tasks.testing.processors.PerThreadStandardOutputRedirector;
 import org.gradle.api.internal.tasks.testing.results.AttachParentTestResultProcessor;
 import org.gradle.listener.ListenerBroadcast;
 import org.gradle.logging.StandardOutputRedirector;
+import org.gradle.messaging.concurrent.DaemonExecutors;
 import org.gradle.util.IdGenerator;
 import org.gradle.util.TimeProvider;
 import org.gradle.util.TrueTimeProvider;
+import org.gradle.util.UncheckedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Executes JUnit test classes. When more than one test class may be executed in parallel, each test class is executed
+ * by a thread of a pool, and the output written by that thread, and by the threads it starts, is attributed to the test
+ * class.
+ */
 public class JUnitTestClassProcessor implements TestClassProcessor {
     private static final Logger LOGGER = LoggerFactory.getLogger(JUnitTestClassProcessor.class);
     private final File testResultsDir;
     private final IdGenerator<?> idGenerator;
     private final StandardOutputRedirector outputRedirector;
+    private final int maxParallelClasses;
     private final TimeProvider timeProvider = new TrueTimeProvider();
-    private JUnitTestClassExecuter executer;
+    private final ThreadLocal<JUnitTestClassExecuter> executers = new ThreadLocal<JUnitTestClassExecuter>() {
+        @Override
+        protected JUnitTestClassExecuter initialValue() {
+            return createExecuter();
+        }
+    };
+    private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    private ClassLoader applicationClassLoader;
+    private TestResultProcessor resultProcessor;
+    private ExecutorService executor;
+    private Semaphore idleThreads;
 
     public JUnitTestClassProcessor(File testResultsDir, IdGenerator<?> idGenerator,
                                    StandardOutputRedirector standardOutputRedirector) {
+        this(testResultsDir, idGenerator, standardOutputRedirector, 1);
+    }
+
+    public JUnitTestClassProcessor(File testResultsDir, IdGenerator<?> idGenerator,
+                                   StandardOutputRedirector standardOutputRedirector, int maxParallelClasses) {
         this.testResultsDir = testResultsDir;
         this.idGenerator = idGenerator;
-        this.outputRedirector = standardOutputRedirector;
+        this.maxParallelClasses = maxParallelClasses;
+        this.outputRedirector = maxParallelClasses > 1 ? new PerThreadStandardOutputRedirector(
+                standardOutputRedirector) : standardOutputRedirector;
     }
 
     public void startProcessing(TestResultProcessor resultProcessor) {
-        ClassLoader applicationClassLoader = Thread.currentThread().getContextClassLoader();
+        applicationClassLoader = Thread.currentThread().getContextClassLoader();
+        this.resultProcessor = resultProcessor;
+        if (maxParallelClasses > 1) {
+            executor = Executors.newFixedThreadPool(maxParallelClasses, DaemonExecutors.newThreadFactory(
+                    "Test worker"));
+            idleThreads = new Semaphore(maxParallelClasses);
+        }
+    }
+
+    /**
+     * Creates the executer for the current thread. The executer and its result processors keep the state of the test
+     * class being executed, so each thread uses its own.
+     */
+    private JUnitTestClassExecuter createExecuter() {
         ListenerBroadcast<TestResultProcessor> processors = new ListenerBroadcast<TestResultProcessor>(
                 TestResultProcessor.class);
         processors.add(new JUnitXmlReportGenerator(testResultsDir));
@@ -55,14 +96,46 @@ public class JUnitTestClassProcessor implements TestClassProcessor {
         TestResultProcessor resultProcessorChain = new AttachParentTestResultProcessor(new CaptureTestOutputTestResultProcessor(processors.getSource(), outputRedirector));
         JUnitTestResultProcessorAdapter listener = new JUnitTestResultProcessorAdapter(resultProcessorChain,
                 timeProvider, idGenerator);
-        executer = new JUnitTestClassExecuter(applicationClassLoader, listener, resultProcessorChain, idGenerator, timeProvider);
+        return new JUnitTestClassExecuter(applicationClassLoader, listener, resultProcessorChain, idGenerator, timeProvider);
     }
 
     public void processTestClass(TestClassRunInfo testClass) {
-        LOGGER.debug("Executing test {}", testClass.getTestClassName());
-        executer.execute(testClass.getTestClassName());
+        final String testClassName = testClass.getTestClassName();
+        if (executor == null) {
+            LOGGER.debug("Executing test {}", testClassName);
+            executers.get().execute(testClassName);
+            return;
+        }
+
+        // Wait for an idle thread, so that a test class is only accepted once it can be executed
+        idleThreads.acquireUninterruptibly();
+        executor.execute(new Runnable() {
+            public void run() {
+                LOGGER.debug("Executing test {}", testClassName);
+                Thread.currentThread().setContextClassLoader(applicationClassLoader);
+                try {
+                    executers.get().execute(testClassName);
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    idleThreads.release();
+                }
+            }
+        });
     }
 
     public void stop() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            throw UncheckedException.asUncheckedException(e);
+        }
+        if (failure.get() != null) {
+            throw UncheckedException.asUncheckedException(failure.get());
+        }
     }
 }
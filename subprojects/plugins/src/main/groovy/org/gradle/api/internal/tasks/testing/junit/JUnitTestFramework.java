@@ -25,6 +25,7 @@ import org.gradle.api.internal.tasks.testing.junit.report.DefaultTestReport;
 import org.gradle.api.internal.tasks.testing.junit.report.TestReporter;
 import org.gradle.api.tasks.testing.Test;
 import org.gradle.api.tasks.testing.junit.JUnitOptions;
+import org.gradle.messaging.concurrent.ExecutorFactory;
 import org.gradle.process.internal.WorkerProcessBuilder;
 import org.gradle.util.IdGenerator;
 
@@ -40,16 +41,16 @@ public class JUnitTestFramework implements TestFramework {
     private JUnitDetector detector;
     private final Test testTask;
 
-    public JUnitTestFramework(Test testTask) {
+    public JUnitTestFramework(Test testTask, ExecutorFactory executorFactory) {
         this.testTask = testTask;
-        reporter = new DefaultTestReport();
+        reporter = new DefaultTestReport(executorFactory);
         options = new JUnitOptions();
         detector = new JUnitDetector(testTask.getTestClassesDir(), testTask.getClasspath());
     }
 
     public WorkerTestClassProcessorFactory getProcessorFactory() {
         final File testResultsDir = testTask.getTestResultsDir();
-        return new TestClassProcessorFactoryImpl(testResultsDir);
+        return new TestClassProcessorFactoryImpl(testResultsDir, testTask.getMaxParallelClassesPerFork());
     }
 
     public Action<WorkerProcessBuilder> getWorkerConfigurationAction() {
@@ -93,13 +94,16 @@ public class JUnitTestFramework implements TestFramework {
 
     private static class TestClassProcessorFactoryImpl implements WorkerTestClassProcessorFactory, Serializable {
         private final File testResultsDir;
+        private final int maxParallelClasses;
 
-        public TestClassProcessorFactoryImpl(File testResultsDir) {
+        public TestClassProcessorFactoryImpl(File testResultsDir, int maxParallelClasses) {
             this.testResultsDir = testResultsDir;
+            this.maxParallelClasses = maxParallelClasses;
         }
 
         public TestClassProcessor create(ServiceRegistry serviceRegistry) {
-            return new JUnitTestClassProcessor(testResultsDir, serviceRegistry.get(IdGenerator.class), new JULRedirector());
+            return new JUnitTestClassProcessor(testResultsDir, serviceRegistry.get(IdGenerator.class), new JULRedirector(),
+                    maxParallelClasses);
         }
     }
 }
@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.tasks.testing.junit;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.tools.ant.util.DOMElementWriter;
 import org.apache.tools.ant.util.DateUtils;
 import org.gradle.api.GradleException;
@@ -24,109 +25,208 @@ import org.gradle.api.internal.tasks.testing.TestOutputEvent;
 import org.gradle.api.internal.tasks.testing.results.StateTrackingTestResultProcessor;
 import org.gradle.api.tasks.testing.TestResult;
 import org.gradle.util.UncheckedException;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import java.io.*;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.EnumMap;
 import java.util.Map;
 
+/**
+ * Writes a JUnit XML report file for each test class. The test case elements are written to a temporary file as the
+ * test cases complete, and the output of the test class is written to temporary files as it is received, so that
+ * neither is held in memory. The report file is assembled from the temporary files when the test class completes.
+ */
 public class JUnitXmlReportGenerator extends StateTrackingTestResultProcessor {
+    private static final String ENCODING = "UTF-8";
     private final File testResultsDir;
-    private final DocumentBuilder documentBuilder;
     private final String hostName;
-    private Document testSuiteReport;
+    private final DOMElementWriter xmlEncoder = new DOMElementWriter();
     private TestState testSuite;
-    private Element rootElement;
-    private Map<TestOutputEvent.Destination, StringBuilder> outputs
-            = new EnumMap<TestOutputEvent.Destination, StringBuilder>(TestOutputEvent.Destination.class);
+    private File testCasesFile;
+    private Writer testCases;
+    private final Map<TestOutputEvent.Destination, File> outputFiles
+            = new EnumMap<TestOutputEvent.Destination, File>(TestOutputEvent.Destination.class);
+    private final Map<TestOutputEvent.Destination, Writer> outputs
+            = new EnumMap<TestOutputEvent.Destination, Writer>(TestOutputEvent.Destination.class);
 
     public JUnitXmlReportGenerator(File testResultsDir) {
         this.testResultsDir = testResultsDir;
-        try {
-            documentBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-        } catch (Exception e) {
-            throw UncheckedException.asUncheckedException(e);
-        }
         hostName = getHostname();
     }
 
     @Override
     public void output(Object testId, TestOutputEvent event) {
-        outputs.get(event.getDestination()).append(event.getMessage());
+        try {
+            outputs.get(event.getDestination()).write(event.getMessage());
+        } catch (IOException e) {
+            throw UncheckedException.asUncheckedException(e);
+        }
     }
 
     @Override
     protected void started(TestState state) {
         TestDescriptorInternal test = state.test;
         if (test.getName().equals(test.getClassName())) {
-            testSuiteReport = documentBuilder.newDocument();
-            rootElement = testSuiteReport.createElement("testsuite");
-            testSuiteReport.appendChild(rootElement);
-            // Add an empty properties element for compatibility
-            rootElement.appendChild(testSuiteReport.createElement("properties"));
-            outputs.put(TestOutputEvent.Destination.StdOut, new StringBuilder());
-            outputs.put(TestOutputEvent.Destination.StdErr, new StringBuilder());
+            try {
+                testCasesFile = File.createTempFile("testcases", ".xml");
+                testCases = openSpoolFile(testCasesFile);
+                for (TestOutputEvent.Destination destination : TestOutputEvent.Destination.values()) {
+                    File outputFile = File.createTempFile("output", ".txt");
+                    outputFiles.put(destination, outputFile);
+                    outputs.put(destination, openSpoolFile(outputFile));
+                }
+            } catch (IOException e) {
+                deleteSpoolFiles();
+                throw UncheckedException.asUncheckedException(e);
+            }
             testSuite = state;
         }
     }
 
     @Override
     protected void completed(TestState state) {
+        try {
+            if (!state.equals(testSuite)) {
+                writeTestCase(state);
+                return;
+            }
+            try {
+                testCases.close();
+                for (Writer output : outputs.values()) {
+                    output.close();
+                }
+                writeReport(state);
+            } finally {
+                testSuite = null;
+                deleteSpoolFiles();
+            }
+        } catch (IOException e) {
+            throw UncheckedException.asUncheckedException(e);
+        }
+    }
+
+    private void writeTestCase(TestState state) throws IOException {
+        String elementName = state.resultType == TestResult.ResultType.SKIPPED ? "ignored-testcase" : "testcase";
+        testCases.write("  <");
+        testCases.write(elementName);
+        writeAttribute(testCases, "name", state.test.getName());
+        writeAttribute(testCases, "classname", state.test.getClassName());
+        writeAttribute(testCases, "time", String.valueOf(state.getExecutionTime() / 1000.0));
+        if (state.failures.isEmpty()) {
+            testCases.write(" />\n");
+            return;
+        }
+        testCases.write(">\n");
+        writeFailures(testCases, state, "    ");
+        testCases.write("  </");
+        testCases.write(elementName);
+        testCases.write(">\n");
+    }
+
+    private void writeReport(TestState state) throws IOException {
         String testClassName = state.test.getClassName();
-        Element element;
-        if (!state.equals(testSuite)) {
-            element = testSuiteReport.createElement(state.resultType == TestResult.ResultType.SKIPPED ? "ignored-testcase" : "testcase");
-            element.setAttribute("name", state.test.getName());
-            element.setAttribute("classname", testClassName);
-            rootElement.appendChild(element);
-        } else {
-            element = rootElement;
-            rootElement.setAttribute("name", testClassName);
-            rootElement.setAttribute("tests", String.valueOf(state.testCount));
-            rootElement.setAttribute("failures", String.valueOf(state.failedCount));
-            rootElement.setAttribute("errors", "0");
-            rootElement.setAttribute("timestamp", DateUtils.format(state.getStartTime(), DateUtils.ISO8601_DATETIME_PATTERN));
-            rootElement.setAttribute("hostname", hostName);
-            Element stdoutElement = testSuiteReport.createElement("system-out");
-            stdoutElement.appendChild(testSuiteReport.createCDATASection(outputs.get(TestOutputEvent.Destination.StdOut)
-                    .toString()));
-            rootElement.appendChild(stdoutElement);
-            Element stderrElement = testSuiteReport.createElement("system-err");
-            stderrElement.appendChild(testSuiteReport.createCDATASection(outputs.get(TestOutputEvent.Destination.StdErr)
-                    .toString()));
-            rootElement.appendChild(stderrElement);
+        File reportFile = new File(testResultsDir, "TEST-" + testClassName + ".xml");
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(reportFile), ENCODING));
+            try {
+                writer.write("<?xml version=\"1.0\" encoding=\"" + ENCODING + "\" ?>\n");
+                writer.write("<testsuite");
+                writeAttribute(writer, "name", testClassName);
+                writeAttribute(writer, "tests", String.valueOf(state.testCount));
+                writeAttribute(writer, "failures", String.valueOf(state.failedCount));
+                writeAttribute(writer, "errors", "0");
+                writeAttribute(writer, "timestamp", DateUtils.format(state.getStartTime(),
+                        DateUtils.ISO8601_DATETIME_PATTERN));
+                writeAttribute(writer, "hostname", hostName);
+                writeAttribute(writer, "time", String.valueOf(state.getExecutionTime() / 1000.0));
+                writer.write(">\n");
+                // Add an empty properties element for compatibility
+                writer.write("  <properties />\n");
+                copy(testCasesFile, writer, false);
+                writer.write("  <system-out>");
+                copy(outputFiles.get(TestOutputEvent.Destination.StdOut), writer, true);
+                writer.write("</system-out>\n");
+                writer.write("  <system-err>");
+                copy(outputFiles.get(TestOutputEvent.Destination.StdErr), writer, true);
+                writer.write("</system-err>\n");
+                writeFailures(writer, state, "  ");
+                writer.write("</testsuite>\n");
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            throw new GradleException(String.format("Could not write test report file '%s'.", reportFile), e);
         }
+    }
 
-        element.setAttribute("time", String.valueOf(state.getExecutionTime() / 1000.0));
+    private void writeFailures(Writer writer, TestState state, String indent) throws IOException {
         for (Throwable failure : state.failures) {
-            Element failureElement = testSuiteReport.createElement("failure");
-            element.appendChild(failureElement);
-            failureElement.setAttribute("message", failureMessage(failure));
-            failureElement.setAttribute("type", failure.getClass().getName());
-            failureElement.appendChild(testSuiteReport.createTextNode(stackTrace(failure)));
+            writer.write(indent);
+            writer.write("<failure");
+            writeAttribute(writer, "message", failureMessage(failure));
+            writeAttribute(writer, "type", failure.getClass().getName());
+            writer.write(">");
+            writer.write(xmlEncoder.encode(stackTrace(failure)));
+            writer.write("</failure>\n");
         }
+    }
 
-        if (state.equals(testSuite)) {
-            File reportFile = new File(testResultsDir, "TEST-" + testClassName + ".xml");
-            try {
-                OutputStream outstr = new BufferedOutputStream(new FileOutputStream(reportFile));
-                try {
-                    new DOMElementWriter(true).write(rootElement, outstr);
-                } finally {
-                    outstr.close();
+    private void writeAttribute(Writer writer, String name, String value) throws IOException {
+        writer.write(' ');
+        writer.write(name);
+        writer.write("=\"");
+        writer.write(xmlEncoder.encode(value));
+        writer.write('"');
+    }
+
+    /**
+     * Copies the content of the given spool file to the report. Output is copied a chunk at a time, each chunk as a
+     * CDATA section of its own.
+     */
+    private void copy(File spoolFile, Writer writer, boolean asCData) throws IOException {
+        Reader reader = new InputStreamReader(new FileInputStream(spoolFile), ENCODING);
+        try {
+            char[] buffer = new char[64 * 1024];
+            boolean empty = true;
+            int count;
+            while ((count = reader.read(buffer)) > 0) {
+                empty = false;
+                if (asCData) {
+                    writer.write("<![CDATA[");
+                    writer.write(xmlEncoder.encodedata(new String(buffer, 0, count)));
+                    writer.write("]]>");
+                } else {
+                    writer.write(buffer, 0, count);
                 }
-            } catch (IOException e) {
-                throw new GradleException(String.format("Could not write test report file '%s'.", reportFile), e);
             }
+            if (empty && asCData) {
+                writer.write("<![CDATA[]]>");
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private Writer openSpoolFile(File file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), ENCODING));
+    }
 
-            testSuite = null;
-            outputs.clear();
+    private void deleteSpoolFiles() {
+        if (testCases != null) {
+            IOUtils.closeQuietly(testCases);
+            testCasesFile.delete();
+            testCases = null;
+            testCasesFile = null;
+        }
+        for (Writer output : outputs.values()) {
+            IOUtils.closeQuietly(output);
+        }
+        for (File outputFile : outputFiles.values()) {
+            outputFile.delete();
         }
+        outputs.clear();
+        outputFiles.clear();
     }
 
     private String stackTrace(Throwable throwable) {
@@ -17,9 +17,8 @@ package org.gradle.api.internal.tasks.testing.junit.report;
 
 import org.apache.commons.lang.StringUtils;
 
-import java.util.Collection;
-import java.util.Set;
-import java.util.TreeSet;
+import java.io.File;
+import java.util.*;
 
 /**
  * Test results for a given class.
@@ -28,8 +27,9 @@ public class ClassTestResults extends CompositeTestResults {
     private final String name;
     private final PackageTestResults packageResults;
     private final Set<TestResult> results = new TreeSet<TestResult>();
-    private final StringBuilder standardOutput = new StringBuilder();
-    private final StringBuilder standardError = new StringBuilder();
+    private final List<File> outputSources = new ArrayList<File>();
+    private boolean hasStandardOutput;
+    private boolean hasStandardError;
 
     public ClassTestResults(String name, PackageTestResults packageResults) {
         super(packageResults);
@@ -62,12 +62,37 @@ public class ClassTestResults extends CompositeTestResults {
         return results;
     }
 
+    public boolean hasStandardError() {
+        return hasStandardError;
+    }
+
+    public boolean hasStandardOutput() {
+        return hasStandardOutput;
+    }
+
+    /**
+     * Reads the standard error of this class from the result files. The output is not kept by this model.
+     */
     public CharSequence getStandardError() {
-        return standardError;
+        return readOutput("system-err");
     }
 
+    /**
+     * Reads the standard output of this class from the result files. The output is not kept by this model.
+     */
     public CharSequence getStandardOutput() {
-        return standardOutput;
+        return readOutput("system-out");
+    }
+
+    private CharSequence readOutput(String elementName) {
+        StringBuilder output = new StringBuilder();
+        if (!outputSources.isEmpty()) {
+            TestResultsFileParser parser = new TestResultsFileParser();
+            for (File outputSource : outputSources) {
+                output.append(parser.readOutput(outputSource, elementName));
+            }
+        }
+        return output;
     }
 
     public TestResult addTest(String testName, long duration) {
@@ -76,11 +101,12 @@ public class ClassTestResults extends CompositeTestResults {
         return addTest(test);
     }
 
-    public void addStandardOutput(String textContent) {
-        standardOutput.append(textContent);
-    }
-
-    public void addStandardError(String textContent) {
-        standardError.append(textContent);
+    /**
+     * Adds a result file which contains output of this class.
+     */
+    public void addOutputSource(File resultsFile, boolean hasStandardOutput, boolean hasStandardError) {
+        outputSources.add(resultsFile);
+        this.hasStandardOutput |= hasStandardOutput;
+        this.hasStandardError |= hasStandardError;
     }
 }
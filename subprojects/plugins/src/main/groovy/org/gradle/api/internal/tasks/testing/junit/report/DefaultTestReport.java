@@ -17,10 +17,10 @@ package org.gradle.api.internal.tasks.testing.junit.report;
 
 import org.apache.commons.io.IOUtils;
 import org.gradle.api.GradleException;
+import org.gradle.messaging.concurrent.ExecutorFactory;
+import org.gradle.messaging.concurrent.StoppableExecutor;
+import org.gradle.util.UncheckedException;
 import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -30,13 +30,24 @@ import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import java.io.*;
-import java.math.BigDecimal;
-
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Generates the HTML test report from the JUnit XML result files. The result files are parsed and the pages are
+ * rendered using several threads. Each thread works through its own batch of files or pages, using its own parser and
+ * transformer.
+ */
 public class DefaultTestReport implements TestReporter {
+    private static final int THREAD_COUNT = Runtime.getRuntime().availableProcessors();
+    private final ExecutorFactory executorFactory;
     private File resultDir;
     private File reportDir;
-    private DocumentBuilder documentBuilder;
-    private Transformer transformer;
+
+    public DefaultTestReport(ExecutorFactory executorFactory) {
+        this.executorFactory = executorFactory;
+    }
 
     public void setTestResultsDir(File resultDir) {
         this.resultDir = resultDir;
@@ -47,107 +58,158 @@ public class DefaultTestReport implements TestReporter {
     }
 
     public void generateReport() {
-        AllTestResults model = loadModel();
-        generateFiles(model);
+        // There is at most one task for each thread, so the executor does not need to limit its threads
+        StoppableExecutor executor = executorFactory.create("Test report");
+        try {
+            AllTestResults model = loadModel(executor);
+            generateFiles(model, executor);
+        } finally {
+            executor.stop();
+        }
     }
 
-    private AllTestResults loadModel() {
-        AllTestResults model = new AllTestResults();
+    private AllTestResults loadModel(Executor executor) {
+        final AllTestResults model = new AllTestResults();
         if (resultDir.exists()) {
+            List<File> resultFiles = new ArrayList<File>();
             for (File file : resultDir.listFiles()) {
                 if (file.getName().startsWith("TEST-") && file.getName().endsWith(".xml")) {
-                    mergeFromFile(file, model);
+                    resultFiles.add(file);
                 }
             }
+            List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+            for (final List<File> batch : batches(resultFiles)) {
+                tasks.add(new Callable<Void>() {
+                    public Void call() {
+                        TestResultsFileParser parser = new TestResultsFileParser();
+                        for (File file : batch) {
+                            parser.mergeFromFile(file, model);
+                        }
+                        return null;
+                    }
+                });
+            }
+            execute(executor, tasks, String.format("Could not load test results from '%s'.", resultDir));
         }
         return model;
     }
 
-    private void mergeFromFile(File file, AllTestResults model) {
-        try {
-            InputStream inputStream = new FileInputStream(file);
-            Document document;
-            try {
-                document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new InputSource(inputStream));
-            } finally {
-                inputStream.close();
+    private void generateFiles(AllTestResults model, Executor executor) {
+        List<Page<?>> pages = new ArrayList<Page<?>>();
+        pages.add(new Page<AllTestResults>(model, new OverviewPageRenderer(), new File(reportDir, "index.html")));
+        for (PackageTestResults packageResults : model.getPackages()) {
+            pages.add(new Page<PackageTestResults>(packageResults, new PackagePageRenderer(), new File(reportDir,
+                    packageResults.getName() + ".html")));
+            for (ClassTestResults classResults : packageResults.getClasses()) {
+                pages.add(new Page<ClassTestResults>(classResults, new ClassPageRenderer(), new File(reportDir,
+                        classResults.getName() + ".html")));
             }
-            NodeList testCases = document.getElementsByTagName("testcase");
-            for (int i = 0; i < testCases.getLength(); i++) {
-                Element testCase = (Element) testCases.item(i);
-                String className = testCase.getAttribute("classname");
-                String testName = testCase.getAttribute("name");
-                LocaleSafeDecimalFormat format = new LocaleSafeDecimalFormat();
-                BigDecimal duration = format.parse(testCase.getAttribute("time"));
-                duration = duration.multiply(BigDecimal.valueOf(1000));
-                NodeList failures = testCase.getElementsByTagName("failure");
-                TestResult testResult = model.addTest(className, testName, duration.longValue());
-                for (int j = 0; j < failures.getLength(); j++) {
-                    Element failure = (Element) failures.item(j);
-                    testResult.addFailure(failure.getAttribute("message"), failure.getTextContent());
+        }
+
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (final List<Page<?>> batch : batches(pages)) {
+            tasks.add(new Callable<Void>() {
+                public Void call() throws Exception {
+                    PageGenerator generator = new PageGenerator();
+                    for (Page<?> page : batch) {
+                        page.generate(generator);
+                    }
+                    return null;
                 }
+            });
+        }
+        String failureMessage = String.format("Could not generate test report to '%s'.", reportDir);
+        execute(executor, tasks, failureMessage);
+
+        try {
+            copyResources();
+        } catch (Exception e) {
+            throw new GradleException(failureMessage, e);
+        }
+    }
+
+    private static <T> List<List<T>> batches(List<T> items) {
+        int batchCount = Math.max(1, Math.min(THREAD_COUNT, items.size()));
+        List<List<T>> batches = new ArrayList<List<T>>();
+        for (int i = 0; i < batchCount; i++) {
+            batches.add(new ArrayList<T>());
+        }
+        for (int i = 0; i < items.size(); i++) {
+            batches.get(i % batchCount).add(items.get(i));
+        }
+        return batches;
+    }
+
+    private void execute(Executor executor, List<Callable<Void>> tasks, String failureMessage) {
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        try {
+            for (Callable<Void> task : tasks) {
+                FutureTask<Void> future = new FutureTask<Void>(task);
+                futures.add(future);
+                executor.execute(future);
             }
-            NodeList ignoredTestCases = document.getElementsByTagName("ignored-testcase");
-            for (int i = 0; i < ignoredTestCases.getLength(); i++) {
-                Element testCase = (Element) ignoredTestCases.item(i);
-                String className = testCase.getAttribute("classname");
-                String testName = testCase.getAttribute("name");
-                model.addTest(className, testName, 0).ignored();
+            for (Future<Void> future : futures) {
+                future.get();
             }
-            String suiteClassName = document.getDocumentElement().getAttribute("name");
-            ClassTestResults suiteResults = model.addTestClass(suiteClassName);
-            NodeList stdOutElements = document.getElementsByTagName("system-out");
-            for (int i = 0; i < stdOutElements.getLength(); i++) {
-                suiteResults.addStandardOutput(stdOutElements.item(i).getTextContent());
+        } catch (InterruptedException e) {
+            throw UncheckedException.asUncheckedException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof GradleException) {
+                throw (GradleException) e.getCause();
             }
-            NodeList stdErrElements = document.getElementsByTagName("system-err");
-            for (int i = 0; i < stdErrElements.getLength(); i++) {
-                suiteResults.addStandardError(stdErrElements.item(i).getTextContent());
+            throw new GradleException(failureMessage, e.getCause());
+        } finally {
+            for (Future<Void> future : futures) {
+                future.cancel(true);
             }
-        } catch (Exception e) {
-            throw new GradleException(String.format("Could not load test results from '%s'.", file), e);
         }
     }
 
-    private void generateFiles(AllTestResults model) {
-        try {
-            generatePage(model, new OverviewPageRenderer(), new File(reportDir, "index.html"));
-            for (PackageTestResults packageResults : model.getPackages()) {
-                generatePage(packageResults, new PackagePageRenderer(), new File(reportDir, packageResults.getName() + ".html"));
-                for (ClassTestResults classResults : packageResults.getClasses()) {
-                    generatePage(classResults, new ClassPageRenderer(), new File(reportDir, classResults.getName() + ".html"));
-                }
-            }
+    private static class Page<T extends CompositeTestResults> {
+        private final T model;
+        private final PageRenderer<T> renderer;
+        private final File outputFile;
 
-            copyResources();
+        private Page(T model, PageRenderer<T> renderer, File outputFile) {
+            this.model = model;
+            this.renderer = renderer;
+            this.outputFile = outputFile;
+        }
 
-        } catch (Exception e) {
-            throw new GradleException(String.format("Could not generate test report to '%s'.", reportDir), e);
+        public void generate(PageGenerator generator) throws Exception {
+            generator.generatePage(model, renderer, outputFile);
         }
     }
 
-    private <T extends CompositeTestResults> void generatePage(T model, PageRenderer<T> renderer, File outputFile) throws Exception {
-        if (documentBuilder == null) {
-            documentBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-        }
-        Document document = documentBuilder.newDocument();
-        renderer.render(document, model);
+    /**
+     * Renders pages to files. Each instance can be used by one thread at a time, as the document builder and
+     * transformer are not thread-safe.
+     */
+    private static class PageGenerator {
+        private final DocumentBuilder documentBuilder;
+        private final Transformer transformer;
 
-        if (transformer == null) {
-            TransformerFactory factory = TransformerFactory.newInstance();
-            transformer = factory.newTransformer();
+        private PageGenerator() throws Exception {
+            documentBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+            transformer = TransformerFactory.newInstance().newTransformer();
             transformer.setOutputProperty(OutputKeys.INDENT, "yes");
             transformer.setOutputProperty(OutputKeys.METHOD, "html");
             transformer.setOutputProperty(OutputKeys.MEDIA_TYPE, "text/html");
         }
 
-        outputFile.getParentFile().mkdirs();
-        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFile), "utf-8"));
-        try {
-            writer.write("<!DOCTYPE HTML PUBLIC \"-//W3C//DTD HTML 4.01//EN\" \"http://www.w3.org/TR/html4/strict.dtd\">\n");
-            transformer.transform(new DOMSource(document), new StreamResult(writer));
-        } finally {
-            writer.close();
+        public <T extends CompositeTestResults> void generatePage(T model, PageRenderer<T> renderer, File outputFile)
+                throws Exception {
+            Document document = documentBuilder.newDocument();
+            renderer.render(document, model);
+
+            outputFile.getParentFile().mkdirs();
+            Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFile), "utf-8"));
+            try {
+                writer.write("<!DOCTYPE HTML PUBLIC \"-//W3C//DTD HTML 4.01//EN\" \"http://www.w3.org/TR/html4/strict.dtd\">\n");
+                transformer.transform(new DOMSource(document), new StreamResult(writer));
+            } finally {
+                writer.close();
+            }
         }
     }
 
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.junit.report;
+
+import org.gradle.api.GradleException;
+import org.gradle.util.UncheckedException;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.File;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads JUnit XML result files using a SAX parser, so that a result file is never held in memory as a whole. Each
+ * instance can be used by one thread at a time.
+ */
+class TestResultsFileParser {
+    private final SAXParser parser;
+    private final LocaleSafeDecimalFormat format = new LocaleSafeDecimalFormat();
+
+    TestResultsFileParser() {
+        try {
+            parser = SAXParserFactory.newInstance().newSAXParser();
+        } catch (Exception e) {
+            throw UncheckedException.asUncheckedException(e);
+        }
+    }
+
+    /**
+     * Adds the test results in the given file to the given model. The output of the test class is not loaded, the
+     * file is added to the model as the source of the output instead. The model is locked while the results are
+     * added, so several parsers can add results to the same model at once.
+     */
+    public void mergeFromFile(File file, AllTestResults model) {
+        ResultsHandler handler = new ResultsHandler();
+        try {
+            parser.parse(file, handler);
+        } catch (Exception e) {
+            throw new GradleException(String.format("Could not load test results from '%s'.", file), e);
+        }
+
+        synchronized (model) {
+            for (TestCase testCase : handler.testCases) {
+                TestResult testResult = model.addTest(testCase.className, testCase.name, testCase.duration);
+                if (testCase.ignored) {
+                    testResult.ignored();
+                }
+                for (String[] failure : testCase.failures) {
+                    testResult.addFailure(failure[0], failure[1]);
+                }
+            }
+            ClassTestResults suiteResults = model.addTestClass(handler.suiteClassName);
+            if (handler.hasStandardOutput || handler.hasStandardError) {
+                suiteResults.addOutputSource(file, handler.hasStandardOutput, handler.hasStandardError);
+            }
+        }
+    }
+
+    /**
+     * Returns the content of the elements with the given name in the given file, such as {@code system-out}.
+     */
+    public String readOutput(File file, final String elementName) {
+        final StringBuilder output = new StringBuilder();
+        try {
+            parser.parse(file, new DefaultHandler() {
+                private int depth;
+
+                @Override
+                public void startElement(String uri, String localName, String qName, Attributes attributes) {
+                    if (depth > 0 || qName.equals(elementName)) {
+                        depth++;
+                    }
+                }
+
+                @Override
+                public void endElement(String uri, String localName, String qName) {
+                    if (depth > 0) {
+                        depth--;
+                    }
+                }
+
+                @Override
+                public void characters(char[] ch, int start, int length) {
+                    if (depth > 0) {
+                        output.append(ch, start, length);
+                    }
+                }
+            });
+        } catch (Exception e) {
+            throw new GradleException(String.format("Could not load test results from '%s'.", file), e);
+        }
+        return output.toString();
+    }
+
+    private static class TestCase {
+        private final String className;
+        private final String name;
+        private final long duration;
+        private final boolean ignored;
+        private final List<String[]> failures = new ArrayList<String[]>();
+
+        private TestCase(String className, String name, long duration, boolean ignored) {
+            this.className = className;
+            this.name = name;
+            this.duration = duration;
+            this.ignored = ignored;
+        }
+    }
+
+    private class ResultsHandler extends DefaultHandler {
+        private final List<TestCase> testCases = new ArrayList<TestCase>();
+        private String suiteClassName;
+        private boolean hasStandardOutput;
+        private boolean hasStandardError;
+        private TestCase testCase;
+        private String failureMessage;
+        private StringBuilder failureText;
+        private String outputElement;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if (suiteClassName == null) {
+                suiteClassName = value(attributes, "name");
+            }
+            if (qName.equals("testcase")) {
+                BigDecimal duration;
+                try {
+                    duration = format.parse(value(attributes, "time"));
+                } catch (Exception e) {
+                    throw UncheckedException.asUncheckedException(e);
+                }
+                duration = duration.multiply(BigDecimal.valueOf(1000));
+                testCase = new TestCase(value(attributes, "classname"), value(attributes, "name"),
+                        duration.longValue(), false);
+                testCases.add(testCase);
+            } else if (qName.equals("ignored-testcase")) {
+                testCases.add(new TestCase(value(attributes, "classname"), value(attributes, "name"), 0, true));
+            } else if (qName.equals("failure") && testCase != null && failureText == null) {
+                failureMessage = value(attributes, "message");
+                failureText = new StringBuilder();
+            } else if (qName.equals("system-out") || qName.equals("system-err")) {
+                outputElement = qName;
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            if (qName.equals("testcase")) {
+                testCase = null;
+            } else if (qName.equals("failure") && failureText != null) {
+                testCase.failures.add(new String[]{failureMessage, failureText.toString()});
+                failureText = null;
+            } else if (qName.equals(outputElement)) {
+                outputElement = null;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (failureText != null) {
+                failureText.append(ch, start, length);
+            } else if (outputElement != null && length > 0) {
+                // Only whether there is any output is needed here, the output is read when the report is rendered
+                if (outputElement.equals("system-out")) {
+                    hasStandardOutput = true;
+                } else {
+                    hasStandardError = true;
+                }
+            }
+        }
+
+        private String value(Attributes attributes, String name) {
+            String value = attributes.getValue(name);
+            return value == null ? "" : value;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.processors;
+
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.results.TestClassHistory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Holds back test classes until all of them have been detected, then passes them to the target processor in order of
+ * their previous execution time, longest first. Test classes with no history are passed on first, as their execution
+ * time is unknown. Optionally, test classes which failed last time are passed on before all others.
+ *
+ * <p>When the target processor gives each test class to whichever of its processors is idle, running the longest test
+ * classes first keeps the processors evenly loaded until the end.</p>
+ */
+public class HistoryOrderingTestClassProcessor implements TestClassProcessor {
+    private final TestClassProcessor processor;
+    private final TestClassHistory history;
+    private final boolean failedFirst;
+    private final List<TestClassRunInfo> testClasses = new ArrayList<TestClassRunInfo>();
+
+    public HistoryOrderingTestClassProcessor(TestClassProcessor processor, TestClassHistory history, boolean failedFirst) {
+        this.processor = processor;
+        this.history = history;
+        this.failedFirst = failedFirst;
+    }
+
+    public void startProcessing(TestResultProcessor resultProcessor) {
+        processor.startProcessing(resultProcessor);
+    }
+
+    public void processTestClass(TestClassRunInfo testClass) {
+        testClasses.add(testClass);
+    }
+
+    public void stop() {
+        try {
+            Collections.sort(testClasses, new HistoryComparator());
+            for (TestClassRunInfo testClass : testClasses) {
+                processor.processTestClass(testClass);
+            }
+        } finally {
+            testClasses.clear();
+            processor.stop();
+        }
+    }
+
+    private class HistoryComparator implements Comparator<TestClassRunInfo> {
+        public int compare(TestClassRunInfo testClass1, TestClassRunInfo testClass2) {
+            String className1 = testClass1.getTestClassName();
+            String className2 = testClass2.getTestClassName();
+            if (failedFirst) {
+                boolean failed1 = history.isFailed(className1);
+                boolean failed2 = history.isFailed(className2);
+                if (failed1 != failed2) {
+                    return failed1 ? -1 : 1;
+                }
+            }
+            Long duration1 = history.getDuration(className1);
+            Long duration2 = history.getDuration(className2);
+            if (duration1 == null) {
+                return duration2 == null ? 0 : -1;
+            }
+            if (duration2 == null) {
+                return 1;
+            }
+            return duration2.compareTo(duration1);
+        }
+    }
+}
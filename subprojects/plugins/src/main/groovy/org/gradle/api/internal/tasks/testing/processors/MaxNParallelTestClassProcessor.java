@@ -27,18 +27,26 @@ import org.gradle.messaging.dispatch.DispatchException;
 import org.gradle.util.UncheckedException;
 
 import java.util.ArrayList;
+import java.util.LinkedList;
 import java.util.List;
 
 /**
- * Manages a set of parallel TestClassProcessors. Uses a simple round-robin algorithm to assign test classes to
- * processors.
+ * Manages a set of parallel TestClassProcessors. Test classes are given to processors which are idle, and are queued
+ * when all processors are busy. A processor takes the next queued test class as soon as it has finished its current
+ * test class, so that a processor which is given some long running test classes does not hold up the others.
+ *
+ * <p>All of the processors are started when the first test class is received, so that they start up while that test
+ * class is processed and the remaining test classes are detected, rather than each one starting only once there is a
+ * test class for it.</p>
  */
 public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     private final int maxProcessors;
     private final Factory<TestClassProcessor> factory;
     private final ActorFactory actorFactory;
+    private final Object lock = new Object();
+    private final LinkedList<TestClassRunInfo> queue = new LinkedList<TestClassRunInfo>();
+    private final LinkedList<TestClassProcessor> idleProcessors = new LinkedList<TestClassProcessor>();
     private TestResultProcessor resultProcessor;
-    private int pos;
     private List<TestClassProcessor> processors = new ArrayList<TestClassProcessor>();
     private List<Actor> actors = new ArrayList<Actor>();
     private Actor resultProcessorActor;
@@ -56,18 +64,30 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
 
     public void processTestClass(TestClassRunInfo testClass) {
         TestClassProcessor processor;
-        if (processors.size() < maxProcessors) {
-            processor = factory.create();
-            Actor actor = actorFactory.createActor(processor);
-            processor = actor.getProxy(TestClassProcessor.class);
+        synchronized (lock) {
+            if (processors.isEmpty()) {
+                startProcessors();
+            }
+            if (idleProcessors.isEmpty()) {
+                queue.add(testClass);
+                return;
+            }
+            processor = idleProcessors.removeFirst();
+        }
+        processor.processTestClass(testClass);
+    }
+
+    private void startProcessors() {
+        for (int i = 0; i < maxProcessors; i++) {
+            SlotTestClassProcessor slot = new SlotTestClassProcessor(factory.create());
+            Actor actor = actorFactory.createActor(slot);
+            TestClassProcessor processor = actor.getProxy(TestClassProcessor.class);
+            slot.proxy = processor;
             actors.add(actor);
             processors.add(processor);
             processor.startProcessing(resultProcessor);
-        } else {
-            processor = processors.get(pos);
-            pos = (pos + 1) % processors.size();
+            idleProcessors.add(processor);
         }
-        processor.processTestClass(testClass);
     }
 
     public void stop() {
@@ -77,4 +97,46 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
             throw UncheckedException.asUncheckedException(e.getCause());
         }
     }
+
+    /**
+     * Returns the next queued test class for the given processor, or marks the processor as idle when there is none.
+     */
+    private TestClassRunInfo takeNextTestClass(TestClassProcessor processor) {
+        synchronized (lock) {
+            if (queue.isEmpty()) {
+                idleProcessors.add(processor);
+                return null;
+            }
+            return queue.removeFirst();
+        }
+    }
+
+    /**
+     * Wraps a processor, and keeps it busy with queued test classes until the queue is empty. Test classes are
+     * processed synchronously, on the thread of the actor which owns the slot.
+     */
+    private class SlotTestClassProcessor implements TestClassProcessor {
+        private final TestClassProcessor processor;
+        private TestClassProcessor proxy;
+
+        private SlotTestClassProcessor(TestClassProcessor processor) {
+            this.processor = processor;
+        }
+
+        public void startProcessing(TestResultProcessor resultProcessor) {
+            processor.startProcessing(resultProcessor);
+        }
+
+        public void processTestClass(TestClassRunInfo testClass) {
+            TestClassRunInfo next = testClass;
+            while (next != null) {
+                processor.processTestClass(next);
+                next = takeNextTestClass(proxy);
+            }
+        }
+
+        public void stop() {
+            processor.stop();
+        }
+    }
 }
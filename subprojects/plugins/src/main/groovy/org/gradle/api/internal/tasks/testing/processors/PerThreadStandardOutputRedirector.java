@@ -0,0 +1,122 @@
+/*
+ * Copyright 2010 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.processors;
+
+import org.gradle.api.logging.StandardOutputListener;
+import org.gradle.logging.StandardOutputCapture;
+import org.gradle.logging.StandardOutputRedirector;
+
+/**
+ * A {@link StandardOutputRedirector} which can be used by several threads at once, each redirecting the output it
+ * writes to its own destinations. The output of a thread goes to the destinations of the thread which started it,
+ * unless it has set its own. Output written by a thread with no destinations is discarded.
+ *
+ * <p>The target redirector is started when the first thread starts redirection, and is stopped when the last thread
+ * stops redirection.</p>
+ */
+public class PerThreadStandardOutputRedirector implements StandardOutputRedirector {
+    private final StandardOutputRedirector redirector;
+    private final ThreadLocal<Destinations> destinations = new InheritableThreadLocal<Destinations>();
+    private int started;
+
+    public PerThreadStandardOutputRedirector(StandardOutputRedirector redirector) {
+        this.redirector = redirector;
+    }
+
+    public void redirectStandardOutputTo(StandardOutputListener stdOutDestination) {
+        currentDestinations().stdOut = stdOutDestination;
+    }
+
+    public void redirectStandardErrorTo(StandardOutputListener stdErrDestination) {
+        currentDestinations().stdErr = stdErrDestination;
+    }
+
+    public StandardOutputCapture start() {
+        synchronized (redirector) {
+            if (started == 0) {
+                redirector.redirectStandardOutputTo(new StandardOutputListener() {
+                    public void onOutput(CharSequence output) {
+                        Destinations destinations = PerThreadStandardOutputRedirector.this.destinations.get();
+                        StandardOutputListener destination = destinations == null ? null : destinations.stdOut;
+                        if (destination != null) {
+                            destination.onOutput(output);
+                        }
+                    }
+                });
+                redirector.redirectStandardErrorTo(new StandardOutputListener() {
+                    public void onOutput(CharSequence output) {
+                        Destinations destinations = PerThreadStandardOutputRedirector.this.destinations.get();
+                        StandardOutputListener destination = destinations == null ? null : destinations.stdErr;
+                        if (destination != null) {
+                            destination.onOutput(output);
+                        }
+                    }
+                });
+                redirector.start();
+            }
+            started++;
+        }
+        return this;
+    }
+
+    public StandardOutputCapture stop() {
+        try {
+            // Send any partial line this thread has written, while its destinations are still in place
+            System.out.flush();
+            System.err.flush();
+        } finally {
+            Destinations current = destinations.get();
+            if (current != null) {
+                if (current.owner == Thread.currentThread()) {
+                    // Threads started by this thread share the destinations, so discard their output from now on
+                    current.stdOut = null;
+                    current.stdErr = null;
+                }
+                destinations.remove();
+            }
+            synchronized (redirector) {
+                started--;
+                if (started == 0) {
+                    redirector.stop();
+                }
+            }
+        }
+        return this;
+    }
+
+    private Destinations currentDestinations() {
+        Destinations current = destinations.get();
+        if (current == null || current.owner != Thread.currentThread()) {
+            // Don't change the destinations inherited from the starting thread, as that thread still uses them
+            current = new Destinations(current);
+            destinations.set(current);
+        }
+        return current;
+    }
+
+    private static class Destinations {
+        private final Thread owner = Thread.currentThread();
+        private volatile StandardOutputListener stdOut;
+        private volatile StandardOutputListener stdErr;
+
+        private Destinations(Destinations inherited) {
+            if (inherited != null) {
+                stdOut = inherited.stdOut;
+                stdErr = inherited.stdErr;
+            }
+        }
+    }
+}
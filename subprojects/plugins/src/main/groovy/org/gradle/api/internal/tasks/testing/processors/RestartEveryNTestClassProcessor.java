@@ -21,11 +21,18 @@ import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 
+/**
+ * Uses a new processor for every N test classes. The processor for the first batch is created and started by {@link
+ * #startProcessing(TestResultProcessor)}, so that it can start up before the first test class is received. The
+ * processor for the next N test classes is created and started when the last test class of the current batch is
+ * received, so that it can start up while that test class is processed.
+ */
 public class RestartEveryNTestClassProcessor implements TestClassProcessor {
     private final Factory<TestClassProcessor> factory;
     private final long restartEvery;
     private long testCount;
     private TestClassProcessor processor;
+    private TestClassProcessor nextProcessor;
     private TestResultProcessor resultProcessor;
 
     public RestartEveryNTestClassProcessor(Factory<TestClassProcessor> factory, long restartEvery) {
@@ -35,31 +42,48 @@ public class RestartEveryNTestClassProcessor implements TestClassProcessor {
 
     public void startProcessing(TestResultProcessor resultProcessor) {
         this.resultProcessor = resultProcessor;
+        processor = startProcessor();
     }
 
     public void processTestClass(TestClassRunInfo testClass) {
         if (processor == null) {
-            processor = factory.create();
-            processor.startProcessing(resultProcessor);
+            processor = startProcessor();
         }
-        processor.processTestClass(testClass);
         testCount++;
+        if (testCount == restartEvery) {
+            nextProcessor = startProcessor();
+        }
+        processor.processTestClass(testClass);
         if (testCount == restartEvery) {
             endBatch();
         }
     }
 
     public void stop() {
-        if (processor != null) {
-            endBatch();
+        try {
+            if (processor != null) {
+                endBatch();
+            }
+        } finally {
+            if (processor != null) {
+                // The last test class of the batch failed, so the next processor was started but the batch not ended
+                endBatch();
+            }
         }
     }
 
+    private TestClassProcessor startProcessor() {
+        TestClassProcessor processor = factory.create();
+        processor.startProcessing(resultProcessor);
+        return processor;
+    }
+
     private void endBatch() {
         try {
             processor.stop();
         } finally {
-            processor = null;
+            processor = nextProcessor;
+            nextProcessor = null;
             testCount = 0;
         }
     }
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.results;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The execution time of test classes, and which of them failed, as of their most recent execution.
+ */
+public class TestClassHistory {
+    private final Map<String, Long> durations = new HashMap<String, Long>();
+    private final Set<String> failedClasses = new HashSet<String>();
+
+    public Set<String> getClassNames() {
+        return durations.keySet();
+    }
+
+    public boolean isEmpty() {
+        return durations.isEmpty();
+    }
+
+    /**
+     * Returns the execution time of the given test class, in milliseconds.
+     *
+     * @return The execution time, or null when the test class has no history.
+     */
+    public Long getDuration(String className) {
+        return durations.get(className);
+    }
+
+    public boolean isFailed(String className) {
+        return failedClasses.contains(className);
+    }
+
+    public void add(String className, long duration, boolean failed) {
+        durations.put(className, duration);
+        if (failed) {
+            failedClasses.add(className);
+        } else {
+            failedClasses.remove(className);
+        }
+    }
+
+    /**
+     * Replaces the history of the test classes which have been executed again. The history of the other test classes
+     * is kept, so that it is still available when those test classes are next executed.
+     */
+    public void update(TestClassHistory executed) {
+        for (String className : executed.getClassNames()) {
+            add(className, executed.getDuration(className), executed.isFailed(className));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.results;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Records the execution time of each test class, and whether it failed. The execution time of a test class is taken
+ * from its suite where the test framework reports one, and is otherwise the sum of the execution time of its tests.
+ */
+public class TestClassHistoryRecorder extends StateTrackingTestResultProcessor {
+    private final Map<String, Long> durations = new HashMap<String, Long>();
+    private final Set<String> failedClasses = new HashSet<String>();
+
+    @Override
+    protected void completed(TestState state) {
+        String className = state.test.getClassName();
+        if (className == null) {
+            return;
+        }
+        if (state.test.isComposite()) {
+            durations.put(className, state.getExecutionTime());
+        } else {
+            Long duration = durations.get(className);
+            durations.put(className, state.getExecutionTime() + (duration == null ? 0 : duration));
+        }
+        if (state.isFailed()) {
+            failedClasses.add(className);
+        }
+    }
+
+    public TestClassHistory getHistory() {
+        TestClassHistory history = new TestClassHistory();
+        for (Map.Entry<String, Long> entry : durations.entrySet()) {
+            history.add(entry.getKey(), entry.getValue(), failedClasses.contains(entry.getKey()));
+        }
+        return history;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.results;
+
+import org.gradle.cache.Serializer;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public class TestClassHistorySerializer implements Serializer<TestClassHistory> {
+    public TestClassHistory read(InputStream instr) throws Exception {
+        DataInputStream input = new DataInputStream(instr);
+        TestClassHistory history = new TestClassHistory();
+        int count = input.readInt();
+        for (int i = 0; i < count; i++) {
+            String className = input.readUTF();
+            long duration = input.readLong();
+            boolean failed = input.readBoolean();
+            history.add(className, duration, failed);
+        }
+        return history;
+    }
+
+    public void write(OutputStream outstr, TestClassHistory value) throws Exception {
+        DataOutputStream output = new DataOutputStream(outstr);
+        output.writeInt(value.getClassNames().size());
+        for (String className : value.getClassNames()) {
+            output.writeUTF(className);
+            output.writeLong(value.getDuration(className));
+            output.writeBoolean(value.isFailed(className));
+        }
+        output.flush();
+    }
+}
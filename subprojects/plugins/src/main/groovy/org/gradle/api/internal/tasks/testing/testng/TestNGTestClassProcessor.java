@@ -39,10 +39,16 @@ public class TestNGTestClassProcessor implements TestClassProcessor {
     private final List<File> suiteFiles;
     private final IdGenerator<?> idGenerator;
     private final StandardOutputRedirector outputRedirector;
+    private final int maxParallelClasses;
     private TestNGTestResultProcessorAdapter testResultProcessor;
     private ClassLoader applicationClassLoader;
 
     public TestNGTestClassProcessor(File testReportDir, TestNGOptions options, List<File> suiteFiles, IdGenerator<?> idGenerator, StandardOutputRedirector outputRedirector) {
+        this(testReportDir, options, suiteFiles, idGenerator, outputRedirector, 1);
+    }
+
+    public TestNGTestClassProcessor(File testReportDir, TestNGOptions options, List<File> suiteFiles, IdGenerator<?> idGenerator, StandardOutputRedirector outputRedirector, int maxParallelClasses) {
+        this.maxParallelClasses = maxParallelClasses;
         this.testReportDir = testReportDir;
         this.options = options;
         this.suiteFiles = suiteFiles;
@@ -90,6 +96,10 @@ public class TestNGTestClassProcessor implements TestClassProcessor {
         } else {
             Class[] classes = testClasses.toArray(new Class[testClasses.size()]);
             testNg.setTestClasses(classes);
+            if (maxParallelClasses > 1) {
+                testNg.setParallel("classes");
+                testNg.setThreadCount(maxParallelClasses);
+            }
         }
 
         testNg.run();
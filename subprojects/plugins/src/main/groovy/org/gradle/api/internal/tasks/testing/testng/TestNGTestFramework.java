@@ -51,7 +51,8 @@ public class TestNGTestFramework implements TestFramework {
     public WorkerTestClassProcessorFactory getProcessorFactory() {
         options.setTestResources(testTask.getTestSrcDirs());
         List<File> suiteFiles = options.getSuites(testTask.getTemporaryDir());
-        return new TestClassProcessorFactoryImpl(testTask.getTestReportDir(), options, suiteFiles);
+        return new TestClassProcessorFactoryImpl(testTask.getTestReportDir(), options, suiteFiles,
+                testTask.getMaxParallelClassesPerFork());
     }
 
     public Action<WorkerProcessBuilder> getWorkerConfigurationAction() {
@@ -83,15 +84,18 @@ public class TestNGTestFramework implements TestFramework {
         private final File testReportDir;
         private final TestNGOptions options;
         private final List<File> suiteFiles;
+        private final int maxParallelClasses;
 
-        public TestClassProcessorFactoryImpl(File testReportDir, TestNGOptions options, List<File> suiteFiles) {
+        public TestClassProcessorFactoryImpl(File testReportDir, TestNGOptions options, List<File> suiteFiles,
+                                             int maxParallelClasses) {
             this.testReportDir = testReportDir;
             this.options = options;
             this.suiteFiles = suiteFiles;
+            this.maxParallelClasses = maxParallelClasses;
         }
 
         public TestClassProcessor create(ServiceRegistry serviceRegistry) {
-            return new TestNGTestClassProcessor(testReportDir, options, suiteFiles, serviceRegistry.get(IdGenerator.class), new JULRedirector());
+            return new TestNGTestClassProcessor(testReportDir, options, suiteFiles, serviceRegistry.get(IdGenerator.class), new JULRedirector(), maxParallelClasses);
         }
     }
 }
@@ -69,7 +69,7 @@ public class TestNGTestResultProcessorAdapter implements ITestListener, IConfigu
         Object parentId;
         synchronized (lock) {
             testInternal = new DefaultTestMethodDescriptor(idGenerator.generateId(), iTestResult.getTestClass().getName(), iTestResult.getName());
-            Object oldTestId = tests.put(testInternal.getName(), testInternal.getId());
+            Object oldTestId = tests.put(testKey(iTestResult), testInternal.getId());
             assert oldTestId == null;
             parentId = testMethodToSuiteMapping.get(iTestResult.getMethod());
             assert parentId != null;
@@ -97,7 +97,7 @@ public class TestNGTestResultProcessorAdapter implements ITestListener, IConfigu
         Object testId;
         TestStartEvent startEvent = null;
         synchronized (lock) {
-            testId = tests.remove(iTestResult.getName());
+            testId = tests.remove(testKey(iTestResult));
             if (testId == null) {
                 // This can happen when a method fails which this method depends on 
                 testId = idGenerator.generateId();
@@ -115,6 +115,11 @@ public class TestNGTestResultProcessorAdapter implements ITestListener, IConfigu
         resultProcessor.completed(testId, new TestCompleteEvent(iTestResult.getEndMillis(), resultType));
     }
 
+    private String testKey(ITestResult iTestResult) {
+        // Include the class name, as test methods of different classes can execute at the same time
+        return iTestResult.getTestClass().getName() + '.' + iTestResult.getName();
+    }
+
     public void onConfigurationSuccess(ITestResult testResult) {
     }
 
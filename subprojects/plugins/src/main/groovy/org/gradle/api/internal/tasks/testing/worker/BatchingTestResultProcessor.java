@@ -0,0 +1,231 @@
+/*
+ * Copyright 2010 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.*;
+import org.gradle.messaging.concurrent.DaemonExecutors;
+import org.gradle.util.UncheckedException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * A {@link TestResultProcessor} which collects test events into batches and sends each batch to a {@link
+ * RemoteTestResultProcessor} as a single message. A batch is sent when it reaches a maximum size, when it has been
+ * waiting for a maximum delay, or when it is flushed. Failures are sent as separate messages, once the events before
+ * them have been sent.
+ *
+ * <p>Each event is written in a compact binary form. Test ids are interned, so that each id is written in full only
+ * the first time it is used, and later events refer to it by its index. Consecutive output of the same test to the
+ * same destination is sent as a single output event. A batch is decoded by a {@link TestEventBatchReceiver}.</p>
+ *
+ * <p>This processor is thread-safe. It should be stopped once it is no longer required, to release the thread which
+ * sends delayed batches.</p>
+ */
+public class BatchingTestResultProcessor implements TestResultProcessor {
+    static final int END = 0;
+    static final int STARTED = 1;
+    static final int COMPLETED = 2;
+    static final int OUTPUT = 3;
+    static final int NULL_ID = -1;
+    static final int MAX_STRING_CHUNK = 16 * 1024;
+    private static final int MAX_BATCH_SIZE = 64 * 1024;
+    private static final long MAX_BATCH_DELAY = 100;
+    private final RemoteTestResultProcessor processor;
+    private final int maxBatchSize;
+    private final long maxBatchDelay;
+    private final Map<Object, Integer> ids = new HashMap<Object, Integer>();
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final StringBuilder output = new StringBuilder();
+    private ObjectOutputStream batch;
+    private ScheduledExecutorService flushExecutor;
+    private ScheduledFuture<?> scheduledFlush;
+    private Object outputTestId;
+    private TestOutputEvent.Destination outputDestination;
+
+    public BatchingTestResultProcessor(RemoteTestResultProcessor processor) {
+        this(processor, MAX_BATCH_SIZE, MAX_BATCH_DELAY);
+    }
+
+    /**
+     * @param maxBatchSize The approximate size in bytes at which a batch is sent.
+     * @param maxBatchDelay The time in milliseconds after which a batch is sent, measured from its first event.
+     */
+    BatchingTestResultProcessor(RemoteTestResultProcessor processor, int maxBatchSize, long maxBatchDelay) {
+        this.processor = processor;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchDelay = maxBatchDelay;
+    }
+
+    public synchronized void started(TestDescriptorInternal test, TestStartEvent event) {
+        try {
+            ObjectOutputStream batch = startEvent();
+            batch.writeByte(STARTED);
+            batch.writeObject(test);
+            writeId(batch, test.getId());
+            batch.writeLong(event.getStartTime());
+            writeId(batch, event.getParentId());
+        } catch (IOException e) {
+            throw UncheckedException.asUncheckedException(e);
+        }
+        endEvent();
+    }
+
+    public synchronized void completed(Object testId, TestCompleteEvent event) {
+        try {
+            ObjectOutputStream batch = startEvent();
+            batch.writeByte(COMPLETED);
+            writeId(batch, testId);
+            batch.writeLong(event.getEndTime());
+            batch.writeByte(event.getResultType() == null ? -1 : event.getResultType().ordinal());
+        } catch (IOException e) {
+            throw UncheckedException.asUncheckedException(e);
+        }
+        endEvent();
+    }
+
+    public synchronized void output(Object testId, TestOutputEvent event) {
+        if (outputTestId != null && (!outputTestId.equals(testId) || outputDestination != event.getDestination())) {
+            writeOutput();
+        }
+        outputTestId = testId;
+        outputDestination = event.getDestination();
+        output.append(event.getMessage());
+        scheduleFlush();
+        endEvent();
+    }
+
+    public synchronized void failure(Object testId, Throwable result) {
+        flush();
+        processor.failure(testId, result);
+    }
+
+    /**
+     * Sends the events which have not been sent yet.
+     */
+    public synchronized void flush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        if (outputTestId != null) {
+            writeOutput();
+        }
+        if (batch == null) {
+            return;
+        }
+        try {
+            batch.writeByte(END);
+            batch.close();
+        } catch (IOException e) {
+            throw UncheckedException.asUncheckedException(e);
+        }
+        byte[] events = buffer.toByteArray();
+        batch = null;
+        buffer.reset();
+        processor.events(events);
+    }
+
+    /**
+     * Sends the events which have not been sent yet, and stops the thread which sends delayed batches.
+     */
+    public synchronized void stop() {
+        flush();
+        if (flushExecutor != null) {
+            flushExecutor.shutdown();
+            flushExecutor = null;
+        }
+    }
+
+    private ObjectOutputStream startEvent() throws IOException {
+        if (outputTestId != null) {
+            writeOutput();
+        }
+        return batch();
+    }
+
+    private ObjectOutputStream batch() throws IOException {
+        if (batch == null) {
+            batch = new ObjectOutputStream(buffer);
+            scheduleFlush();
+        }
+        return batch;
+    }
+
+    private void endEvent() {
+        if (buffer.size() + output.length() >= maxBatchSize) {
+            flush();
+        }
+    }
+
+    private void scheduleFlush() {
+        if (scheduledFlush != null) {
+            return;
+        }
+        if (flushExecutor == null) {
+            flushExecutor = Executors.newSingleThreadScheduledExecutor(DaemonExecutors.newThreadFactory(
+                    "Test event flush"));
+        }
+        scheduledFlush = flushExecutor.schedule(new Runnable() {
+            public void run() {
+                flush();
+            }
+        }, maxBatchDelay, TimeUnit.MILLISECONDS);
+    }
+
+    private void writeOutput() {
+        try {
+            ObjectOutputStream batch = batch();
+            batch.writeByte(OUTPUT);
+            writeId(batch, outputTestId);
+            batch.writeByte(outputDestination.ordinal());
+            writeString(batch, output);
+        } catch (IOException e) {
+            throw UncheckedException.asUncheckedException(e);
+        }
+        outputTestId = null;
+        outputDestination = null;
+        output.setLength(0);
+    }
+
+    private void writeId(ObjectOutputStream batch, Object id) throws IOException {
+        if (id == null) {
+            batch.writeInt(NULL_ID);
+            return;
+        }
+        Integer index = ids.get(id);
+        if (index != null) {
+            batch.writeInt(index);
+            return;
+        }
+        index = ids.size();
+        ids.put(id, index);
+        batch.writeInt(index);
+        batch.writeObject(id);
+    }
+
+    private void writeString(ObjectOutputStream batch, CharSequence value) throws IOException {
+        // writeUTF() is limited to 64k bytes, so write long strings in chunks
+        batch.writeInt(value.length());
+        for (int start = 0; start < value.length(); start += MAX_STRING_CHUNK) {
+            batch.writeUTF(value.subSequence(start, Math.min(value.length(), start + MAX_STRING_CHUNK)).toString());
+        }
+    }
+}
@@ -22,14 +22,26 @@ import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.process.ExecResult;
 import org.gradle.process.JavaForkOptions;
+import org.gradle.process.internal.ExecHandle;
+import org.gradle.process.internal.ExecHandleListener;
 import org.gradle.process.internal.WorkerProcess;
 import org.gradle.process.internal.WorkerProcessBuilder;
+import org.gradle.util.UncheckedException;
 
 import java.io.File;
+import java.util.concurrent.*;
 
+/**
+ * Processes test classes in a worker process. The worker process is started in the background by {@link
+ * #startProcessing(TestResultProcessor)}, so that it can start up while the caller does other work.
+ * {@link #processTestClass(TestClassRunInfo)} blocks until the worker process has finished processing the test class,
+ * or has stopped.
+ */
 public class ForkingTestClassProcessor implements TestClassProcessor {
     private final Factory<WorkerProcessBuilder> workerFactory;
+    private final Executor workerStartExecutor;
     private final WorkerTestClassProcessorFactory processorFactory;
     private final JavaForkOptions options;
     private final Iterable<File> classPath;
@@ -37,9 +49,13 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
     private RemoteTestClassProcessor remoteProcessor;
     private WorkerProcess workerProcess;
     private TestResultProcessor resultProcessor;
+    private Future<?> workerStart;
+    private final Semaphore processed = new Semaphore(0);
+    private volatile boolean workerStopped;
 
-    public ForkingTestClassProcessor(Factory<WorkerProcessBuilder> workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction) {
+    public ForkingTestClassProcessor(Factory<WorkerProcessBuilder> workerFactory, Executor workerStartExecutor, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction) {
         this.workerFactory = workerFactory;
+        this.workerStartExecutor = workerStartExecutor;
         this.processorFactory = processorFactory;
         this.options = options;
         this.classPath = classPath;
@@ -48,31 +64,79 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
 
     public void startProcessing(TestResultProcessor resultProcessor) {
         this.resultProcessor = resultProcessor;
+        FutureTask<Void> start = new FutureTask<Void>(new Runnable() {
+            public void run() {
+                startWorkerProcess();
+            }
+        }, null);
+        workerStart = start;
+        workerStartExecutor.execute(start);
     }
 
-    public void processTestClass(TestClassRunInfo testClass) {
-        if (remoteProcessor == null) {
-            WorkerProcessBuilder builder = workerFactory.create();
-            builder.applicationClasspath(classPath);
-            builder.setLoadApplicationInSystemClassLoader(true);
-            builder.worker(new TestWorker(processorFactory));
-            options.copyTo(builder.getJavaCommand());
-            buildConfigAction.execute(builder);
-            
-            workerProcess = builder.build();
-            workerProcess.start();
+    private void startWorkerProcess() {
+        WorkerProcessBuilder builder = workerFactory.create();
+        builder.applicationClasspath(classPath);
+        builder.setLoadApplicationInSystemClassLoader(true);
+        builder.worker(new TestWorker(processorFactory));
+        options.copyTo(builder.getJavaCommand());
+        builder.getJavaCommand().listener(new ExecHandleListener() {
+            public void executionStarted(ExecHandle execHandle) {
+            }
 
-            workerProcess.getConnection().addIncoming(TestResultProcessor.class, resultProcessor);
-            remoteProcessor = workerProcess.getConnection().addOutgoing(RemoteTestClassProcessor.class);
+            public void executionFinished(ExecHandle execHandle, ExecResult execResult) {
+                workerStopped = true;
+                processed.release();
+            }
+        });
+        buildConfigAction.execute(builder);
 
-            remoteProcessor.startProcessing();
-        }
+        workerProcess = builder.build();
+        workerProcess.start();
+
+        workerProcess.getConnection().addIncoming(RemoteTestResultProcessor.class, new TestEventBatchReceiver(
+                resultProcessor));
+        workerProcess.getConnection().addIncoming(TestClassProcessedListener.class, new TestClassProcessedListener() {
+            public void testClassProcessed() {
+                processed.release();
+            }
+        });
+        remoteProcessor = workerProcess.getConnection().addOutgoing(RemoteTestClassProcessor.class);
 
+        remoteProcessor.startProcessing();
+    }
+
+    public void processTestClass(TestClassRunInfo testClass) {
+        waitForWorkerProcess();
         remoteProcessor.processTestClass(testClass);
+        waitForTestClassProcessed();
+    }
+
+    private void waitForWorkerProcess() {
+        try {
+            workerStart.get();
+        } catch (InterruptedException e) {
+            throw UncheckedException.asUncheckedException(e);
+        } catch (ExecutionException e) {
+            throw UncheckedException.asUncheckedException(e.getCause());
+        }
+    }
+
+    private void waitForTestClassProcessed() {
+        try {
+            processed.acquire();
+        } catch (InterruptedException e) {
+            throw UncheckedException.asUncheckedException(e);
+        }
+        if (workerStopped) {
+            // The worker process has stopped unexpectedly, so no more test classes will be processed. Pass the permit
+            // on, so that any later test classes do not wait either
+            processed.release();
+        }
     }
 
     public void stop() {
-        if (remoteProcessor != null) {
+        if (workerStart != null) {
+            waitForWorkerProcess();
             remoteProcessor.stop();
             workerProcess.waitForStop();
         }
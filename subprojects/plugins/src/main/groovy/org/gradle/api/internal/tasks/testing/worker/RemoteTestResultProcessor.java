@@ -0,0 +1,33 @@
+/*
+ * Copyright 2010 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.worker;
+
+/**
+ * Receives the test events of a test worker process. Test events are sent in batches, encoded by a {@link
+ * BatchingTestResultProcessor}.
+ */
+public interface RemoteTestResultProcessor {
+    /**
+     * Notifies this processor of a batch of test events. Batches must be received in the order they were encoded.
+     */
+    void events(byte[] batch);
+
+    /**
+     * Notifies this processor that a failure has occurred in the given test. Any events before the failure have
+     * already been received.
+     */
+    void failure(Object testId, Throwable result);
+}
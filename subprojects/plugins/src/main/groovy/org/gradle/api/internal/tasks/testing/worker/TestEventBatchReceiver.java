@@ -0,0 +1,99 @@
+/*
+ * Copyright 2010 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.*;
+import org.gradle.api.tasks.testing.TestResult;
+import org.gradle.util.ClassLoaderObjectInputStream;
+import org.gradle.util.UncheckedException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.gradle.api.internal.tasks.testing.worker.BatchingTestResultProcessor.*;
+
+/**
+ * Decodes the batches of test events sent by a {@link BatchingTestResultProcessor}, and passes the events to a
+ * {@link TestResultProcessor}.
+ */
+public class TestEventBatchReceiver implements RemoteTestResultProcessor {
+    private final TestResultProcessor processor;
+    private final List<Object> ids = new ArrayList<Object>();
+
+    public TestEventBatchReceiver(TestResultProcessor processor) {
+        this.processor = processor;
+    }
+
+    public void events(byte[] batch) {
+        try {
+            ObjectInputStream events = new ClassLoaderObjectInputStream(new ByteArrayInputStream(batch),
+                    getClass().getClassLoader());
+            for (int type = events.readByte(); type != END; type = events.readByte()) {
+                switch (type) {
+                    case STARTED:
+                        TestDescriptorInternal test = (TestDescriptorInternal) events.readObject();
+                        readId(events);
+                        long startTime = events.readLong();
+                        processor.started(test, new TestStartEvent(startTime, readId(events)));
+                        break;
+                    case COMPLETED:
+                        Object testId = readId(events);
+                        long endTime = events.readLong();
+                        int resultType = events.readByte();
+                        processor.completed(testId, new TestCompleteEvent(endTime,
+                                resultType < 0 ? null : TestResult.ResultType.values()[resultType]));
+                        break;
+                    case OUTPUT:
+                        Object outputTestId = readId(events);
+                        TestOutputEvent.Destination destination = TestOutputEvent.Destination.values()[events.readByte()];
+                        processor.output(outputTestId, new TestOutputEvent(destination, readString(events)));
+                        break;
+                    default:
+                        throw new IllegalArgumentException(String.format("Unexpected test event type %s.", type));
+                }
+            }
+        } catch (Exception e) {
+            throw UncheckedException.asUncheckedException(e);
+        }
+    }
+
+    public void failure(Object testId, Throwable result) {
+        processor.failure(testId, result);
+    }
+
+    private Object readId(ObjectInputStream events) throws IOException, ClassNotFoundException {
+        int index = events.readInt();
+        if (index == NULL_ID) {
+            return null;
+        }
+        if (index == ids.size()) {
+            ids.add(events.readObject());
+        }
+        return ids.get(index);
+    }
+
+    private String readString(ObjectInputStream events) throws IOException {
+        int length = events.readInt();
+        StringBuilder value = new StringBuilder(length);
+        while (value.length() < length) {
+            value.append(events.readUTF());
+        }
+        return value.toString();
+    }
+}
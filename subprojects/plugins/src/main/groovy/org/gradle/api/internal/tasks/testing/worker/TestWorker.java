@@ -20,7 +20,6 @@ import org.gradle.api.Action;
 import org.gradle.api.internal.project.DefaultServiceRegistry;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
-import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
 import org.gradle.listener.ContextClassLoaderProxy;
 import org.gradle.messaging.remote.ObjectConnection;
@@ -38,7 +37,8 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
     private final WorkerTestClassProcessorFactory factory;
     private CountDownLatch completed;
     private TestClassProcessor processor;
-    private TestResultProcessor resultProcessor;
+    private BatchingTestResultProcessor resultProcessor;
+    private TestClassProcessedListener processedListener;
 
     public TestWorker(WorkerTestClassProcessorFactory factory) {
         this.factory = factory;
@@ -66,7 +66,9 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
                 TestClassProcessor.class, targetProcessor, workerProcessContext.getApplicationClassLoader());
         processor = proxy.getSource();
 
-        this.resultProcessor = serverConnection.addOutgoing(TestResultProcessor.class);
+        this.resultProcessor = new BatchingTestResultProcessor(serverConnection.addOutgoing(
+                RemoteTestResultProcessor.class));
+        this.processedListener = serverConnection.addOutgoing(TestClassProcessedListener.class);
 
         serverConnection.addIncoming(RemoteTestClassProcessor.class, this);
 
@@ -83,14 +85,23 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
     }
 
     public void processTestClass(TestClassRunInfo testClass) {
-        processor.processTestClass(testClass);
+        try {
+            processor.processTestClass(testClass);
+        } finally {
+            resultProcessor.flush();
+            processedListener.testClassProcessed();
+        }
     }
 
     public void stop() {
         try {
             processor.stop();
         } finally {
-            completed.countDown();
+            try {
+                resultProcessor.stop();
+            } finally {
+                completed.countDown();
+            }
         }
     }
 }
@@ -36,10 +36,13 @@ import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.*;
 import org.gradle.api.tasks.util.PatternFilterable;
 import org.gradle.api.tasks.util.PatternSet;
+import org.gradle.cache.CacheRepository;
+import org.gradle.groovy.scripts.ExecutedScriptRecorder;
 import org.gradle.listener.ListenerBroadcast;
 import org.gradle.listener.ListenerManager;
 import org.gradle.logging.ProgressLoggerFactory;
 import org.gradle.messaging.actor.ActorFactory;
+import org.gradle.messaging.concurrent.ExecutorFactory;
 import org.gradle.process.JavaForkOptions;
 import org.gradle.process.ProcessForkOptions;
 import org.gradle.process.internal.DefaultJavaForkOptions;
@@ -73,13 +76,17 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
     private boolean scanForTestClasses = true;
     private long forkEvery;
     private int maxParallelForks = 1;
+    private int maxParallelClassesPerFork = 1;
+    private boolean failedTestsFirst;
+    private boolean affectedTestsOnly;
     private ListenerBroadcast<TestListener> testListenerBroadcaster;
 
     public Test() {
         testListenerBroadcaster = getServices().get(ListenerManager.class).createAnonymousBroadcaster(
                 TestListener.class);
         this.testExecuter = new DefaultTestExecuter(getServices().getFactory(WorkerProcessBuilder.class), getServices().get(
-                ActorFactory.class));
+                ActorFactory.class), getServices().get(CacheRepository.class), getServices().get(ExecutorFactory.class),
+                getServices().get(ExecutedScriptRecorder.class));
         options = new DefaultJavaForkOptions(getServices().get(FileResolver.class));
         options.setEnableAssertions(true);
     }
@@ -648,7 +655,7 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
      * of type {@link org.gradle.api.tasks.testing.junit.JUnitOptions}.
      */
     public void useJUnit(Closure testFrameworkConfigure) {
-        useTestFramework(new JUnitTestFramework(this), testFrameworkConfigure);
+        useTestFramework(new JUnitTestFramework(this, getServices().get(ExecutorFactory.class)), testFrameworkConfigure);
     }
 
     /**
@@ -771,6 +778,76 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         this.maxParallelForks = maxParallelForks;
     }
 
+    /**
+     * Returns the maximum number of test classes to execute in parallel in each forked test process. The default value
+     * is 1 (each test process executes one test class at a time).
+     *
+     * <p>For JUnit, each test class is executed by its own thread, and the output of the test class is the output
+     * written by that thread and by any threads it starts. For TestNG, the test classes are executed using the parallel
+     * mode of TestNG.</p>
+     *
+     * @return The maximum number of test classes to execute in parallel in a test process.
+     */
+    public int getMaxParallelClassesPerFork() {
+        return maxParallelClassesPerFork;
+    }
+
+    /**
+     * Sets the maximum number of test classes to execute in parallel in each forked test process. Set to 1 to execute
+     * one test class at a time.
+     *
+     * @param maxParallelClassesPerFork The maximum number of test classes to execute in parallel in a test process.
+     */
+    public void setMaxParallelClassesPerFork(int maxParallelClassesPerFork) {
+        if (maxParallelClassesPerFork < 1) {
+            throw new IllegalArgumentException("Cannot set maxParallelClassesPerFork to a value less than 1.");
+        }
+        this.maxParallelClassesPerFork = maxParallelClassesPerFork;
+    }
+
+    /**
+     * Specifies whether the test classes which failed the last time this task was executed should be executed before
+     * any other test classes. The default value is false.
+     *
+     * <p>When executing test classes in parallel, the other test classes are executed in order of their execution time
+     * the last time this task was executed, longest first.</p>
+     *
+     * @return true if the test classes which failed last time are executed first.
+     */
+    public boolean isFailedTestsFirst() {
+        return failedTestsFirst;
+    }
+
+    public void setFailedTestsFirst(boolean failedTestsFirst) {
+        this.failedTestsFirst = failedTestsFirst;
+    }
+
+    /**
+     * Specifies whether only the test classes which are affected by the changes made since the last time this task was
+     * executed should be executed. The default value is false.
+     *
+     * <p>A test class is affected when a class it refers to, directly or indirectly, has changed in the test classes
+     * directory or in a class directory of the test classpath, or when it failed the last time it was executed.</p>
+     *
+     * <p>All test classes are executed when any of the following has changed: a jar of the test classpath, a file
+     * other than a class file in one of the class directories, such as a resource, a script executed by the build,
+     * the JVM arguments and system properties, the environment variables, including those inherited from the Gradle
+     * process, the include and exclude patterns, the working directory or the executable.</p>
+     *
+     * <p>Some changes are not detected: classes which are only used through reflection, constants which the compiler
+     * inlines, the contents of scripts which are not loaded from a file, the options of the test framework, and any
+     * other input which the tests read, such as files outside the class directories.</p>
+     *
+     * @return true if only the affected test classes are executed.
+     */
+    public boolean isAffectedTestsOnly() {
+        return affectedTestsOnly;
+    }
+
+    public void setAffectedTestsOnly(boolean affectedTestsOnly) {
+        this.affectedTestsOnly = affectedTestsOnly;
+    }
+
     /**
      * Returns the classes files to scan for test classes.
      *
@@ -26,7 +26,10 @@ import org.gradle.api.internal.tasks.testing.TestClassProcessor
 import org.jmock.Sequence
 import org.gradle.api.file.FileTree
 import static org.hamcrest.Matchers.*
+import static org.junit.Assert.*
 import org.gradle.api.file.FileVisitDetails
+import org.gradle.messaging.concurrent.DefaultExecutorFactory
+import org.junit.After
 
 @RunWith(JMock.class)
 public class DefaultTestClassScannerTest {
@@ -34,10 +37,16 @@ public class DefaultTestClassScannerTest {
     private final TestFrameworkDetector detector = context.mock(TestFrameworkDetector.class)
     private final TestClassProcessor processor = context.mock(TestClassProcessor.class)
     private final FileTree files = context.mock(FileTree.class)
+    private final DefaultExecutorFactory executorFactory = new DefaultExecutorFactory()
+
+    @After
+    public void tearDown() {
+        executorFactory.stop()
+    }
 
     @Test
     public void passesEachClassFileToTestClassDetector() {
-        DefaultTestClassScanner scanner = new DefaultTestClassScanner(files, detector, processor)
+        DefaultTestClassScanner scanner = new DefaultTestClassScanner(files, detector, processor, executorFactory)
 
         context.checking {
             Sequence sequence = context.sequence('seq')
@@ -51,8 +60,37 @@ public class DefaultTestClassScannerTest {
             one(detector).processTestClass(new File('class1.class'))
             one(detector).processTestClass(new File('class2.class'))
             inSequence(sequence)
+            one(detector).stopDetection()
         }
         
         scanner.run()
     }
+
+    @Test
+    public void stopsDetectionWhenDetectionFails() {
+        DefaultTestClassScanner scanner = new DefaultTestClassScanner(files, detector, processor, executorFactory)
+        RuntimeException failure = new RuntimeException()
+
+        context.checking {
+            Sequence sequence = context.sequence('seq')
+            one(files).visit(withParam(notNullValue()))
+            will { visitor ->
+                visitor.visitFile({new File('class1.class')} as FileVisitDetails)
+            }
+            one(detector).startDetection(processor)
+            inSequence(sequence)
+            one(detector).processTestClass(new File('class1.class'))
+            will(throwException(failure))
+            inSequence(sequence)
+            one(detector).stopDetection()
+            inSequence(sequence)
+        }
+
+        try {
+            scanner.run()
+            fail()
+        } catch (RuntimeException e) {
+            assertThat(e, sameInstance(failure))
+        }
+    }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.detection
+
+import org.gradle.util.TemporaryFolder
+import org.gradle.util.TestFile
+import org.junit.Rule
+import spock.lang.Specification
+
+class JarClassIndexTest extends Specification {
+    @Rule public final TemporaryFolder tmpDir = new TemporaryFolder()
+    private final JarClassIndex index = new JarClassIndex()
+
+    def cleanup() {
+        index.close()
+    }
+
+    def readsClassFileFromJar() {
+        TestFile jar = jar('lib.jar', 'org/SomeTest.class': 'some test')
+
+        when:
+        index.addLibraryJar(jar)
+
+        then:
+        index.getLibraryJar('org/SomeTest') == jar
+        index.openClassFile('org/SomeTest').text == 'some test'
+    }
+
+    def usesJarWhichWasAddedFirst() {
+        TestFile jar1 = jar('lib1.jar', 'org/SomeTest.class': 'first')
+        TestFile jar2 = jar('lib2.jar', 'org/SomeTest.class': 'second', 'org/OtherTest.class': 'other')
+
+        when:
+        index.addLibraryJar(jar1)
+        index.addLibraryJar(jar2)
+
+        then:
+        index.getLibraryJar('org/SomeTest') == jar1
+        index.openClassFile('org/SomeTest').text == 'first'
+        index.getLibraryJar('org/OtherTest') == jar2
+    }
+
+    def returnsNullForUnknownClass() {
+        TestFile jar = jar('lib.jar', 'org/SomeTest.class': 'some test', 'org/resource.txt': 'resource')
+
+        when:
+        index.addLibraryJar(jar)
+
+        then:
+        index.getLibraryJar('org/OtherTest') == null
+        index.getLibraryJar('org/resource.txt') == null
+        index.openClassFile('org/OtherTest') == null
+    }
+
+    private TestFile jar(Map<String, String> entries, String name) {
+        TestFile contents = tmpDir.createDir("${name}-contents")
+        entries.each { path, text -> contents.file(path).write(text) }
+        TestFile jar = tmpDir.file(name)
+        contents.zipTo(jar)
+        return jar
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.detection
+
+import org.gradle.cache.PersistentIndexedCache
+import org.gradle.util.TemporaryFolder
+import org.gradle.util.TestFile
+import org.junit.Rule
+import spock.lang.Specification
+
+class PersistentClassInfoCacheTest extends Specification {
+    @Rule public final TemporaryFolder tmpDir = new TemporaryFolder()
+    private final Map<String, PersistentClassInfoCache.CachedClassInfo> entries = [:]
+    private final PersistentIndexedCache<String, PersistentClassInfoCache.CachedClassInfo> persistentCache = Mock()
+    private final PersistentClassInfoCache cache = new PersistentClassInfoCache(persistentCache, 'detector')
+
+    def setup() {
+        _ * persistentCache.get(_) >> { String key -> entries[key] }
+        _ * persistentCache.put(_, _) >> { String key, value -> entries[key] = serialized(value) }
+    }
+
+    def returnsClassInfoWhenSourceIsUnchanged() {
+        TestFile source = tmpDir.createFile('SomeTest.class')
+
+        when:
+        cache.put(source, 'org/SomeTest', new ClassInfo('org/SomeTest', 'org/SuperTest', true, false))
+        ClassInfo classInfo = cache.get(source, 'org/SomeTest')
+
+        then:
+        classInfo.className == 'org/SomeTest'
+        classInfo.superClassName == 'org/SuperTest'
+        classInfo.abstract
+        !classInfo.test
+    }
+
+    def keepsClassesFromTheSameJarApart() {
+        TestFile source = tmpDir.createFile('lib.jar')
+
+        when:
+        cache.put(source, 'org/Test1', new ClassInfo('org/Test1', null, false, true))
+        cache.put(source, 'org/Test2', new ClassInfo('org/Test2', 'org/Test1', false, false))
+
+        then:
+        cache.get(source, 'org/Test1').superClassName == null
+        cache.get(source, 'org/Test1').test
+        cache.get(source, 'org/Test2').superClassName == 'org/Test1'
+        cache.get(source, 'org/Unknown') == null
+    }
+
+    def returnsNullWhenSourceHasChanged() {
+        TestFile source = tmpDir.createFile('SomeTest.class')
+
+        when:
+        cache.put(source, 'org/SomeTest', new ClassInfo('org/SomeTest', null, false, true))
+        source.text = 'changed'
+
+        then:
+        cache.get(source, 'org/SomeTest') == null
+    }
+
+    private PersistentClassInfoCache.CachedClassInfo serialized(PersistentClassInfoCache.CachedClassInfo value) {
+        ByteArrayOutputStream outstr = new ByteArrayOutputStream()
+        PersistentClassInfoCache.serializer().write(outstr, value)
+        return PersistentClassInfoCache.serializer().read(new ByteArrayInputStream(outstr.toByteArray()))
+    }
+}
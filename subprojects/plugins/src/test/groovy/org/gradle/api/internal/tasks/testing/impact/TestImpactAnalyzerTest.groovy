@@ -0,0 +1,193 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.impact
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.processors.FilteringTestClassProcessor
+import org.gradle.api.internal.tasks.testing.results.TestClassHistory
+import org.gradle.util.TemporaryFolder
+import org.gradle.util.TestFile
+import org.junit.Rule
+import spock.lang.Specification
+
+class TestImpactAnalyzerTest extends Specification {
+    @Rule public final TemporaryFolder tmpDir = new TemporaryFolder()
+    private final TestFile classesDir = tmpDir.file('classes')
+    private final String dependentTest = FilteringTestClassProcessor.name
+    private final String independentTest = TestImpactState.name
+
+    def setup() {
+        copyClassFile(FilteringTestClassProcessor)
+        copyClassFile(TestClassProcessor)
+        copyClassFile(TestImpactState)
+    }
+
+    def allTestClassesAreAffectedWhenThereIsNoPreviousState() {
+        when:
+        TestImpactAnalyzer analyzer = analyzer(null)
+
+        then:
+        affected(analyzer, dependentTest)
+        affected(analyzer, independentTest)
+        analyzer.skippedCount == 0
+    }
+
+    def recordsClassesEachExecutedTestClassDependsOn() {
+        when:
+        TestImpactAnalyzer analyzer = analyzer(null)
+        affected(analyzer, dependentTest)
+        affected(analyzer, independentTest)
+        TestImpactState state = analyzer.getState(executed(dependentTest))
+
+        then:
+        state.testClassNames == [internalName(dependentTest)] as Set
+        state.getTestDependencies(internalName(dependentTest)).containsAll([internalName(dependentTest),
+                internalName(TestClassProcessor.name)])
+        !state.getTestDependencies(internalName(dependentTest)).contains(internalName(independentTest))
+    }
+
+    def testClassesAreNotAffectedWhenNothingHasChanged() {
+        TestImpactState state = previousState()
+
+        when:
+        TestImpactAnalyzer analyzer = analyzer(state)
+
+        then:
+        !affected(analyzer, dependentTest)
+        !affected(analyzer, independentTest)
+        analyzer.skippedCount == 2
+        analyzer.getState(executed()).testClassNames.size() == 2
+    }
+
+    def testClassIsAffectedWhenAClassItDependsOnHasChanged() {
+        TestImpactState state = previousState()
+        classFile(TestClassProcessor).setLastModified(classFile(TestClassProcessor).lastModified() - 10000)
+
+        when:
+        TestImpactAnalyzer analyzer = analyzer(state)
+
+        then:
+        affected(analyzer, dependentTest)
+        !affected(analyzer, independentTest)
+    }
+
+    def testClassIsAffectedWhenItFailedLastTime() {
+        TestImpactState state = previousState()
+        TestClassHistory history = new TestClassHistory()
+        history.add(independentTest, 100, true)
+
+        when:
+        TestImpactAnalyzer analyzer = new TestImpactAnalyzer([classesDir], 'classpath', state, history)
+
+        then:
+        !affected(analyzer, dependentTest)
+        affected(analyzer, independentTest)
+    }
+
+    def allTestClassesAreAffectedWhenClasspathHasChanged() {
+        TestImpactState state = previousState()
+
+        when:
+        TestImpactAnalyzer analyzer = new TestImpactAnalyzer([classesDir], 'changed', state, new TestClassHistory())
+
+        then:
+        affected(analyzer, dependentTest)
+        affected(analyzer, independentTest)
+    }
+
+    def testClassesAreNotAffectedWhenNoResourceHasChanged() {
+        classesDir.file('org/gradle/resource.properties').text = 'value=1'
+        TestImpactState state = previousState()
+
+        when:
+        TestImpactAnalyzer analyzer = analyzer(state)
+
+        then:
+        !affected(analyzer, dependentTest)
+        !affected(analyzer, independentTest)
+    }
+
+    def allTestClassesAreAffectedWhenAResourceHasChanged() {
+        TestFile resource = classesDir.file('org/gradle/resource.properties')
+        resource.text = 'value=1'
+        TestImpactState state = previousState()
+        resource.text = 'value=22'
+
+        when:
+        TestImpactAnalyzer analyzer = analyzer(state)
+
+        then:
+        affected(analyzer, dependentTest)
+        affected(analyzer, independentTest)
+    }
+
+    def allTestClassesAreAffectedWhenAResourceHasBeenAdded() {
+        TestImpactState state = previousState()
+        classesDir.file('org/gradle/resource.properties').text = 'value=1'
+
+        when:
+        TestImpactAnalyzer analyzer = analyzer(state)
+
+        then:
+        affected(analyzer, dependentTest)
+        affected(analyzer, independentTest)
+    }
+
+    def classpathSignatureChangesWhenAValueHasChanged() {
+        List<File> files = [classFile(TestClassProcessor)]
+
+        expect:
+        TestImpactAnalyzer.classpathSignature(files, ['-Xmx128m']) == TestImpactAnalyzer.classpathSignature(files, ['-Xmx128m'])
+        TestImpactAnalyzer.classpathSignature(files, ['-Xmx128m']) != TestImpactAnalyzer.classpathSignature(files, ['-Xmx256m'])
+        TestImpactAnalyzer.classpathSignature(files) != TestImpactAnalyzer.classpathSignature(files, ['-Xmx128m'])
+    }
+
+    private TestImpactState previousState() {
+        TestImpactAnalyzer analyzer = analyzer(null)
+        affected(analyzer, dependentTest)
+        affected(analyzer, independentTest)
+        return analyzer.getState(executed(dependentTest, independentTest))
+    }
+
+    private TestImpactAnalyzer analyzer(TestImpactState previous) {
+        return new TestImpactAnalyzer([classesDir], 'classpath', previous, new TestClassHistory())
+    }
+
+    private boolean affected(TestImpactAnalyzer analyzer, String className) {
+        return analyzer.isSatisfiedBy(new DefaultTestClassRunInfo(className))
+    }
+
+    private TestClassHistory executed(String... classNames) {
+        TestClassHistory history = new TestClassHistory()
+        classNames.each { history.add(it, 100, false) }
+        return history
+    }
+
+    private String internalName(String className) {
+        return className.replace('.', '/')
+    }
+
+    private TestFile classFile(Class type) {
+        return classesDir.file("${internalName(type.name)}.class")
+    }
+
+    private void copyClassFile(Class type) {
+        TestFile classFile = classFile(type)
+        classFile.parentFile.mkdirs()
+        classFile.bytes = type.getResourceAsStream("/${internalName(type.name)}.class").bytes
+    }
+}
@@ -20,6 +20,7 @@ import org.gradle.api.internal.tasks.testing.TestCompleteEvent
 import org.gradle.api.internal.tasks.testing.TestDescriptorInternal
 import org.gradle.api.internal.tasks.testing.TestResultProcessor
 import org.gradle.api.internal.tasks.testing.TestStartEvent
+import org.gradle.api.internal.tasks.testing.TestOutputEvent
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo
 import org.gradle.util.JUnit4GroovyMockery
 import org.gradle.util.LongIdGenerator
@@ -632,6 +633,32 @@ class JUnitTestClassProcessorTest {
         processor.stop();
     }
 
+    @Test
+    public void executesTestClassesInParallel() {
+        JUnitTestClassProcessor processor = new JUnitTestClassProcessor(tmpDir.dir, new LongIdGenerator(), {} as StandardOutputRedirector, 2)
+        Map<Object, String> names = Collections.synchronizedMap([:])
+        Map<String, String> parents = Collections.synchronizedMap([:])
+        List<String> completed = Collections.synchronizedList([])
+        TestResultProcessor resultProcessor = [
+                started: { TestDescriptorInternal test, TestStartEvent event ->
+                    names[test.id] = test.name
+                    parents[test.name] = names[event.parentId]
+                },
+                completed: { Object id, TestCompleteEvent event -> completed << names[id] },
+                output: { Object id, TestOutputEvent event -> },
+                failure: { Object id, Throwable failure -> }
+        ] as TestResultProcessor
+
+        processor.startProcessing(resultProcessor);
+        processor.processTestClass(testClass(ATestClass.class));
+        processor.processTestClass(testClass(AJunit3TestClass.class));
+        processor.stop();
+
+        assertThat(completed as Set, equalTo([ATestClass.class.name, 'ok', AJunit3TestClass.class.name, 'testOk'] as Set))
+        assertThat(parents['ok'], equalTo(ATestClass.class.name))
+        assertThat(parents['testOk'], equalTo(AJunit3TestClass.class.name))
+    }
+
     private TestClassRunInfo testClass(Class<?> type) {
         return testClass(type.name)
     }
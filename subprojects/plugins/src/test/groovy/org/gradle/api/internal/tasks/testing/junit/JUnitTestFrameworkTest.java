@@ -22,6 +22,7 @@ import org.gradle.api.internal.tasks.testing.AbstractTestFrameworkTest;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.junit.report.TestReporter;
 import org.gradle.api.tasks.testing.junit.JUnitOptions;
+import org.gradle.messaging.concurrent.ExecutorFactory;
 import org.gradle.util.IdGenerator;
 import org.jmock.Expectations;
 import org.junit.Before;
@@ -39,6 +40,7 @@ public class JUnitTestFrameworkTest extends AbstractTestFrameworkTest {
     private JUnitOptions jUnitOptionsMock;
     private IdGenerator<?> idGenerator;
     private ServiceRegistry serviceRegistry;
+    private ExecutorFactory executorFactory;
 
     @Before
     public void setUp() throws Exception {
@@ -48,6 +50,7 @@ public class JUnitTestFrameworkTest extends AbstractTestFrameworkTest {
         jUnitOptionsMock = context.mock(JUnitOptions.class);
         idGenerator = context.mock(IdGenerator.class);
         serviceRegistry = context.mock(ServiceRegistry.class);
+        executorFactory = context.mock(ExecutorFactory.class);
 
         context.checking(new Expectations(){{
             allowing(testMock).getTestClassesDir(); will(returnValue(testClassesDir));
@@ -58,7 +61,7 @@ public class JUnitTestFrameworkTest extends AbstractTestFrameworkTest {
 
     @org.junit.Test
     public void testInitialize() {
-        jUnitTestFramework = new JUnitTestFramework(testMock);
+        jUnitTestFramework = new JUnitTestFramework(testMock, executorFactory);
         setMocks();
 
         assertNotNull(jUnitTestFramework.getOptions());
@@ -67,11 +70,12 @@ public class JUnitTestFrameworkTest extends AbstractTestFrameworkTest {
 
     @org.junit.Test
     public void testCreatesTestProcessor() {
-        jUnitTestFramework = new JUnitTestFramework(testMock);
+        jUnitTestFramework = new JUnitTestFramework(testMock, executorFactory);
         setMocks();
 
         context.checking(new Expectations() {{
             one(testMock).getTestResultsDir(); will(returnValue(testResultsDir));
+            one(testMock).getMaxParallelClassesPerFork(); will(returnValue(1));
             one(serviceRegistry).get(IdGenerator.class); will(returnValue(idGenerator));
         }});
 
@@ -81,7 +85,7 @@ public class JUnitTestFrameworkTest extends AbstractTestFrameworkTest {
 
     @org.junit.Test
     public void testReport() {
-        jUnitTestFramework = new JUnitTestFramework(testMock);
+        jUnitTestFramework = new JUnitTestFramework(testMock, executorFactory);
         setMocks();
 
         context.checking(new Expectations() {{
@@ -98,7 +102,7 @@ public class JUnitTestFrameworkTest extends AbstractTestFrameworkTest {
 
     @org.junit.Test
     public void testReportWithDisabledReport() {
-        jUnitTestFramework = new JUnitTestFramework(testMock);
+        jUnitTestFramework = new JUnitTestFramework(testMock, executorFactory);
         setMocks();
 
         context.checking(new Expectations() {{
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.junit
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassDescriptor
+import org.gradle.api.internal.tasks.testing.DefaultTestDescriptor
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent
+import org.gradle.api.internal.tasks.testing.TestOutputEvent
+import org.gradle.api.internal.tasks.testing.TestStartEvent
+import org.gradle.api.tasks.testing.TestResult
+import org.gradle.util.TemporaryFolder
+import org.junit.Rule
+import spock.lang.Specification
+
+class JUnitXmlReportGeneratorTest extends Specification {
+    @Rule public final TemporaryFolder tmpDir = new TemporaryFolder()
+    private final JUnitXmlReportGenerator generator = new JUnitXmlReportGenerator(tmpDir.dir)
+
+    def writesReportForTestClass() {
+        when:
+        generator.started(new DefaultTestClassDescriptor('class', 'SomeTest'), new TestStartEvent(100L))
+        generator.started(new DefaultTestDescriptor('test1', 'SomeTest', 'passes'), new TestStartEvent(100L, 'class'))
+        generator.output('test1', new TestOutputEvent(TestOutputEvent.Destination.StdOut, 'some <output> ]]> here'))
+        generator.completed('test1', new TestCompleteEvent(300L))
+        generator.started(new DefaultTestDescriptor('test2', 'SomeTest', 'fails'), new TestStartEvent(300L, 'class'))
+        generator.output('test2', new TestOutputEvent(TestOutputEvent.Destination.StdErr, 'some error'))
+        generator.failure('test2', new RuntimeException('broken "message"'))
+        generator.completed('test2', new TestCompleteEvent(400L))
+        generator.started(new DefaultTestDescriptor('test3', 'SomeTest', 'ignored'), new TestStartEvent(400L, 'class'))
+        generator.completed('test3', new TestCompleteEvent(400L, TestResult.ResultType.SKIPPED))
+        generator.completed('class', new TestCompleteEvent(500L))
+
+        then:
+        def testsuite = new XmlSlurper().parse(tmpDir.file('TEST-SomeTest.xml'))
+        testsuite.@name == 'SomeTest'
+        testsuite.@tests == '3'
+        testsuite.@failures == '1'
+        testsuite.@errors == '0'
+        testsuite.@time == '0.4'
+        testsuite.testcase.size() == 2
+        testsuite.testcase[0].@name == 'passes'
+        testsuite.testcase[0].@classname == 'SomeTest'
+        testsuite.testcase[0].@time == '0.2'
+        testsuite.testcase[0].failure.size() == 0
+        testsuite.testcase[1].@name == 'fails'
+        testsuite.testcase[1].failure.@message == 'java.lang.RuntimeException: broken "message"'
+        testsuite.testcase[1].failure.@type == 'java.lang.RuntimeException'
+        testsuite.testcase[1].failure.text().startsWith('java.lang.RuntimeException: broken "message"')
+        testsuite.'ignored-testcase'.@name == 'ignored'
+        testsuite.'system-out'.text() == 'some <output> ]]> here'
+        testsuite.'system-err'.text() == 'some error'
+    }
+
+    def writesLargeOutput() {
+        String line = 'a line of output\n'
+        int count = 20000
+
+        when:
+        generator.started(new DefaultTestClassDescriptor('class', 'SomeTest'), new TestStartEvent(100L))
+        count.times {
+            generator.output('class', new TestOutputEvent(TestOutputEvent.Destination.StdOut, line))
+        }
+        generator.completed('class', new TestCompleteEvent(500L))
+
+        then:
+        def testsuite = new XmlSlurper().parse(tmpDir.file('TEST-SomeTest.xml'))
+        testsuite.'system-out'.text() == line * count
+        testsuite.'system-err'.text() == ''
+    }
+}
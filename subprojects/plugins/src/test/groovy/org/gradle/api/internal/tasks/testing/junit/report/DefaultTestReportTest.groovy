@@ -15,6 +15,7 @@
  */
 package org.gradle.api.internal.tasks.testing.junit.report
 
+import org.gradle.messaging.concurrent.DefaultExecutorFactory
 import org.gradle.util.TemporaryFolder
 import org.gradle.util.TestFile
 import org.junit.Rule
@@ -23,7 +24,7 @@ import org.cyberneko.html.parsers.SAXParser
 
 class DefaultTestReportTest extends Specification {
     @Rule public final TemporaryFolder tmpDir = new TemporaryFolder()
-    final DefaultTestReport report = new DefaultTestReport()
+    final DefaultTestReport report = new DefaultTestReport(new DefaultExecutorFactory())
     final TestFile reportDir = tmpDir.file('report')
     final TestFile resultsDir = tmpDir.file('results')
     final TestFile indexFile = reportDir.file('index.html')
@@ -253,6 +254,36 @@ message">this is a failure.</failure></testcase>
         results(indexFile).assertHasTests(1)
     }
 
+    def generatesReportForManyResultFiles() {
+        50.times { i ->
+            resultsDir.file("TEST-someClass${i}.xml") << """
+<testsuite name="org.gradle.Test${i}">
+    <testcase classname="org.gradle.Test${i}" name="test1" time="0.0010"/>
+    <testcase classname="org.gradle.Test${i}" name="test2" time="0.0010">
+        <failure message="failed">broken</failure>
+    </testcase>
+    <system-out>output ${i}</system-out>
+</testsuite>
+"""
+        }
+
+        when:
+        report.generateReport()
+
+        then:
+        def index = results(indexFile)
+        index.assertHasTests(100)
+        index.assertHasFailures(50)
+        def packageFile = results(reportDir.file('org.gradle.html'))
+        packageFile.assertHasTests(100)
+        50.times { i ->
+            def testClassFile = results(reportDir.file("org.gradle.Test${i}.html"))
+            testClassFile.assertHasTests(2)
+            testClassFile.assertHasFailures(1)
+            testClassFile.assertHasStandardOutput("output ${i}")
+        }
+    }
+
     def results(TestFile file) {
         return new TestResultsFixture(file)
     }
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.processors
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.results.TestClassHistory
+import spock.lang.Specification
+
+class HistoryOrderingTestClassProcessorTest extends Specification {
+    private final TestClassProcessor target = Mock()
+    private final TestResultProcessor resultProcessor = Mock()
+    private final TestClassHistory history = new TestClassHistory()
+
+    def holdsBackTestClassesUntilStopped() {
+        def processor = new HistoryOrderingTestClassProcessor(target, history, false)
+        TestClassRunInfo test = new DefaultTestClassRunInfo('Test')
+
+        when:
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(test)
+
+        then:
+        1 * target.startProcessing(resultProcessor)
+        0 * target._
+
+        when:
+        processor.stop()
+
+        then:
+        1 * target.processTestClass(test)
+
+        then:
+        1 * target.stop()
+    }
+
+    def passesOnTestClassesWithNoHistoryThenLongestFirst() {
+        def processor = new HistoryOrderingTestClassProcessor(target, history, false)
+        history.add('Short', 10, true)
+        history.add('Long', 1000, false)
+        history.add('Medium', 100, false)
+
+        when:
+        processor.processTestClass(new DefaultTestClassRunInfo('Short'))
+        processor.processTestClass(new DefaultTestClassRunInfo('Medium'))
+        processor.processTestClass(new DefaultTestClassRunInfo('New'))
+        processor.processTestClass(new DefaultTestClassRunInfo('Long'))
+        processor.stop()
+
+        then:
+        1 * target.processTestClass({ it.testClassName == 'New' })
+
+        then:
+        1 * target.processTestClass({ it.testClassName == 'Long' })
+
+        then:
+        1 * target.processTestClass({ it.testClassName == 'Medium' })
+
+        then:
+        1 * target.processTestClass({ it.testClassName == 'Short' })
+    }
+
+    def passesOnTestClassesWhichFailedLastTimeFirst() {
+        def processor = new HistoryOrderingTestClassProcessor(target, history, true)
+        history.add('Short', 10, true)
+        history.add('Long', 1000, false)
+
+        when:
+        processor.processTestClass(new DefaultTestClassRunInfo('Long'))
+        processor.processTestClass(new DefaultTestClassRunInfo('New'))
+        processor.processTestClass(new DefaultTestClassRunInfo('Short'))
+        processor.stop()
+
+        then:
+        1 * target.processTestClass({ it.testClassName == 'Short' })
+
+        then:
+        1 * target.processTestClass({ it.testClassName == 'New' })
+
+        then:
+        1 * target.processTestClass({ it.testClassName == 'Long' })
+    }
+}
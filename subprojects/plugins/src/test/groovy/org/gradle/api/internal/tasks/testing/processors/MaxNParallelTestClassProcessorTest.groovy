@@ -58,11 +58,14 @@ class MaxNParallelTestClassProcessorTest extends Specification {
         processor.startProcessing(resultProcessor)
     }
 
-    def startsProcessorsOnDemandAndStopsAtEnd() {
+    def startsAllProcessorsOnFirstTestAndStopsAtEnd() {
         TestClassRunInfo test = Mock()
         TestClassProcessor processor1 = Mock()
+        TestClassProcessor processor2 = Mock()
         TestClassProcessor asyncProcessor1 = Mock()
+        TestClassProcessor asyncProcessor2 = Mock()
         Actor actor1 = Mock()
+        Actor actor2 = Mock()
 
         startProcessor()
 
@@ -71,22 +74,30 @@ class MaxNParallelTestClassProcessorTest extends Specification {
 
         then:
         1 * factory.create() >> processor1
-        1 * actorFactory.createActor(processor1) >> actor1
+        1 * actorFactory.createActor(_ as TestClassProcessor) >> actor1
         1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
         1 * asyncProcessor1.startProcessing(asyncResultProcessor)
+        1 * factory.create() >> processor2
+        1 * actorFactory.createActor(_ as TestClassProcessor) >> actor2
+        1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
+        1 * asyncProcessor2.startProcessing(asyncResultProcessor)
         1 * asyncProcessor1.processTestClass(test)
+        0 * asyncProcessor2.processTestClass(_)
 
         when:
         processor.stop()
 
         then:
         1 * asyncProcessor1.stop()
+        1 * asyncProcessor2.stop()
         1 * actor1.stop()
+        1 * actor2.stop()
         1 * resultProcessorActor.stop()
     }
 
-    def startsMultipleProcessorsOnDemandAndStopsAtEnd() {
-        TestClassRunInfo test = Mock()
+    def givesNextTestToProcessorWhichWasStartedAhead() {
+        TestClassRunInfo test1 = Mock()
+        TestClassRunInfo test2 = Mock()
         TestClassProcessor processor1 = Mock()
         TestClassProcessor processor2 = Mock()
         TestClassProcessor asyncProcessor1 = Mock()
@@ -97,74 +108,82 @@ class MaxNParallelTestClassProcessorTest extends Specification {
         startProcessor()
 
         when:
-        processor.processTestClass(test)
+        processor.processTestClass(test1)
 
         then:
-        1 * factory.create() >> processor1
-        1 * actorFactory.createActor(processor1) >> actor1
+        2 * factory.create() >>> [processor1, processor2]
+        2 * actorFactory.createActor(_ as TestClassProcessor) >>> [actor1, actor2]
         1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
-        1 * asyncProcessor1.startProcessing(asyncResultProcessor)
-        1 * asyncProcessor1.processTestClass(test)
-
-        when:
-        processor.processTestClass(test)
-
-        then:
-        1 * factory.create() >> processor2
-        1 * actorFactory.createActor(processor2) >> actor2
         1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
+        1 * asyncProcessor1.processTestClass(test1)
         1 * asyncProcessor2.startProcessing(asyncResultProcessor)
-        1 * asyncProcessor2.processTestClass(test)
 
         when:
-        processor.stop()
+        processor.processTestClass(test2)
 
         then:
-        1 * asyncProcessor1.stop()
-        1 * asyncProcessor2.stop()
+        0 * factory.create()
+        0 * actorFactory._
+        1 * asyncProcessor2.processTestClass(test2)
+        0 * asyncProcessor1._
     }
 
-    def roundRobinsTestClassesToProcessors() {
-        TestClassRunInfo test = Mock()
+    def queuesTestClassesUntilAProcessorIsIdle() {
+        TestClassRunInfo test1 = Mock()
+        TestClassRunInfo test2 = Mock()
+        TestClassRunInfo test3 = Mock()
+        TestClassRunInfo test4 = Mock()
+        TestClassRunInfo test5 = Mock()
         TestClassProcessor processor1 = Mock()
         TestClassProcessor processor2 = Mock()
         TestClassProcessor asyncProcessor1 = Mock()
         TestClassProcessor asyncProcessor2 = Mock()
         Actor actor1 = Mock()
         Actor actor2 = Mock()
+        TestClassProcessor slot2
 
         startProcessor()
 
         when:
-        processor.processTestClass(test)
+        processor.processTestClass(test1)
+        processor.processTestClass(test2)
 
         then:
         1 * factory.create() >> processor1
-        1 * actorFactory.createActor(processor1) >> actor1
+        1 * actorFactory.createActor(_ as TestClassProcessor) >> actor1
         1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
-        1 * asyncProcessor1.startProcessing(asyncResultProcessor)
-        1 * asyncProcessor1.processTestClass(test)
+        1 * asyncProcessor1.processTestClass(test1)
+        1 * factory.create() >> processor2
+        1 * actorFactory.createActor(_ as TestClassProcessor) >> { slot2 = it[0]; actor2 }
+        1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
+        1 * asyncProcessor2.processTestClass(test2)
 
         when:
-        processor.processTestClass(test)
+        processor.processTestClass(test3)
+        processor.processTestClass(test4)
 
         then:
-        1 * factory.create() >> processor2
-        1 * actorFactory.createActor(processor2) >> actor2
-        1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
-        1 * asyncProcessor2.startProcessing(asyncResultProcessor)
-        1 * asyncProcessor2.processTestClass(test)
+        0 * asyncProcessor1._
+        0 * asyncProcessor2._
 
         when:
-        processor.processTestClass(test)
+        slot2.processTestClass(test2)
 
         then:
-        1 * asyncProcessor1.processTestClass(test)
+        1 * processor2.processTestClass(test2)
+
+        then:
+        1 * processor2.processTestClass(test3)
+
+        then:
+        1 * processor2.processTestClass(test4)
+        0 * processor1._
 
         when:
-        processor.processTestClass(test)
+        processor.processTestClass(test5)
 
         then:
-        1 * asyncProcessor2.processTestClass(test)
+        1 * asyncProcessor2.processTestClass(test5)
+        0 * asyncProcessor1._
     }
 }
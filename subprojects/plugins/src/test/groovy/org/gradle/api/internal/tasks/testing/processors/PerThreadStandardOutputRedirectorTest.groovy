@@ -0,0 +1,156 @@
+/*
+ * Copyright 2010 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.processors
+
+import org.gradle.api.logging.StandardOutputListener
+import org.gradle.logging.StandardOutputRedirector
+import spock.lang.Specification
+
+class PerThreadStandardOutputRedirectorTest extends Specification {
+    private final StandardOutputRedirector target = Mock()
+    private final PerThreadStandardOutputRedirector redirector = new PerThreadStandardOutputRedirector(target)
+
+    def startsAndStopsTargetForFirstAndLastThread() {
+        when:
+        redirector.start()
+        redirector.start()
+
+        then:
+        1 * target.redirectStandardOutputTo(!null)
+        1 * target.redirectStandardErrorTo(!null)
+        1 * target.start()
+
+        when:
+        redirector.stop()
+
+        then:
+        0 * target._
+
+        when:
+        redirector.stop()
+
+        then:
+        1 * target.stop()
+    }
+
+    def sendsOutputToTheDestinationsOfTheWritingThread() {
+        StandardOutputListener stdout
+        StandardOutputListener stderr
+        StandardOutputListener thread1Out = Mock()
+        StandardOutputListener thread1Err = Mock()
+        StandardOutputListener thread2Out = Mock()
+        _ * target.redirectStandardOutputTo(!null) >> { args -> stdout = args[0] }
+        _ * target.redirectStandardErrorTo(!null) >> { args -> stderr = args[0] }
+
+        when:
+        redirector.redirectStandardOutputTo(thread1Out)
+        redirector.redirectStandardErrorTo(thread1Err)
+        redirector.start()
+        inThread {
+            redirector.redirectStandardOutputTo(thread2Out)
+            redirector.start()
+            stdout.onOutput('thread 2')
+        }
+        stdout.onOutput('thread 1')
+        stderr.onOutput('thread 1 error')
+
+        then:
+        1 * thread1Out.onOutput('thread 1')
+        1 * thread1Err.onOutput('thread 1 error')
+        1 * thread2Out.onOutput('thread 2')
+    }
+
+    def sendsOutputOfStartedThreadsToTheDestinationsOfTheStartingThread() {
+        StandardOutputListener stdout
+        StandardOutputListener thread1Out = Mock()
+        _ * target.redirectStandardOutputTo(!null) >> { args -> stdout = args[0] }
+
+        when:
+        redirector.redirectStandardOutputTo(thread1Out)
+        redirector.start()
+        inThread {
+            stdout.onOutput('started thread')
+        }
+
+        then:
+        1 * thread1Out.onOutput('started thread')
+    }
+
+    def startedThreadKeepsTheOtherInheritedDestinationWhenItSetsItsOwn() {
+        StandardOutputListener stdout
+        StandardOutputListener stderr
+        StandardOutputListener thread1Out = Mock()
+        StandardOutputListener thread1Err = Mock()
+        StandardOutputListener thread2Out = Mock()
+        _ * target.redirectStandardOutputTo(!null) >> { args -> stdout = args[0] }
+        _ * target.redirectStandardErrorTo(!null) >> { args -> stderr = args[0] }
+
+        when:
+        redirector.redirectStandardOutputTo(thread1Out)
+        redirector.redirectStandardErrorTo(thread1Err)
+        redirector.start()
+        inThread {
+            redirector.redirectStandardOutputTo(thread2Out)
+            stdout.onOutput('thread 2')
+            stderr.onOutput('thread 2 error')
+        }
+        stdout.onOutput('thread 1')
+
+        then:
+        1 * thread2Out.onOutput('thread 2')
+        1 * thread1Err.onOutput('thread 2 error')
+        1 * thread1Out.onOutput('thread 1')
+    }
+
+    def stoppingAStartedThreadDoesNotDiscardTheOutputOfTheStartingThread() {
+        StandardOutputListener stdout
+        StandardOutputListener thread1Out = Mock()
+        _ * target.redirectStandardOutputTo(!null) >> { args -> stdout = args[0] }
+
+        when:
+        redirector.redirectStandardOutputTo(thread1Out)
+        redirector.start()
+        inThread {
+            redirector.start()
+            redirector.stop()
+        }
+        stdout.onOutput('thread 1')
+
+        then:
+        1 * thread1Out.onOutput('thread 1')
+    }
+
+    def discardsOutputOnceTheThreadHasStopped() {
+        StandardOutputListener stdout
+        StandardOutputListener thread1Out = Mock()
+        _ * target.redirectStandardOutputTo(!null) >> { args -> stdout = args[0] }
+
+        when:
+        redirector.redirectStandardOutputTo(thread1Out)
+        redirector.start()
+        redirector.stop()
+        stdout.onOutput('discarded')
+
+        then:
+        0 * thread1Out._
+    }
+
+    private void inThread(Closure closure) {
+        Thread thread = new Thread(closure as Runnable)
+        thread.start()
+        thread.join()
+    }
+}
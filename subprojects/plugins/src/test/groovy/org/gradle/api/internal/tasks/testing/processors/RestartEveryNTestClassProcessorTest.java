@@ -26,6 +26,10 @@ import org.jmock.integration.junit4.JUnit4Mockery;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
 @RunWith(JMock.class)
 public class RestartEveryNTestClassProcessorTest {
     private final JUnit4Mockery context = new JUnit4Mockery();
@@ -38,7 +42,19 @@ public class RestartEveryNTestClassProcessorTest {
     private RestartEveryNTestClassProcessor processor = new RestartEveryNTestClassProcessor(factory, 2);
 
     @Test
-    public void onFirstTestCreatesDelegateProcessor() {
+    public void onStartCreatesAndStartsDelegateProcessor() {
+        context.checking(new Expectations() {{
+            one(factory).create();
+            will(returnValue(delegate));
+
+            one(delegate).startProcessing(resultProcessor);
+        }});
+
+        processor.startProcessing(resultProcessor);
+    }
+
+    @Test
+    public void onFirstTestUsesDelegateProcessor() {
         context.checking(new Expectations() {{
             one(factory).create();
             will(returnValue(delegate));
@@ -52,13 +68,20 @@ public class RestartEveryNTestClassProcessorTest {
     }
 
     @Test
-    public void onNthTestEndsProcessingOnDelegateProcessor() {
+    public void onNthTestStartsNextDelegateProcessorAndEndsProcessingOnDelegateProcessor() {
         context.checking(new Expectations() {{
             one(factory).create();
             will(returnValue(delegate));
 
             one(delegate).startProcessing(resultProcessor);
             one(delegate).processTestClass(test1);
+
+            TestClassProcessor delegate2 = context.mock(TestClassProcessor.class, "delegate2");
+
+            one(factory).create();
+            will(returnValue(delegate2));
+
+            one(delegate2).startProcessing(resultProcessor);
             one(delegate).processTestClass(test2);
             one(delegate).stop();
         }});
@@ -76,8 +99,6 @@ public class RestartEveryNTestClassProcessorTest {
 
             one(delegate).startProcessing(resultProcessor);
             one(delegate).processTestClass(test1);
-            one(delegate).processTestClass(test2);
-            one(delegate).stop();
 
             TestClassProcessor delegate2 = context.mock(TestClassProcessor.class, "delegate2");
 
@@ -85,6 +106,8 @@ public class RestartEveryNTestClassProcessorTest {
             will(returnValue(delegate2));
 
             one(delegate2).startProcessing(resultProcessor);
+            one(delegate).processTestClass(test2);
+            one(delegate).stop();
             one(delegate2).processTestClass(test3);
         }});
 
@@ -111,20 +134,42 @@ public class RestartEveryNTestClassProcessorTest {
     }
 
     @Test
-    public void onEndOfProcessingDoesNothingWhenNoTestsReceived() {
+    public void onEndOfProcessingDoesNothingWhenNotStarted() {
         processor.stop();
     }
 
     @Test
-    public void onEndOfProcessingDoesNothingWhenOnNthTest() {
+    public void onEndOfProcessingEndsProcessingOnDelegateProcessorWhenNoTestsReceived() {
+        context.checking(new Expectations() {{
+            one(factory).create();
+            will(returnValue(delegate));
+
+            one(delegate).startProcessing(resultProcessor);
+            one(delegate).stop();
+        }});
+
+        processor.startProcessing(resultProcessor);
+        processor.stop();
+    }
+
+    @Test
+    public void onEndOfProcessingEndsProcessingOnNextDelegateProcessorWhenOnNthTest() {
         context.checking(new Expectations() {{
             one(factory).create();
             will(returnValue(delegate));
 
             one(delegate).startProcessing(resultProcessor);
             one(delegate).processTestClass(test1);
+
+            TestClassProcessor delegate2 = context.mock(TestClassProcessor.class, "delegate2");
+
+            one(factory).create();
+            will(returnValue(delegate2));
+
+            one(delegate2).startProcessing(resultProcessor);
             one(delegate).processTestClass(test2);
             one(delegate).stop();
+            one(delegate2).stop();
         }});
 
         processor.startProcessing(resultProcessor);
@@ -133,6 +178,40 @@ public class RestartEveryNTestClassProcessorTest {
         processor.stop();
     }
 
+    @Test
+    public void onEndOfProcessingEndsProcessingOnBothDelegateProcessorsWhenNthTestFails() {
+        final RuntimeException failure = new RuntimeException();
+
+        context.checking(new Expectations() {{
+            one(factory).create();
+            will(returnValue(delegate));
+
+            one(delegate).startProcessing(resultProcessor);
+            one(delegate).processTestClass(test1);
+
+            TestClassProcessor delegate2 = context.mock(TestClassProcessor.class, "delegate2");
+
+            one(factory).create();
+            will(returnValue(delegate2));
+
+            one(delegate2).startProcessing(resultProcessor);
+            one(delegate).processTestClass(test2);
+            will(throwException(failure));
+            one(delegate).stop();
+            one(delegate2).stop();
+        }});
+
+        processor.startProcessing(resultProcessor);
+        processor.processTestClass(test1);
+        try {
+            processor.processTestClass(test2);
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e, sameInstance(failure));
+        }
+        processor.stop();
+    }
+
     @Test
     public void usesSingleBatchWhenNEqualsZero() {
         processor = new RestartEveryNTestClassProcessor(factory, 0);
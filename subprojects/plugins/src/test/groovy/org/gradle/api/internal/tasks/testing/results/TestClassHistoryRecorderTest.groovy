@@ -0,0 +1,76 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.results
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassDescriptor
+import org.gradle.api.internal.tasks.testing.DefaultTestDescriptor
+import org.gradle.api.internal.tasks.testing.DefaultTestSuiteDescriptor
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent
+import org.gradle.api.internal.tasks.testing.TestStartEvent
+import spock.lang.Specification
+
+class TestClassHistoryRecorderTest extends Specification {
+    private final TestClassHistoryRecorder recorder = new TestClassHistoryRecorder()
+
+    def usesExecutionTimeOfTestClassSuite() {
+        when:
+        recorder.started(new DefaultTestClassDescriptor('class', 'SomeTest'), new TestStartEvent(100L))
+        recorder.started(new DefaultTestDescriptor('test', 'SomeTest', 'test'), new TestStartEvent(150L, 'class'))
+        recorder.completed('test', new TestCompleteEvent(200L))
+        recorder.completed('class', new TestCompleteEvent(300L))
+
+        then:
+        TestClassHistory history = recorder.history
+        history.classNames == ['SomeTest'] as Set
+        history.getDuration('SomeTest') == 200L
+        !history.isFailed('SomeTest')
+    }
+
+    def addsUpExecutionTimeOfTestsWhenThereIsNoTestClassSuite() {
+        when:
+        recorder.started(new DefaultTestSuiteDescriptor('suite', 'suite'), new TestStartEvent(100L))
+        recorder.started(new DefaultTestDescriptor('test1', 'SomeTest', 'test1'), new TestStartEvent(100L, 'suite'))
+        recorder.completed('test1', new TestCompleteEvent(120L))
+        recorder.started(new DefaultTestDescriptor('test2', 'SomeTest', 'test2'), new TestStartEvent(150L, 'suite'))
+        recorder.failure('test2', new RuntimeException())
+        recorder.completed('test2', new TestCompleteEvent(200L))
+        recorder.completed('suite', new TestCompleteEvent(300L))
+
+        then:
+        TestClassHistory history = recorder.history
+        history.classNames == ['SomeTest'] as Set
+        history.getDuration('SomeTest') == 70L
+        history.isFailed('SomeTest')
+    }
+
+    def updatesHistoryOfExecutedTestClassesOnly() {
+        TestClassHistory history = new TestClassHistory()
+        history.add('SomeTest', 100L, true)
+        history.add('OtherTest', 200L, true)
+
+        when:
+        recorder.started(new DefaultTestClassDescriptor('class', 'SomeTest'), new TestStartEvent(100L))
+        recorder.completed('class', new TestCompleteEvent(150L))
+        history.update(recorder.history)
+
+        then:
+        history.getDuration('SomeTest') == 50L
+        !history.isFailed('SomeTest')
+        history.getDuration('OtherTest') == 200L
+        history.isFailed('OtherTest')
+    }
+}
@@ -74,6 +74,7 @@ public class TestNGTestFrameworkTest extends AbstractTestFrameworkTest {
         context.checking(new Expectations() {{
             allowing(testMock).getTestSrcDirs();  will(returnValue(testSrcDirs));
             allowing(testMock).getTestReportDir(); will(returnValue(testReportDir));
+            allowing(testMock).getMaxParallelClassesPerFork(); will(returnValue(1));
             allowing(serviceRegistry).get(IdGenerator.class); will(returnValue(idGeneratorMock));
             one(testngOptionsMock).setTestResources(testSrcDirs);
             one(testngOptionsMock).getSuites(temporaryDir);
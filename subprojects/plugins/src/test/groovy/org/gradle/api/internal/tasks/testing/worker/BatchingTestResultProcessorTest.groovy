@@ -0,0 +1,140 @@
+/*
+ * Copyright 2010 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.internal.tasks.testing.*
+import org.gradle.api.tasks.testing.TestResult
+import spock.lang.Specification
+
+class BatchingTestResultProcessorTest extends Specification {
+    private final TestResultProcessor target = Mock()
+    private final TestEventBatchReceiver receiver = new TestEventBatchReceiver(target)
+    private final List<byte[]> batches = []
+    private final RemoteTestResultProcessor remote = [
+            events: { byte[] batch -> batches << batch; receiver.events(batch) },
+            failure: { Object testId, Throwable failure -> receiver.failure(testId, failure) }
+    ] as RemoteTestResultProcessor
+    private final BatchingTestResultProcessor processor = new BatchingTestResultProcessor(remote, 64 * 1024, 60000)
+
+    def sendsEventsWhenFlushed() {
+        def suite = new DefaultTestClassDescriptor('suite-id', 'SomeTest')
+        def test = new DefaultTestDescriptor(1L, 'SomeTest', 'someTest')
+
+        when:
+        processor.started(suite, new TestStartEvent(100L))
+        processor.started(test, new TestStartEvent(200L, 'suite-id'))
+        processor.completed(1L, new TestCompleteEvent(300L, TestResult.ResultType.SUCCESS))
+        processor.completed('suite-id', new TestCompleteEvent(400L))
+
+        then:
+        batches.empty
+        0 * target._
+
+        when:
+        processor.flush()
+
+        then:
+        batches.size() == 1
+        1 * target.started({ it.id == 'suite-id' && it.className == 'SomeTest' }, { it.startTime == 100L && it.parentId == null })
+
+        then:
+        1 * target.started({ it.id == 1L && it.name == 'someTest' }, { it.startTime == 200L && it.parentId == 'suite-id' })
+
+        then:
+        1 * target.completed(1L, { it.endTime == 300L && it.resultType == TestResult.ResultType.SUCCESS })
+
+        then:
+        1 * target.completed('suite-id', { it.endTime == 400L && it.resultType == null })
+        0 * target._
+    }
+
+    def combinesConsecutiveOutputOfTheSameTest() {
+        String longOutput = 'x' * 100000
+
+        when:
+        processor.output('id', new TestOutputEvent(TestOutputEvent.Destination.StdOut, 'a'))
+        processor.output('id', new TestOutputEvent(TestOutputEvent.Destination.StdOut, 'b'))
+        processor.output('id', new TestOutputEvent(TestOutputEvent.Destination.StdErr, 'c'))
+        processor.output('other', new TestOutputEvent(TestOutputEvent.Destination.StdErr, 'd'))
+        processor.output('other', new TestOutputEvent(TestOutputEvent.Destination.StdErr, longOutput))
+        processor.flush()
+
+        then:
+        1 * target.output('id', { it.destination == TestOutputEvent.Destination.StdOut && it.message == 'ab' })
+
+        then:
+        1 * target.output('id', { it.destination == TestOutputEvent.Destination.StdErr && it.message == 'c' })
+
+        then:
+        1 * target.output('other', { it.destination == TestOutputEvent.Destination.StdErr && it.message == 'd' + longOutput })
+        0 * target._
+    }
+
+    def sendsBatchWhenMaximumSizeIsReached() {
+        BatchingTestResultProcessor processor = new BatchingTestResultProcessor(remote, 1024, 60000)
+
+        when:
+        100.times {
+            processor.completed("some-test-id-$it".toString(), new TestCompleteEvent(100L))
+        }
+
+        then:
+        batches.size() > 1
+        100 * target.completed(!null, !null)
+    }
+
+    def sendsBatchWhenMaximumDelayHasPassed() {
+        BatchingTestResultProcessor processor = new BatchingTestResultProcessor(remote, 64 * 1024, 10)
+
+        when:
+        processor.completed('id', new TestCompleteEvent(100L))
+        long expiry = System.currentTimeMillis() + 10000
+        while (batches.empty && System.currentTimeMillis() < expiry) {
+            Thread.sleep(10)
+        }
+
+        then:
+        batches.size() == 1
+        1 * target.completed('id', !null)
+    }
+
+    def sendsPendingEventsOnStop() {
+        BatchingTestResultProcessor processor = new BatchingTestResultProcessor(remote, 64 * 1024, 10)
+
+        when:
+        processor.completed('id', new TestCompleteEvent(100L))
+        processor.stop()
+
+        then:
+        batches.size() == 1
+        1 * target.completed('id', !null)
+    }
+
+    def sendsPendingEventsBeforeFailure() {
+        RuntimeException failure = new RuntimeException()
+
+        when:
+        processor.output('id', new TestOutputEvent(TestOutputEvent.Destination.StdOut, 'output'))
+        processor.failure('id', failure)
+
+        then:
+        1 * target.output('id', !null)
+
+        then:
+        1 * target.failure('id', failure)
+        0 * target._
+    }
+}
@@ -23,10 +23,13 @@ import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
 import org.gradle.messaging.remote.ObjectConnection;
 import org.gradle.process.JavaForkOptions;
+import org.gradle.process.internal.ExecHandleListener;
 import org.gradle.process.internal.JavaExecHandleBuilder;
 import org.gradle.process.internal.WorkerProcess;
 import org.gradle.process.internal.WorkerProcessBuilder;
+import org.hamcrest.Description;
 import org.jmock.Expectations;
+import org.jmock.api.Invocation;
 import org.jmock.integration.junit4.JMock;
 import org.jmock.integration.junit4.JUnit4Mockery;
 import org.jmock.lib.legacy.ClassImposteriser;
@@ -35,8 +38,10 @@ import org.junit.runner.RunWith;
 
 import java.io.File;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.notNullValue;
 
 @RunWith(JMock.class)
@@ -54,13 +59,21 @@ public class ForkingTestClassProcessorTest {
     private final List<File> appClassPath = asList(new File("classpath.jar"));
     private final JavaForkOptions options = context.mock(JavaForkOptions.class);
     private final Action<WorkerProcessBuilder> action = context.mock(Action.class);
-    private final ForkingTestClassProcessor processor = new ForkingTestClassProcessor(workerFactory, processorFactory, options, appClassPath, action);
+    private TestClassProcessedListener processedListener;
+    private ExecHandleListener execHandleListener;
+    private final Executor workerStartExecutor = new Executor() {
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+    private final ForkingTestClassProcessor processor = new ForkingTestClassProcessor(workerFactory, workerStartExecutor, processorFactory, options, appClassPath, action);
 
     @Test
     public void onFirstTestCaseStartsWorkerProcess() {
         expectWorkerProcessStarted();
         context.checking(new Expectations() {{
             one(worker).processTestClass(test1);
+            will(notifyTestClassProcessed());
         }});
 
         processor.startProcessing(resultProcessor);
@@ -72,7 +85,9 @@ public class ForkingTestClassProcessorTest {
         expectWorkerProcessStarted();
         context.checking(new Expectations() {{
             one(worker).processTestClass(test1);
+            will(notifyTestClassProcessed());
             one(worker).processTestClass(test2);
+            will(notifyTestClassProcessed());
         }});
 
         processor.startProcessing(resultProcessor);
@@ -85,6 +100,7 @@ public class ForkingTestClassProcessorTest {
         expectWorkerProcessStarted();
         context.checking(new Expectations() {{
             one(worker).processTestClass(test1);
+            will(notifyTestClassProcessed());
             one(worker).stop();
             one(workerProcess).waitForStop();
         }});
@@ -95,11 +111,45 @@ public class ForkingTestClassProcessorTest {
     }
 
     @Test
-    public void onEndProcessingDoesNothingIfNoTestsProcessed() {
+    public void doesNotWaitForTestCasesWhenWorkerProcessStopsUnexpectedly() {
+        expectWorkerProcessStarted();
+        context.checking(new Expectations() {{
+            one(worker).processTestClass(test1);
+            will(new org.jmock.api.Action() {
+                public void describeTo(Description description) {
+                    description.appendText("stop worker process");
+                }
+
+                public Object invoke(Invocation invocation) throws Throwable {
+                    execHandleListener.executionFinished(null, null);
+                    return null;
+                }
+            });
+            one(worker).processTestClass(test2);
+        }});
+
+        processor.startProcessing(resultProcessor);
+        processor.processTestClass(test1);
+        processor.processTestClass(test2);
+    }
+
+    @Test
+    public void onEndProcessingStopsWorkerProcessIfNoTestsProcessed() {
+        expectWorkerProcessStarted();
+        context.checking(new Expectations() {{
+            one(worker).stop();
+            one(workerProcess).waitForStop();
+        }});
+
         processor.startProcessing(resultProcessor);
         processor.stop();
     }
 
+    @Test
+    public void onEndProcessingDoesNothingIfNotStarted() {
+        processor.stop();
+    }
+
     private void expectWorkerProcessStarted() {
         context.checking(new Expectations() {{
             WorkerProcessBuilder builder = context.mock(WorkerProcessBuilder.class);
@@ -122,13 +172,37 @@ public class ForkingTestClassProcessorTest {
 
             one(options).copyTo(javaCommandBuilder);
 
+            one(javaCommandBuilder).listener(with(notNullValue(ExecHandleListener.class)));
+            will(new org.jmock.api.Action() {
+                public void describeTo(Description description) {
+                    description.appendText("capture listener");
+                }
+
+                public Object invoke(Invocation invocation) throws Throwable {
+                    execHandleListener = (ExecHandleListener) invocation.getParameter(0);
+                    return null;
+                }
+            });
+
             one(builder).build();
             will(returnValue(workerProcess));
 
             allowing(workerProcess).getConnection();
             will(returnValue(connection));
 
-            one(connection).addIncoming(TestResultProcessor.class, resultProcessor);
+            one(connection).addIncoming(with(equalTo(RemoteTestResultProcessor.class)), with(notNullValue(RemoteTestResultProcessor.class)));
+
+            one(connection).addIncoming(with(equalTo(TestClassProcessedListener.class)), with(notNullValue(TestClassProcessedListener.class)));
+            will(new org.jmock.api.Action() {
+                public void describeTo(Description description) {
+                    description.appendText("capture listener");
+                }
+
+                public Object invoke(Invocation invocation) throws Throwable {
+                    processedListener = (TestClassProcessedListener) invocation.getParameter(1);
+                    return null;
+                }
+            });
             
             one(connection).addOutgoing(RemoteTestClassProcessor.class);
             will(returnValue(worker));
@@ -138,4 +212,17 @@ public class ForkingTestClassProcessorTest {
             one(worker).startProcessing();
         }});
     }
+
+    private org.jmock.api.Action notifyTestClassProcessed() {
+        return new org.jmock.api.Action() {
+            public void describeTo(Description description) {
+                description.appendText("notify test class processed");
+            }
+
+            public Object invoke(Invocation invocation) throws Throwable {
+                processedListener.testClassProcessed();
+                return null;
+            }
+        };
+    }
 }
@@ -17,7 +17,6 @@
 
 package org.gradle.api.internal.tasks.testing.worker
 
-import org.gradle.api.internal.tasks.testing.TestResultProcessor
 import org.gradle.api.internal.tasks.testing.TestClassProcessor
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo
 import org.gradle.messaging.remote.ObjectConnection
@@ -43,7 +42,8 @@ public class TestWorkerTest extends MultithreadedTestCase {
     private final WorkerTestClassProcessorFactory factory = context.mock(WorkerTestClassProcessorFactory.class)
     private final TestClassProcessor processor = context.mock(TestClassProcessor.class)
     private final TestClassRunInfo test = context.mock(TestClassRunInfo.class)
-    private final TestResultProcessor resultProcessor = context.mock(TestResultProcessor.class)
+    private final RemoteTestResultProcessor resultProcessor = context.mock(RemoteTestResultProcessor.class)
+    private final TestClassProcessedListener processedListener = context.mock(TestClassProcessedListener.class)
     private final TestWorker worker = new TestWorker(factory)
 
     @Before
@@ -67,9 +67,12 @@ public class TestWorkerTest extends MultithreadedTestCase {
             one(factory).create(withParam(notNullValue()))
             will(returnValue(processor))
 
-            one(connection).addOutgoing(TestResultProcessor.class)
+            one(connection).addOutgoing(RemoteTestResultProcessor.class)
             will(returnValue(resultProcessor))
 
+            one(connection).addOutgoing(TestClassProcessedListener.class)
+            will(returnValue(processedListener))
+
             one(connection).addIncoming(RemoteTestClassProcessor.class, worker)
             will {
                 start {
@@ -84,6 +87,7 @@ public class TestWorkerTest extends MultithreadedTestCase {
 
             one(processor).startProcessing(withParam(notNullValue()))
             one(processor).processTestClass(test)
+            one(processedListener).testClassProcessed()
             one(processor).stop()
         }
 